@@ -0,0 +1,62 @@
+package com.todolist.bench;
+
+import com.todolist.TodoStore;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Retained heap of a loaded store per item, for each way of holding items in memory:
+ * <pre>
+ * java -Xmx4g -cp benchmarks/target/benchmarks.jar com.todolist.bench.HeapFootprint [size]
+ * </pre>
+ * The data set (default 1M items) is written once as text and loaded into a fresh store per
+ * mode; the figure is the growth of used heap after repeated full GCs, so run it on its own.
+ */
+public final class HeapFootprint {
+    private static final String[][] MODES = {
+            {"objects", "todolist.columnar", "false"},
+            {"columnar", "todolist.columnar", "true"},
+    };
+
+    private HeapFootprint() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dir = Files.createTempDirectory("todo-heap");
+        Path file = dir.resolve("todos.txt");
+        TodoStore writer = new TodoStore(file, false);
+        writer.batch(b -> TodoDataGenerator.generate(size, 42).forEach(b::add));
+        writer.save();
+        writer = null;
+
+        System.out.printf("%,d items%n", size);
+        for (String[] mode : MODES) {
+            System.setProperty(mode[1], mode[2]);
+            long before = usedAfterGc();
+            TodoStore store = new TodoStore(file, false);
+            store.load();
+            long after = usedAfterGc();
+            System.out.printf("%-9s %,8.1f MB  %,6.1f bytes/item  (%d in view)%n", mode[0],
+                    (after - before) / 1e6, (after - before) / (double) size,
+                    store.getItemsFor(TodoDataGenerator.TODAY).size());
+            store.close();
+        }
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(dir);
+    }
+
+    private static long usedAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,252 @@
+package com.todolist.bench;
+
+import com.todolist.TodoItem;
+import com.todolist.TodoServer;
+import com.todolist.TodoStore;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput and latency percentiles of {@link TodoServer} under many concurrent clients:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.todolist.bench.HttpLoadTest
+ *      [--clients 2000] [--seconds 30] [--warmup 5] [--writes 10] [--size 100000] [--threads n] [--url http://host:port]
+ * </pre>
+ * Without --url a server is started in-process on a temp journaled store of --size generated
+ * items with --threads request threads. Each client is closed-loop: it sends its next request
+ * when the previous answer arrives, so latency includes queueing at that concurrency. Reads are
+ * 70% one day, 20% one week and 10% a month summary; --writes percent of requests are adds,
+ * completions and title edits of items the client added. Only requests that start and finish
+ * inside the measured window count. Each client holds a connection, so the open file limit must
+ * allow about two per client when the server runs in-process.
+ */
+public final class HttpLoadTest {
+    private final HttpClient http;
+    private final URI base;
+    private final int writePercent;
+    private final ExecutorService callbacks;
+    private final AtomicLong errors = new AtomicLong();
+    private volatile long measureFrom;
+    private volatile long stopAt;
+
+    private HttpLoadTest(URI base, int writePercent) {
+        this.base = base;
+        this.writePercent = writePercent;
+        callbacks = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+            Thread t = new Thread(r, "load-callback");
+            t.setDaemon(true);
+            return t;
+        });
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(callbacks)
+                .connectTimeout(Duration.ofSeconds(30)).build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = 2000;
+        int seconds = 30;
+        int warmup = 5;
+        int writes = 10;
+        int size = 100_000;
+        int threads = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+        String url = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--clients": clients = Integer.parseInt(value); break;
+                case "--seconds": seconds = Integer.parseInt(value); break;
+                case "--warmup": warmup = Integer.parseInt(value); break;
+                case "--writes": writes = Integer.parseInt(value); break;
+                case "--size": size = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--url": url = value; break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        TodoStore store = null;
+        TodoServer server = null;
+        Path dir = null;
+        if (url == null) {
+            // The JDK server closes idle connections beyond this limit (default 200); keep all clients' alive.
+            if (System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+                System.setProperty("sun.net.httpserver.maxIdleConnections", Integer.toString(clients));
+            }
+            dir = Files.createTempDirectory("todo-http");
+            store = new TodoStore(dir.resolve("todos.txt"), true);
+            List<TodoItem> items = TodoDataGenerator.generate(size, 42);
+            store.batch(b -> items.forEach(b::add));
+            store.enableWriteBehind(250, e -> System.err.println("Save failed: " + e.getMessage()));
+            server = TodoServer.start(store, new InetSocketAddress("127.0.0.1", 0), threads);
+            url = "http://127.0.0.1:" + server.getPort();
+            System.out.printf("In-process server: %,d items, %d request threads%n", size, threads);
+        }
+
+        HttpLoadTest test = new HttpLoadTest(URI.create(url.endsWith("/") ? url : url + "/"), writes);
+        Result result = test.run(clients, warmup, seconds);
+        result.print(clients, seconds, test.errors.get());
+
+        if (server != null) {
+            server.close();
+            store.close();
+            try (var files = Files.list(dir)) {
+                for (Path f : (Iterable<Path>) files::iterator) Files.deleteIfExists(f);
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private Result run(int clients, int warmupSeconds, int seconds) {
+        long now = System.nanoTime();
+        measureFrom = now + warmupSeconds * 1_000_000_000L;
+        stopAt = measureFrom + seconds * 1_000_000_000L;
+        List<Client> all = new ArrayList<>();
+        CompletableFuture<?>[] done = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            Client c = new Client(i);
+            all.add(c);
+            done[i] = c.done;
+            callbacks.execute(() -> next(c));
+        }
+        CompletableFuture.allOf(done).join();
+        Result result = new Result();
+        for (Client c : all) {
+            result.reads.addAll(c.reads);
+            result.writes.addAll(c.writes);
+        }
+        return result;
+    }
+
+    /** Sends c's next request, or finishes c once the measured window is over. */
+    private void next(Client c) {
+        if (System.nanoTime() >= stopAt) {
+            c.done.complete(null);
+            return;
+        }
+        boolean write = c.random.nextInt(100) < writePercent;
+        HttpRequest request = write ? c.write() : c.read();
+        long start = System.nanoTime();
+        http.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenCompleteAsync((response, failure) -> {
+            long end = System.nanoTime();
+            boolean ok = failure == null && response.statusCode() < 300;
+            if (!ok) {
+                errors.incrementAndGet();
+            } else if (write && response.statusCode() == 201) {
+                c.added(response.body());
+            }
+            if (ok && start >= measureFrom && end < stopAt) (write ? c.writes : c.reads).add(end - start);
+            next(c);
+        }, callbacks);
+    }
+
+    private final class Client {
+        final Random random;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        final Latencies reads = new Latencies();
+        final Latencies writes = new Latencies();
+        final List<String> ids = new ArrayList<>();
+
+        Client(int n) {
+            random = new Random(n);
+        }
+
+        HttpRequest read() {
+            LocalDate day = TodoDataGenerator.FIRST_DAY.plusDays(random.nextInt(TodoDataGenerator.spanDays()));
+            int kind = random.nextInt(10);
+            String path;
+            if (kind < 7) path = "todos?date=" + day;
+            else if (kind < 9) path = "todos?from=" + day + "&to=" + day.plusDays(6);
+            else path = "summary?month=" + day.toString().substring(0, 7);
+            return HttpRequest.newBuilder(base.resolve(path)).GET().build();
+        }
+
+        HttpRequest write() {
+            int kind = random.nextInt(10);
+            if (ids.isEmpty() || kind < 5) {
+                LocalDate day = TodoDataGenerator.TODAY.plusDays(random.nextInt(60));
+                return post("todos", "{\"title\":\"Load test " + random.nextInt(1000) + "\",\"date\":\"" + day + "\"}");
+            }
+            String id = ids.get(random.nextInt(ids.size()));
+            if (kind < 8) return post("todos/" + id + "/complete", "");
+            return HttpRequest.newBuilder(base.resolve("todos/" + id))
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"title\":\"Edited " + random.nextInt(1000) + "\"}")).build();
+        }
+
+        private HttpRequest post(String path, String json) {
+            return HttpRequest.newBuilder(base.resolve(path)).POST(HttpRequest.BodyPublishers.ofString(json)).build();
+        }
+
+        /** Remembers the id of an item this client added; body starts {"id":"...". */
+        void added(String body) {
+            int start = body.indexOf("\"id\":\"") + 6;
+            if (start >= 6) ids.add(body.substring(start, body.indexOf('"', start)));
+        }
+    }
+
+    /** Growable array of latencies in nanoseconds. */
+    private static final class Latencies {
+        long[] values = new long[1024];
+        int size;
+
+        void add(long nanos) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = nanos;
+        }
+
+        void addAll(Latencies other) {
+            for (int i = 0; i < other.size; i++) add(other.values[i]);
+        }
+
+        long[] sorted() {
+            long[] out = Arrays.copyOf(values, size);
+            Arrays.sort(out);
+            return out;
+        }
+    }
+
+    private static final class Result {
+        final Latencies reads = new Latencies();
+        final Latencies writes = new Latencies();
+
+        void print(int clients, int seconds, long errors) {
+            Latencies all = new Latencies();
+            all.addAll(reads);
+            all.addAll(writes);
+            System.out.printf("%,d clients, %d s measured: %,d requests, %,.0f req/s, %,d errors%n",
+                    clients, seconds, all.size, all.size / (double) seconds, errors);
+            System.out.printf("%-6s %10s %9s %9s %9s %9s %9s%n", "", "count", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+            row("all", all.sorted());
+            row("read", reads.sorted());
+            row("write", writes.sorted());
+        }
+
+        private static void row(String name, long[] sorted) {
+            if (sorted.length == 0) {
+                System.out.printf("%-6s %,10d%n", name, 0);
+                return;
+            }
+            System.out.printf("%-6s %,10d %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, sorted.length,
+                    pct(sorted, 50), pct(sorted, 90), pct(sorted, 99), pct(sorted, 99.9), sorted[sorted.length - 1] / 1e6);
+        }
+
+        private static double pct(long[] sorted, double p) {
+            int i = (int) Math.ceil(p / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, i))] / 1e6;
+        }
+    }
+}
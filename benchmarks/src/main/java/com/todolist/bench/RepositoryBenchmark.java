@@ -0,0 +1,101 @@
+package com.todolist.bench;
+
+import com.todolist.TodoItem;
+import com.todolist.TodoRepository;
+import com.todolist.TodoStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The same operations on every {@link TodoRepository} backend (jdbc runs on H2): loading a
+ * store, saving after one edit and after a batch of 1000, and a one-week range query answered
+ * by the backend itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RepositoryBenchmark {
+    @Param({"10000", "100000"})
+    public int size;
+
+    @Param({"memory", "file", "jdbc"})
+    public String backend;
+
+    private Path dir;
+    private TodoRepository repository;
+    private TodoStore store;
+    private List<TodoItem> items;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        items = TodoDataGenerator.generate(size, 42);
+        dir = Files.createTempDirectory("todo-repo-bench");
+        repository = TodoRepository.open(backend, null, dir);
+        store = new TodoStore(repository);
+        store.load();
+        store.batch(b -> items.forEach(b::add));
+        store.save();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        store.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.deleteIfExists(p);
+        }
+    }
+
+    /** Reads every item back into a new store (the memory backend keeps them in the repository object). */
+    @Benchmark
+    public TodoStore load() throws IOException {
+        TodoStore loaded = new TodoStore(backend.equals("memory") ? repository : TodoRepository.open(backend, null, dir));
+        loaded.load();
+        if (!backend.equals("memory")) {
+            try {
+                loaded.close();
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+        return loaded;
+    }
+
+    /** Flip one item's completion and save. */
+    @Benchmark
+    public void saveOneEdit() throws IOException {
+        String id = items.get(cursor++ % items.size()).getId();
+        store.setCompleted(id, !store.getById(id).orElseThrow().isCompleted());
+        store.save();
+    }
+
+    /** Flip 1000 items' completion in one batch and save. */
+    @Benchmark
+    public void saveBatch() throws IOException {
+        store.batch(b -> {
+            for (int i = 0; i < 1000; i++) {
+                TodoItem item = store.getById(items.get(cursor++ % items.size()).getId()).orElseThrow();
+                b.setCompleted(item, !item.isCompleted());
+            }
+        });
+        store.save();
+    }
+
+    /** One week of items straight from the backend. */
+    @Benchmark
+    public List<TodoItem> findWeek() throws IOException {
+        LocalDate from = TodoDataGenerator.TODAY.plusDays(cursor++ % 60);
+        return repository.findInRange(from, from.plusDays(6));
+    }
+}
@@ -0,0 +1,82 @@
+package com.todolist.bench;
+
+import com.todolist.TodoItem;
+import com.todolist.TodoStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Loading and saving a generated data set in the text and binary formats: a full load, a full
+ * snapshot rewrite, and the journaled save the app does after a single edit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StorePersistenceBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"text", "binary"})
+    public String format;
+
+    private Path dir;
+    private Path dataFile;
+    private TodoStore snapshotStore;
+    private TodoStore journaledStore;
+    private List<TodoItem> items;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        System.setProperty("todolist.format", format);
+        items = TodoDataGenerator.generate(size, 42);
+        dir = Files.createTempDirectory("todo-bench");
+        dataFile = dir.resolve("todos.txt");
+        snapshotStore = new TodoStore(dataFile);
+        snapshotStore.batch(b -> items.forEach(b::add));
+        snapshotStore.save();
+
+        journaledStore = new TodoStore(dir.resolve("journaled.txt"), true);
+        journaledStore.batch(b -> items.forEach(b::add));
+        journaledStore.save();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        journaledStore.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.deleteIfExists(p);
+        }
+    }
+
+    @Benchmark
+    public TodoStore load() throws IOException {
+        TodoStore store = new TodoStore(dataFile);
+        store.load();
+        return store;
+    }
+
+    /** Full rewrite of the data file (non-journaled save). */
+    @Benchmark
+    public void save() throws IOException {
+        snapshotStore.save();
+    }
+
+    /** Flip one item's completion and save: one journal append, with compaction in the background when due. */
+    @Benchmark
+    public void journaledSave() throws IOException {
+        String id = items.get(cursor++ % items.size()).getId();
+        journaledStore.setCompleted(id, !journaledStore.getById(id).orElseThrow().isCompleted());
+        journaledStore.save();
+    }
+}
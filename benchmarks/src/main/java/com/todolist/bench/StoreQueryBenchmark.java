@@ -0,0 +1,106 @@
+package com.todolist.bench;
+
+import com.todolist.RangeSummary;
+import com.todolist.TodoItem;
+import com.todolist.TodoStore;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory read and write paths of {@link TodoStore} over a generated data set. Each call
+ * takes the next of 1024 pre-drawn dates, months or ids, so lookups are spread over the span.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StoreQueryBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private TodoStore store;
+    private Path file;
+    private final LocalDate[] dates = new LocalDate[QUERIES];
+    private final YearMonth[] months = new YearMonth[QUERIES];
+    private final TodoItem[] items = new TodoItem[QUERIES];
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<TodoItem> all = TodoDataGenerator.generate(size, 42);
+        file = Files.createTempFile("todo-bench", ".txt");
+        store = new TodoStore(file);
+        store.batch(b -> all.forEach(b::add));
+        Random random = new Random(7);
+        for (int i = 0; i < QUERIES; i++) {
+            dates[i] = TodoDataGenerator.FIRST_DAY.plusDays(random.nextInt(TodoDataGenerator.spanDays()));
+            months[i] = YearMonth.from(dates[i]);
+            items[i] = all.get(random.nextInt(all.size()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private int next() {
+        return cursor++ & (QUERIES - 1);
+    }
+
+    @Benchmark
+    public List<TodoItem> getItemsFor() {
+        return store.getItemsFor(dates[next()]);
+    }
+
+    /** A one-week range, as from a shift-click selection. */
+    @Benchmark
+    public List<TodoItem> getItemsInRange() {
+        LocalDate from = dates[next()];
+        return store.getItemsInRange(from, from.plusDays(6));
+    }
+
+    @Benchmark
+    public int percentCompleted() {
+        return store.percentCompleted(dates[next()]);
+    }
+
+    /** What {@code CalendarPanel.refreshPercentages} does for one month. */
+    @Benchmark
+    public void monthRefresh(Blackhole bh) {
+        YearMonth month = months[next()];
+        RangeSummary summary = store.summarize(month);
+        for (int day = 1; day <= month.lengthOfMonth(); day++) {
+            LocalDate d = month.atDay(day);
+            bh.consume(summary.totalCount(d));
+            bh.consume(summary.percentCompleted(d));
+        }
+    }
+
+    @Benchmark
+    public Optional<TodoItem> getById() {
+        return store.getById(items[next()].getId());
+    }
+
+    /** Removes an item and adds it back, so the store keeps its size. */
+    @Benchmark
+    public void removeById() {
+        TodoItem item = items[next()];
+        store.removeById(item.getId());
+        store.add(item);
+    }
+}
@@ -0,0 +1,62 @@
+package com.todolist.bench;
+
+import com.todolist.TodoItem;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded synthetic todos: the same seed and size always give the same items. Start dates are
+ * spread over a span of years; about 85% of items are single-day, 12% span 2–7 days and 3% span
+ * 1–6 weeks. Items before the "today" of the data set (80% through the span) are mostly
+ * completed, later ones mostly not. Titles are drawn from a small vocabulary of verbs and nouns.
+ */
+public final class TodoDataGenerator {
+    public static final LocalDate FIRST_DAY = LocalDate.of(2016, 1, 1);
+    public static final int YEARS = 10;
+    public static final LocalDate LAST_DAY = FIRST_DAY.plusYears(YEARS).minusDays(1);
+    public static final LocalDate TODAY = FIRST_DAY.plusDays(spanDays() * 4 / 5);
+
+    private static final String[] VERBS = {
+            "Buy", "Call", "Email", "Fix", "Review", "Plan", "Write", "Clean", "Book", "Pay", "Read", "Send",
+            "Prepare", "Schedule", "Update", "Finish", "Check", "Order", "Return", "Organize"
+    };
+    private static final String[] NOUNS = {
+            "milk", "mom", "quarterly report", "car service", "invoice", "taxes", "garden", "train tickets",
+            "dentist appointment", "slides", "budget", "kitchen", "groceries", "proposal", "passport",
+            "insurance", "birthday gift", "team meeting", "release notes", "gym membership"
+    };
+
+    private TodoDataGenerator() {
+    }
+
+    public static int spanDays() {
+        return (int) (LAST_DAY.toEpochDay() - FIRST_DAY.toEpochDay() + 1);
+    }
+
+    public static List<TodoItem> generate(int count, long seed) {
+        Random random = new Random(seed);
+        int span = spanDays();
+        List<TodoItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDate start = FIRST_DAY.plusDays(random.nextInt(span));
+            int kind = random.nextInt(100);
+            int extraDays = kind < 85 ? 0 : kind < 97 ? 1 + random.nextInt(6) : 7 + random.nextInt(36);
+            LocalDate end = start.plusDays(extraDays);
+            if (end.isAfter(LAST_DAY)) end = LAST_DAY;
+            String title = VERBS[random.nextInt(VERBS.length)] + " " + NOUNS[random.nextInt(NOUNS.length)];
+            if (random.nextInt(4) == 0) title += " #" + random.nextInt(1000);
+            boolean completed = random.nextInt(100) < (start.isBefore(TODAY) ? 80 : 5);
+            items.add(new TodoItem(id(random), start, end, title, completed));
+        }
+        return items;
+    }
+
+    /** Twelve hex digits, the id form of existing todos.txt files, from the seeded generator. */
+    private static String id(Random random) {
+        String hex = Long.toHexString(random.nextLong() & 0xFFFFFFFFFFFFL);
+        return "000000000000".substring(hex.length()) + hex;
+    }
+}
@@ -0,0 +1,189 @@
+package com.todolist;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary todo file, read into one heap buffer.
+ * <pre>
+ * header  : magic "TODB" | int version | int count | int stringsOffset
+ * records : count x (int startEpochDay | int endEpochDay | byte flags | int idRef | int titleRef)
+ * strings : (int byteLength | UTF-8 bytes)*   -- refs are offsets into this section
+ * </pre>
+ * Flag bit 0 is "completed". The store indexes the file from the date and flag columns and the
+ * ids' raw bytes ({@link TodoColumns#of}); an item is only made for a record a query returns,
+ * and its id and title are decoded when first read. The file is read rather than mapped: a live
+ * mapping would keep the file open, and on Windows the next save could not move its temp file
+ * over it.
+ */
+final class BinaryTodoFile implements TodoItem.Source {
+    static final int MAGIC = 0x544F4442; // "TODB"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 17;
+    private static final int FLAG_COMPLETED = 1;
+
+    private final ByteBuffer buf;
+    private final int count;
+    private final int stringsOffset;
+
+    private BinaryTodoFile(ByteBuffer buf) throws IOException {
+        this.buf = buf.order(ByteOrder.BIG_ENDIAN);
+        if (buf.limit() < HEADER_SIZE || buf.getInt(0) != MAGIC) throw new IOException("Not a binary todo file");
+        int version = buf.getInt(4);
+        if (version != VERSION) throw new IOException("Unsupported binary todo file version " + version);
+        this.count = buf.getInt(8);
+        this.stringsOffset = buf.getInt(12);
+        if (count < 0 || stringsOffset < HEADER_SIZE + (long) count * RECORD_SIZE || stringsOffset > buf.limit()) {
+            throw new IOException("Corrupt binary todo file header");
+        }
+    }
+
+    /** True if the file starts with the binary magic number. */
+    static boolean isBinary(Path path) throws IOException {
+        if (!Files.exists(path) || Files.size(path) < 4) return false;
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] b = in.readNBytes(4);
+            return ByteBuffer.wrap(b).getInt() == MAGIC;
+        }
+    }
+
+    /** Reads the whole file; nothing stays open, so the file can be replaced on disk afterwards. */
+    static BinaryTodoFile open(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Binary todo file too large: " + size + " bytes");
+            ByteBuffer buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining() && ch.read(buf) >= 0) { }
+            if (buf.hasRemaining()) throw new IOException("Binary todo file truncated while reading: " + path);
+            return new BinaryTodoFile(buf.flip());
+        }
+    }
+
+    int size() {
+        return count;
+    }
+
+    int startDay(int record) {
+        return buf.getInt(offset(record));
+    }
+
+    int endDay(int record) {
+        return buf.getInt(offset(record) + 4);
+    }
+
+    boolean isCompleted(int record) {
+        return (buf.get(offset(record) + 8) & FLAG_COMPLETED) != 0;
+    }
+
+    @Override
+    public String id(int record) {
+        return string(buf.getInt(offset(record) + 9));
+    }
+
+    /** {@link TodoIds#key} of the record's id, read from its bytes; 0 if it is not a standard id. */
+    long idKey(int record) {
+        int pos = stringsOffset + buf.getInt(offset(record) + 9);
+        return TodoIds.key(buf, pos + 4, buf.getInt(pos));
+    }
+
+    @Override
+    public String title(int record) {
+        return string(buf.getInt(offset(record) + 13));
+    }
+
+    /** Item with dates and completion set; id and title decode from this file on first access. */
+    TodoItem item(int record) {
+        return new TodoItem(this, record,
+                LocalDate.ofEpochDay(startDay(record)),
+                LocalDate.ofEpochDay(endDay(record)),
+                isCompleted(record));
+    }
+
+    private int offset(int record) {
+        if (record < 0 || record >= count) throw new IndexOutOfBoundsException(record);
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+
+    private String string(int ref) {
+        int pos = stringsOffset + ref;
+        int len = buf.getInt(pos);
+        byte[] bytes = new byte[len];
+        buf.get(pos + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Writes items in binary form to the channel. */
+    static void write(FileChannel out, List<TodoItem> items) throws IOException {
+        int n = items.size();
+        ByteBuffer records = ByteBuffer.allocate(HEADER_SIZE + n * RECORD_SIZE);
+        ByteArrayOutputStream strings = new ByteArrayOutputStream(n * 32);
+        records.position(HEADER_SIZE);
+        for (TodoItem item : items) {
+            records.putInt((int) item.getDate().toEpochDay());
+            records.putInt((int) item.getEndDate().toEpochDay());
+            records.put((byte) (item.isCompleted() ? FLAG_COMPLETED : 0));
+            records.putInt(appendString(strings, item.getId()));
+            records.putInt(appendString(strings, item.getTitle()));
+        }
+        records.putInt(0, MAGIC);
+        records.putInt(4, VERSION);
+        records.putInt(8, n);
+        records.putInt(12, records.capacity());
+        records.flip();
+        while (records.hasRemaining()) out.write(records);
+        ByteBuffer str = ByteBuffer.wrap(strings.toByteArray());
+        while (str.hasRemaining()) out.write(str);
+    }
+
+    private static int appendString(ByteArrayOutputStream out, String s) {
+        int ref = out.size();
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.write(b.length >>> 24);
+        out.write(b.length >>> 16);
+        out.write(b.length >>> 8);
+        out.write(b.length);
+        out.writeBytes(b);
+        return ref;
+    }
+
+    /** Lossless conversion of a todos.txt file (4- or 5-field lines) to the binary format. */
+    static void convert(Path textFile, Path binaryFile) throws IOException {
+        TodoStore source = new TodoStore(textFile);
+        source.load();
+        try (FileChannel out = FileChannel.open(binaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(out, source.getAllItems());
+        }
+    }
+
+    /** Converts a binary file back to the text format. */
+    static void convertToText(Path binaryFile, Path textFile) throws IOException {
+        BinaryTodoFile file = open(binaryFile);
+        List<String> lines = new ArrayList<>(file.size());
+        for (int i = 0; i < file.size(); i++) lines.add(TodoStore.formatLine(file.item(i)));
+        Files.write(textFile, lines, StandardCharsets.UTF_8);
+    }
+
+    /** Usage: {@code BinaryTodoFile to-binary todos.txt todos.bin} or {@code to-text todos.bin todos.txt}. */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 || !(args[0].equals("to-binary") || args[0].equals("to-text"))) {
+            System.err.println("Usage: BinaryTodoFile (to-binary|to-text) <input> <output>");
+            System.exit(2);
+        }
+        if (args[0].equals("to-binary")) convert(Paths.get(args[1]), Paths.get(args[2]));
+        else convertToText(Paths.get(args[1]), Paths.get(args[2]));
+    }
+}
@@ -1,19 +1,33 @@
 package com.todolist;
 
 import javax.swing.*;
-import javax.swing.border.LineBorder;
 import java.awt.*;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.YearMonth;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * Calendar grid for a month. Each day cell shows the day number and percent completed.
  * Cell background uses a dull gradient by completion: 0% red → 25% orange → 50% yellow → 75% green → 100% blue; no tasks = grey.
+ * Listens to the store and recomputes only the cells inside each change's date range.
+ * <p>
+ * The grid is one painted component over a fixed 6×7 cell model with hit-testing, so changing
+ * month or hovering creates no Swing components; colors come from precomputed 101-entry
+ * palettes and only cells whose state changed are repainted.
+ * <p>
+ * While {@link #setLoading loading}, cells show a placeholder and ignore clicks, so the grid
+ * can be on screen before the store has been read.
  */
 public class CalendarPanel extends JPanel {
     private static final String[] WEEK_HEADERS = { "Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun" };
+    private static final int COLUMNS = 7;
+    private static final int MAX_CELLS = 6 * COLUMNS;
+    private static final int GAP = 2;
+    private static final int HEADER_HEIGHT = 20;
 
     /** Grey for days with no tasks. */
     private static final Color NO_TASKS_COLOR = new Color(55, 55, 70);
@@ -25,6 +39,34 @@ public class CalendarPanel extends JPanel {
             new Color(70, 125, 85),   // 75% green
             new Color(60, 85, 130),   // 100% blue
     };
+    private static final Color GRID_BACKGROUND = new Color(45, 45, 55);
+    private static final Color HEADER_BACKGROUND = new Color(60, 60, 80);
+    private static final Color CELL_BORDER = new Color(70, 70, 90);
+    private static final Color SELECTED_COLOR = new Color(80, 100, 140);
+    private static final Color PERCENT_TEXT = new Color(180, 220, 180);
+
+    /** Cell color for each completion percent 0–100, and the same brightened for hover. */
+    private static final Color[] PALETTE = new Color[101];
+    private static final Color[] HOVER_PALETTE = new Color[101];
+    private static final Color NO_TASKS_HOVER = brighten(NO_TASKS_COLOR, 1.15f);
+    private static final String[] DAY_LABELS = new String[32];
+    private static final String[] PERCENT_LABELS = new String[101];
+    private static final String LOADING_LABEL = "…";
+
+    static {
+        for (int p = 0; p <= 100; p++) {
+            PALETTE[p] = colorForPercent(p);
+            HOVER_PALETTE[p] = brighten(PALETTE[p], 1.15f);
+            PERCENT_LABELS[p] = p + "%";
+        }
+        for (int d = 1; d < DAY_LABELS.length; d++) DAY_LABELS[d] = String.valueOf(d);
+    }
+
+    /** Cell color for a day: grey with no tasks, else the precomputed gradient color. */
+    static Color cellColor(int totalCount, int percent) {
+        if (totalCount <= 0) return NO_TASKS_COLOR;
+        return PALETTE[Math.max(0, Math.min(100, percent))];
+    }
 
     /** Interpolate between gradient stops by completion percent (0–100). */
     private static Color colorForPercent(int percent) {
@@ -57,8 +99,11 @@ public class CalendarPanel extends JPanel {
 
     private YearMonth currentMonth;
     private final TodoStore store;
-    private final List<DayCell> dayCells = new ArrayList<>();
+    private final MonthGrid grid = new MonthGrid();
+    private final LatencyTimer buildTimer;
+    private final LatencyTimer refreshTimer;
     private Runnable onDaySelected;
+    private boolean loading;
     /** Anchor for range selection (first click). */
     private LocalDate anchorDate;
     /** End of range when shift+click (inclusive). */
@@ -66,55 +111,38 @@ public class CalendarPanel extends JPanel {
 
     public CalendarPanel(TodoStore store) {
         this.store = store;
+        this.buildTimer = store.getMetrics().timer("ui.buildUI");
+        this.refreshTimer = store.getMetrics().timer("ui.refreshPercentages");
         this.currentMonth = YearMonth.now();
-        setLayout(new BorderLayout(5, 5));
+        setLayout(new BorderLayout());
+        add(grid, BorderLayout.CENTER);
         buildUI();
+        store.addListener(this::todosChanged);
     }
 
     public void setOnDaySelected(Runnable onDaySelected) {
         this.onDaySelected = onDaySelected;
     }
 
+    /** Points the cell model at the current month; no components are created. */
     private void buildUI() {
-        removeAll();
-        dayCells.clear();
-
-        JPanel header = new JPanel(new GridLayout(1, 7));
-        header.setBackground(new Color(60, 60, 80));
-        for (String w : WEEK_HEADERS) {
-            JLabel l = new JLabel(w, SwingConstants.CENTER);
-            l.setForeground(Color.WHITE);
-            l.setFont(l.getFont().deriveFont(Font.BOLD, 11f));
-            header.add(l);
-        }
-        add(header, BorderLayout.NORTH);
-
-        JPanel grid = new JPanel(new GridLayout(0, 7, 2, 2));
-        grid.setBackground(new Color(45, 45, 55));
-
-        LocalDate first = currentMonth.atDay(1);
-        int startOffset = first.getDayOfWeek().getValue() - 1; // Monday = 0
-        int daysInMonth = currentMonth.lengthOfMonth();
-
-        // Empty cells before first day
-        for (int i = 0; i < startOffset; i++) {
-            grid.add(new JLabel());
-        }
-
-        for (int day = 1; day <= daysInMonth; day++) {
-            LocalDate date = currentMonth.atDay(day);
-            DayCell cell = new DayCell(date);
-            dayCells.add(cell);
-            grid.add(cell);
-        }
-
-        add(grid, BorderLayout.CENTER);
-        revalidate();
-        repaint();
+        long start = System.nanoTime();
+        grid.setMonth(currentMonth);
+        refreshPercentages();
+        updateSelectionHighlight();
+        grid.repaint();
+        buildTimer.recordSince(start);
     }
 
+    /** Shows month; a segmented store pages it in and drops months far from it. */
     public void setMonth(YearMonth month) {
         this.currentMonth = month;
+        try {
+            store.focus(month);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Could not load todos for " + month + ": " + e.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        }
         buildUI();
     }
 
@@ -122,12 +150,50 @@ public class CalendarPanel extends JPanel {
         return currentMonth;
     }
 
+    /** Shows placeholders instead of percentages until loading ends, then fills in the month. */
+    public void setLoading(boolean loading) {
+        if (this.loading == loading) return;
+        this.loading = loading;
+        if (!loading) refreshPercentages();
+        grid.repaint();
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    /** Recomputes every cell from one {@link TodoStore#summarize(YearMonth)} pass. */
     public void refreshPercentages() {
-        for (DayCell cell : dayCells) {
-            LocalDate d = cell.getDate();
-            int total = (int) store.totalCount(d);
-            int percent = store.percentCompleted(d);
-            cell.updatePercent(total, percent);
+        if (loading) return;
+        long start = System.nanoTime();
+        RangeSummary summary = store.summarize(currentMonth);
+        for (int day = 1; day <= currentMonth.lengthOfMonth(); day++) {
+            LocalDate d = currentMonth.atDay(day);
+            grid.updatePercent(day, summary.totalCount(d), summary.percentCompleted(d));
+        }
+        refreshTimer.recordSince(start);
+    }
+
+    /** Store listener: updates the cells of the current month that the change touched. */
+    private void todosChanged(TodoChangeEvent e) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> todosChanged(e));
+            return;
+        }
+        if (loading) return;
+        if (e.getType() == TodoChangeEvent.Type.RELOADED) {
+            refreshPercentages();
+            return;
+        }
+        LocalDate first = currentMonth.atDay(1);
+        LocalDate last = currentMonth.atEndOfMonth();
+        if (!e.affects(first, last)) return;
+        LocalDate from = e.getFrom().isBefore(first) ? first : e.getFrom();
+        LocalDate to = e.getTo().isAfter(last) ? last : e.getTo();
+        RangeSummary summary = store.summarize(from, to);
+        for (int day = from.getDayOfMonth(); day <= to.getDayOfMonth(); day++) {
+            LocalDate d = currentMonth.atDay(day);
+            grid.updatePercent(day, summary.totalCount(d), summary.percentCompleted(d));
         }
     }
 
@@ -139,105 +205,223 @@ public class CalendarPanel extends JPanel {
 
     /** Updates which cells appear selected (single date or range). */
     private void updateSelectionHighlight() {
-        LocalDate from = anchorDate;
+        if (anchorDate == null) {
+            grid.setSelection(0, -1);
+            return;
+        }
         LocalDate to = rangeEndDate != null ? rangeEndDate : anchorDate;
-        if (from != null && to != null) {
-            LocalDate start = from.isBefore(to) ? from : to;
-            LocalDate end = from.isBefore(to) ? to : from;
-            for (DayCell cell : dayCells) {
-                LocalDate d = cell.getDate();
-                cell.setSelected(!d.isBefore(start) && !d.isAfter(end));
-            }
-        } else if (anchorDate != null) {
-            for (DayCell cell : dayCells) {
-                cell.setSelected(cell.getDate().equals(anchorDate));
-            }
+        LocalDate start = anchorDate.isBefore(to) ? anchorDate : to;
+        LocalDate end = anchorDate.isBefore(to) ? to : anchorDate;
+        LocalDate first = currentMonth.atDay(1);
+        LocalDate last = currentMonth.atEndOfMonth();
+        if (end.isBefore(first) || start.isAfter(last)) {
+            grid.setSelection(0, -1);
+            return;
         }
+        grid.setSelection(start.isBefore(first) ? 1 : start.getDayOfMonth(),
+                end.isAfter(last) ? last.getDayOfMonth() : end.getDayOfMonth());
     }
 
-    private class DayCell extends JPanel {
-        private final LocalDate date;
-        private final JLabel dayLabel;
-        private final JLabel percentLabel;
-        private boolean selected;
-        /** Background for normal state: grey when no tasks, gradient color by completion when has tasks. */
-        private Color baseBackground = NO_TASKS_COLOR;
-
-        DayCell(LocalDate date) {
-            this.date = date;
-            setLayout(new BorderLayout(2, 2));
-            setBorder(new LineBorder(new Color(70, 70, 90), 1));
-            setBackground(NO_TASKS_COLOR);
-            setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
-
-            dayLabel = new JLabel(String.valueOf(date.getDayOfMonth()), SwingConstants.CENTER);
-            dayLabel.setFont(dayLabel.getFont().deriveFont(Font.BOLD, 14f));
-            dayLabel.setForeground(Color.WHITE);
-            add(dayLabel, BorderLayout.NORTH);
-
-            percentLabel = new JLabel("", SwingConstants.CENTER);
-            percentLabel.setFont(percentLabel.getFont().deriveFont(10f));
-            percentLabel.setForeground(new Color(180, 220, 180));
-            add(percentLabel, BorderLayout.CENTER);
-
-            updatePercent((int) store.totalCount(date), store.percentCompleted(date));
+    private void dayClicked(LocalDate date, boolean shift) {
+        Frame owner = (Frame) SwingUtilities.getWindowAncestor(this);
+        if (shift && anchorDate != null) {
+            rangeEndDate = date;
+            updateSelectionHighlight();
+            if (onDaySelected != null) onDaySelected.run();
+            LocalDate start = anchorDate.isBefore(date) ? anchorDate : date;
+            LocalDate end = anchorDate.isBefore(date) ? date : anchorDate;
+            new DayTodoDialog(owner, start, end, store, null).setVisible(true);
+        } else {
+            anchorDate = date;
+            rangeEndDate = null;
+            updateSelectionHighlight();
+            if (onDaySelected != null) onDaySelected.run();
+            new DayTodoDialog(owner, date, null, store, null).setVisible(true);
+        }
+    }
 
-            addMouseListener(new java.awt.event.MouseAdapter() {
+    /**
+     * Painted month grid: weekday header plus up to 6×7 cells. Cell i holds day
+     * (i - startOffset + 1); all per-cell state lives in fixed arrays reused across months.
+     */
+    private class MonthGrid extends JComponent {
+        private final int[] totals = new int[MAX_CELLS];
+        private final int[] percents = new int[MAX_CELLS];
+        private final Rectangle cellRect = new Rectangle();
+        private final Font headerFont;
+        private final Font dayFont;
+        private final Font percentFont;
+        private int startOffset;
+        private int daysInMonth;
+        private int rows;
+        private int hoverCell = -1;
+        private int selectedFromDay;
+        private int selectedToDay = -1;
+
+        MonthGrid() {
+            Font base = UIManager.getFont("Label.font");
+            if (base == null) base = new Font(Font.DIALOG, Font.PLAIN, 12);
+            headerFont = base.deriveFont(Font.BOLD, 11f);
+            dayFont = base.deriveFont(Font.BOLD, 14f);
+            percentFont = base.deriveFont(10f);
+            setOpaque(true);
+            setPreferredSize(new Dimension(7 * 64, HEADER_HEIGHT + 6 * 48));
+
+            MouseAdapter mouse = new MouseAdapter() {
                 @Override
-                public void mouseClicked(java.awt.event.MouseEvent e) {
-                    boolean shift = (e.getModifiersEx() & java.awt.event.InputEvent.SHIFT_DOWN_MASK) != 0;
-                    if (shift && anchorDate != null) {
-                        rangeEndDate = date;
-                        updateSelectionHighlight();
-                        if (onDaySelected != null) onDaySelected.run();
-                        LocalDate start = anchorDate.isBefore(date) ? anchorDate : date;
-                        LocalDate end = anchorDate.isBefore(date) ? date : anchorDate;
-                        DayTodoDialog dialog = new DayTodoDialog(
-                                (Frame) SwingUtilities.getWindowAncestor(CalendarPanel.this),
-                                start, end, store, CalendarPanel.this::refreshPercentages);
-                        dialog.setVisible(true);
-                    } else {
-                        anchorDate = date;
-                        rangeEndDate = null;
-                        updateSelectionHighlight();
-                        if (onDaySelected != null) onDaySelected.run();
-                        DayTodoDialog dialog = new DayTodoDialog(
-                                (Frame) SwingUtilities.getWindowAncestor(CalendarPanel.this),
-                                date, null, store, CalendarPanel.this::refreshPercentages);
-                        dialog.setVisible(true);
-                    }
+                public void mouseClicked(MouseEvent e) {
+                    int day = dayAt(e.getX(), e.getY());
+                    if (day < 1 || loading) return;
+                    boolean shift = (e.getModifiersEx() & InputEvent.SHIFT_DOWN_MASK) != 0;
+                    dayClicked(currentMonth.atDay(day), shift);
                 }
 
                 @Override
-                public void mouseEntered(java.awt.event.MouseEvent e) {
-                    if (!selected) setBackground(brighten(baseBackground, 1.15f));
+                public void mouseMoved(MouseEvent e) {
+                    int day = dayAt(e.getX(), e.getY());
+                    setHoverCell(day < 1 || loading ? -1 : day - 1 + startOffset);
                 }
 
                 @Override
-                public void mouseExited(java.awt.event.MouseEvent e) {
-                    if (!selected) setBackground(baseBackground);
+                public void mouseExited(MouseEvent e) {
+                    setHoverCell(-1);
                 }
-            });
+            };
+            addMouseListener(mouse);
+            addMouseMotionListener(mouse);
         }
 
-        LocalDate getDate() {
-            return date;
+        void setMonth(YearMonth month) {
+            startOffset = month.atDay(1).getDayOfWeek().getValue() - 1; // Monday = 0
+            daysInMonth = month.lengthOfMonth();
+            rows = (startOffset + daysInMonth + COLUMNS - 1) / COLUMNS;
+            Arrays.fill(totals, -1);
+            Arrays.fill(percents, -1);
+            hoverCell = -1;
+            setCursor(Cursor.getDefaultCursor());
         }
 
-        void updatePercent(int totalCount, int percent) {
-            if (totalCount == 0) {
-                baseBackground = NO_TASKS_COLOR;
-                percentLabel.setText("");
-            } else {
-                baseBackground = colorForPercent(percent);
-                percentLabel.setText(percent + "%");
+        /** Stores the day's counts and repaints just that cell if anything changed. */
+        void updatePercent(int day, int total, int percent) {
+            int cell = day - 1 + startOffset;
+            if (totals[cell] == total && percents[cell] == percent) return;
+            totals[cell] = total;
+            percents[cell] = percent;
+            repaintCell(cell);
+        }
+
+        void setSelection(int fromDay, int toDay) {
+            int oldFrom = selectedFromDay;
+            int oldTo = selectedToDay;
+            selectedFromDay = fromDay;
+            selectedToDay = toDay;
+            for (int day = 1; day <= daysInMonth; day++) {
+                boolean was = day >= oldFrom && day <= oldTo;
+                boolean is = day >= fromDay && day <= toDay;
+                if (was != is) repaintCell(day - 1 + startOffset);
             }
-            if (!selected) setBackground(baseBackground);
         }
 
-        void setSelected(boolean selected) {
-            this.selected = selected;
-            setBackground(selected ? new Color(80, 100, 140) : baseBackground);
+        private void setHoverCell(int cell) {
+            if (cell == hoverCell) return;
+            int old = hoverCell;
+            hoverCell = cell;
+            if (old >= 0) repaintCell(old);
+            if (cell >= 0) repaintCell(cell);
+            setCursor(cell >= 0 ? Cursor.getPredefinedCursor(Cursor.HAND_CURSOR) : Cursor.getDefaultCursor());
+        }
+
+        private void repaintCell(int cell) {
+            if (rows == 0) return;
+            cellBounds(cell, cellRect);
+            repaint(cellRect.x, cellRect.y, cellRect.width, cellRect.height);
+        }
+
+        /** Day of month under (x, y), or 0 if none. */
+        private int dayAt(int x, int y) {
+            if (rows == 0 || y < HEADER_HEIGHT) return 0;
+            int col = Math.min(COLUMNS - 1, x * COLUMNS / Math.max(1, getWidth()));
+            int row = Math.min(rows - 1, (y - HEADER_HEIGHT) * rows / Math.max(1, getHeight() - HEADER_HEIGHT));
+            int day = row * COLUMNS + col - startOffset + 1;
+            return day >= 1 && day <= daysInMonth ? day : 0;
+        }
+
+        private void cellBounds(int cell, Rectangle r) {
+            int col = cell % COLUMNS;
+            int row = cell / COLUMNS;
+            int w = getWidth();
+            int h = getHeight() - HEADER_HEIGHT;
+            int x0 = col * w / COLUMNS;
+            int x1 = (col + 1) * w / COLUMNS;
+            int y0 = HEADER_HEIGHT + row * h / rows;
+            int y1 = HEADER_HEIGHT + (row + 1) * h / rows;
+            r.setBounds(x0, y0, x1 - x0 - (col < COLUMNS - 1 ? GAP : 0), y1 - y0 - (row < rows - 1 ? GAP : 0));
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g;
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            Rectangle clip = g.getClipBounds();
+            int w = getWidth();
+
+            g.setColor(GRID_BACKGROUND);
+            g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+            if (clip.y < HEADER_HEIGHT) {
+                g.setColor(HEADER_BACKGROUND);
+                g.fillRect(0, 0, w, HEADER_HEIGHT);
+                g.setFont(headerFont);
+                g.setColor(Color.WHITE);
+                FontMetrics fm = g.getFontMetrics();
+                for (int col = 0; col < COLUMNS; col++) {
+                    int x0 = col * w / COLUMNS;
+                    int x1 = (col + 1) * w / COLUMNS;
+                    String label = WEEK_HEADERS[col];
+                    g.drawString(label, x0 + (x1 - x0 - fm.stringWidth(label)) / 2,
+                            (HEADER_HEIGHT - fm.getHeight()) / 2 + fm.getAscent());
+                }
+            }
+
+            for (int day = 1; day <= daysInMonth; day++) {
+                int cell = day - 1 + startOffset;
+                cellBounds(cell, cellRect);
+                if (!cellRect.intersects(clip)) continue;
+                paintCell(g, cell, day);
+            }
+        }
+
+        private void paintCell(Graphics g, int cell, int day) {
+            Rectangle r = cellRect;
+            int total = totals[cell];
+            int percent = Math.max(0, percents[cell]);
+            boolean selected = day >= selectedFromDay && day <= selectedToDay;
+            boolean hover = cell == hoverCell;
+            Color bg;
+            if (selected) bg = SELECTED_COLOR;
+            else if (total <= 0) bg = hover ? NO_TASKS_HOVER : NO_TASKS_COLOR;
+            else bg = hover ? HOVER_PALETTE[percent] : PALETTE[percent];
+            g.setColor(bg);
+            g.fillRect(r.x, r.y, r.width, r.height);
+            g.setColor(CELL_BORDER);
+            g.drawRect(r.x, r.y, r.width - 1, r.height - 1);
+
+            g.setFont(dayFont);
+            g.setColor(Color.WHITE);
+            FontMetrics fm = g.getFontMetrics();
+            String dayLabel = DAY_LABELS[day];
+            int dayBaseline = r.y + 3 + fm.getAscent();
+            g.drawString(dayLabel, r.x + (r.width - fm.stringWidth(dayLabel)) / 2, dayBaseline);
+
+            if (total > 0 || loading) {
+                g.setFont(percentFont);
+                g.setColor(loading ? Color.GRAY : PERCENT_TEXT);
+                FontMetrics pm = g.getFontMetrics();
+                String label = loading ? LOADING_LABEL : PERCENT_LABELS[percent];
+                int top = dayBaseline + fm.getDescent();
+                int baseline = top + (r.y + r.height - top - pm.getHeight()) / 2 + pm.getAscent();
+                g.drawString(label, r.x + (r.width - pm.stringWidth(label)) / 2, baseline);
+            }
         }
     }
 }
@@ -1,21 +1,52 @@
 package com.todolist;
 
+import javax.management.JMException;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.time.Year;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Main application window: calendar with month navigation and percent completed per day.
- * Click a day to open the todo popup for that day.
+ * Click a day to open the todo popup for that day. The view selector switches to a year or
+ * ten-year completion heatmap.
+ * <p>
+ * Startup is staged: the window is built and shown with the month grid in its loading state
+ * while a {@link SwingWorker} reads the store. When it finishes, the visible month is filled
+ * in first and the search index is built afterwards on its own thread; the controls that
+ * change the store stay disabled until then.
  */
 public class CalendarTodoApp extends JFrame {
+    /** Close to JVM start: the first thing that runs is this class's main. */
+    private static final long LAUNCHED = System.nanoTime();
     private static final DateTimeFormatter MONTH_YEAR = DateTimeFormatter.ofPattern("MMMM yyyy");
+    private static final String HINT = "Left: add tasks (single or multi-day). Click a day to edit that day's todos. "
+            + "Shift+click a range for bulk options.";
+    private static final String VIEW_MONTH = "Month";
+    private static final String VIEW_YEAR = "Year";
+    private static final String VIEW_DECADE = "10 years";
 
     private final TodoStore store;
     private final CalendarPanel calendarPanel;
+    private final HeatmapPanel heatmapPanel;
+    private final JPanel views;
+    private final JComboBox<String> viewSelector;
     private final JLabel monthLabel;
+    private final JLabel hint;
+    private final TaskCreateSidebar sidebar;
+    private final TodoSearchField search;
+    private final JButton prev;
+    private final JButton next;
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    /** Last year shown by the heatmap views. */
+    private int heatmapYear = Year.now().getValue();
 
     public CalendarTodoApp() {
         setTitle("Calendar Todo List");
@@ -23,31 +54,70 @@ public class CalendarTodoApp extends JFrame {
         setResizable(true);
 
         store = new TodoStore();
+        TodoMetrics metrics = store.getMetrics();
         try {
-            store.load();
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Could not load todos: " + e.getMessage());
+            metrics.register();
+        } catch (JMException e) {
+            System.err.println("Could not register metrics MBean: " + e.getMessage());
         }
+        metrics.startLogging(Long.getLong("todolist.metricsLogSeconds", 0L));
+        long stallMillis = Long.getLong("todolist.edtStallMs", 200L);
+        if (stallMillis > 0) EdtWatchdog.install(metrics, stallMillis);
+        store.enableWriteBehind(Long.getLong("todolist.saveDebounceMs", 250L),
+                e -> SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
+                        "Could not save todos: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE)));
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                metrics.timer("ui.startup.firstFrame").record(System.nanoTime() - LAUNCHED);
+            }
+
+            @Override
+            public void windowClosing(WindowEvent e) {
+                try {
+                    store.close();
+                } catch (Exception ex) {
+                    JOptionPane.showMessageDialog(CalendarTodoApp.this, "Could not save todos: " + ex.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        });
 
         calendarPanel = new CalendarPanel(store);
+        calendarPanel.setLoading(true);
         calendarPanel.setBorder(new EmptyBorder(8, 8, 8, 8));
-        calendarPanel.refreshPercentages();
 
-        TaskCreateSidebar sidebar = new TaskCreateSidebar(store, calendarPanel::refreshPercentages);
+        sidebar = new TaskCreateSidebar(store, null);
 
         monthLabel = new JLabel(calendarPanel.getCurrentMonth().format(MONTH_YEAR));
         monthLabel.setFont(monthLabel.getFont().deriveFont(Font.BOLD, 18f));
         monthLabel.setBorder(new EmptyBorder(0, 0, 8, 0));
 
-        JButton prev = new JButton("< Prev");
-        JButton next = new JButton("Next >");
+        heatmapPanel = new HeatmapPanel(store, heatmapYear, heatmapYear);
+        JScrollPane heatmapScroll = new JScrollPane(heatmapPanel);
+        heatmapScroll.setBorder(new EmptyBorder(8, 8, 8, 8));
+        heatmapScroll.getViewport().setBackground(new Color(45, 45, 55));
+        heatmapScroll.getVerticalScrollBar().setUnitIncrement(16);
+        views = new JPanel(new CardLayout());
+        views.add(calendarPanel, VIEW_MONTH);
+        views.add(heatmapScroll, VIEW_YEAR);
+
+        viewSelector = new JComboBox<>(new String[] { VIEW_MONTH, VIEW_YEAR, VIEW_DECADE });
+        viewSelector.addActionListener(e -> showView());
+
+        prev = new JButton("< Prev");
+        next = new JButton("Next >");
         prev.addActionListener(e -> moveMonth(-1));
         next.addActionListener(e -> moveMonth(1));
 
         JPanel top = new JPanel(new BorderLayout());
         top.setBorder(new EmptyBorder(8, 8, 4, 8));
         top.add(monthLabel, BorderLayout.CENTER);
+        search = new TodoSearchField(store);
+        search.setOnSelect(this::showItem);
         JPanel nav = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 0));
+        nav.add(search);
+        nav.add(viewSelector);
         nav.add(prev);
         nav.add(next);
         top.add(nav, BorderLayout.EAST);
@@ -56,25 +126,140 @@ public class CalendarTodoApp extends JFrame {
         getContentPane().setBackground(new Color(45, 45, 55));
         add(top, BorderLayout.NORTH);
         add(sidebar, BorderLayout.WEST);
-        add(calendarPanel, BorderLayout.CENTER);
+        add(views, BorderLayout.CENTER);
 
-        JLabel hint = new JLabel("Left: add tasks (single or multi-day). Click a day to edit that day's todos. Shift+click a range for bulk options.");
+        hint = new JLabel("Loading todos…");
         hint.setForeground(Color.GRAY);
         hint.setBorder(new EmptyBorder(4, 12, 8, 12));
         add(hint, BorderLayout.SOUTH);
 
-        setSize(780, 420);
+        setSize(960, 420);
         setLocationRelativeTo(null);
+        setControlsEnabled(false);
+        startLoading();
     }
 
+    /** Reads the store on a worker thread; see the class comment. */
+    private void startLoading() {
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                store.load();
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(CalendarTodoApp.this, "Could not load todos: " + cause.getMessage());
+                }
+                calendarPanel.setLoading(false);
+                setControlsEnabled(true);
+                hint.setText(HINT);
+                store.getMetrics().timer("ui.startup.dataShown").record(System.nanoTime() - LAUNCHED);
+                loaded.countDown();
+                if (Boolean.getBoolean("todolist.watch")) watchFile();
+                Thread indexer = new Thread(() -> store.search("", 0), "todo-search-index"); // builds the index off the EDT
+                indexer.setDaemon(true);
+                indexer.start();
+            }
+        }.execute();
+    }
+
+    /** Follows changes other programs make to the todos file; the views update from the store's events. */
+    private void watchFile() {
+        try {
+            store.enableFileWatch(Long.getLong("todolist.watchDebounceMs", 300L),
+                    e -> System.err.println("Could not reload changed todos: " + e.getMessage()));
+        } catch (IOException | UnsupportedOperationException e) {
+            System.err.println("Could not watch the todos file: " + e.getMessage());
+        }
+    }
+
+    /** The controls that read or change todos; off while the store is loading. */
+    private void setControlsEnabled(boolean enabled) {
+        sidebar.setEnabled(enabled);
+        search.setEnabled(enabled);
+        viewSelector.setEnabled(enabled);
+        prev.setEnabled(enabled);
+        next.setEnabled(enabled);
+    }
+
+    /** Prev/Next: a month in the month view, a year in the heatmap views. */
     private void moveMonth(int delta) {
+        if (!VIEW_MONTH.equals(viewSelector.getSelectedItem())) {
+            heatmapYear += delta;
+            showView();
+            return;
+        }
         YearMonth next = calendarPanel.getCurrentMonth().plusMonths(delta);
         calendarPanel.setMonth(next);
         monthLabel.setText(next.format(MONTH_YEAR));
-        calendarPanel.refreshPercentages();
     }
 
-    public static void main(String[] args) {
+    /** Search pick: shows the item's month with its start day selected. */
+    private void showItem(TodoItem item) {
+        viewSelector.setSelectedItem(VIEW_MONTH);
+        YearMonth month = YearMonth.from(item.getDate());
+        calendarPanel.setMonth(month);
+        calendarPanel.setSelectedDate(item.getDate());
+        monthLabel.setText(month.format(MONTH_YEAR));
+    }
+
+    private void showView() {
+        Object view = viewSelector.getSelectedItem();
+        CardLayout cards = (CardLayout) views.getLayout();
+        if (VIEW_MONTH.equals(view)) {
+            cards.show(views, VIEW_MONTH);
+            monthLabel.setText(calendarPanel.getCurrentMonth().format(MONTH_YEAR));
+            return;
+        }
+        int firstYear = VIEW_DECADE.equals(view) ? heatmapYear - 9 : heatmapYear;
+        heatmapPanel.setYears(firstYear, heatmapYear);
+        monthLabel.setText(firstYear == heatmapYear ? String.valueOf(heatmapYear) : firstYear + " – " + heatmapYear);
+        cards.show(views, VIEW_YEAR);
+    }
+
+    /**
+     * Class-loading run for the appcds Maven profile (-Dtodolist.cdsTraining=true): opens the
+     * window, waits for the store to load and exits. Without a display it builds the panels
+     * and loads the store headless, which still covers the app and most Swing classes.
+     */
+    private static void trainForCds() throws Exception {
+        if (GraphicsEnvironment.isHeadless()) {
+            TodoStore store = new TodoStore();
+            store.load();
+            SwingUtilities.invokeAndWait(() -> {
+                JPanel root = new JPanel(new BorderLayout());
+                root.add(new CalendarPanel(store), BorderLayout.CENTER);
+                root.add(new TaskCreateSidebar(store, null), BorderLayout.WEST);
+                root.add(new TodoSearchField(store), BorderLayout.NORTH);
+                root.add(new JScrollPane(new HeatmapPanel(store, Year.now().getValue(), Year.now().getValue())), BorderLayout.SOUTH);
+                root.setSize(960, 420);
+                root.doLayout();
+            });
+            store.search("", 0);
+            store.close();
+        } else {
+            CalendarTodoApp[] app = new CalendarTodoApp[1];
+            SwingUtilities.invokeAndWait(() -> {
+                app[0] = new CalendarTodoApp();
+                app[0].setVisible(true);
+            });
+            app[0].loaded.await();
+            SwingUtilities.invokeAndWait(() -> app[0].dispatchEvent(new WindowEvent(app[0], WindowEvent.WINDOW_CLOSING)));
+        }
+        System.exit(0);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (Boolean.getBoolean("todolist.cdsTraining")) {
+            trainForCds();
+            return;
+        }
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
         } catch (Exception ignored) {}
@@ -0,0 +1,157 @@
+package com.todolist;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * RFC 4180 CSV with a header row, read one record at a time (quoted fields may contain commas,
+ * quotes and line breaks). Columns are found by header name, case-insensitively:
+ * id/uid, start/date/start date, end/due/end date, title/summary/task/name,
+ * completed/done/status. A row with only one of start and end is a single-day todo. Dates are
+ * ISO (a date-time is cut to its date). Export writes {@code id,start,end,title,completed}.
+ */
+final class CsvTodoFormat implements TodoFormat {
+    private static final String HEADER = "id,start,end,title,completed";
+
+    @Override
+    public long read(Reader in, Consumer<TodoItem> sink) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, 64 * 1024);
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        if (!readRecord(reader, fields, field)) return 0;
+        int id = -1, start = -1, end = -1, title = -1, completed = -1;
+        for (int i = 0; i < fields.size(); i++) {
+            String name = fields.get(i).trim().toLowerCase(Locale.ROOT);
+            if (i == 0 && name.startsWith("\uFEFF")) name = name.substring(1);
+            switch (name) {
+                case "id": case "uid": id = i; break;
+                case "start": case "date": case "start date": start = i; break;
+                case "end": case "due": case "end date": case "due date": end = i; break;
+                case "title": case "summary": case "task": case "name": title = i; break;
+                case "completed": case "done": case "status": completed = i; break;
+                default: break;
+            }
+        }
+        if (start < 0 && end < 0) throw new IOException("CSV header has no start or due column: " + fields);
+        long skipped = 0;
+        while (readRecord(reader, fields, field)) {
+            if (fields.size() == 1 && fields.get(0).isEmpty()) continue; // blank line
+            LocalDate first = parseDate(get(fields, start));
+            LocalDate last = parseDate(get(fields, end));
+            if (first == null) first = last;
+            if (last == null) last = first;
+            if (first == null || last.isBefore(first)) {
+                skipped++;
+                continue;
+            }
+            String t = get(fields, title);
+            sink.accept(new TodoItem(TodoFormat.importId(get(fields, id)), first, last,
+                    t == null ? "" : t.replace('\n', ' ').replace('\r', ' '), isDone(get(fields, completed))));
+        }
+        return skipped;
+    }
+
+    private static String get(List<String> fields, int i) {
+        return i >= 0 && i < fields.size() ? fields.get(i) : null;
+    }
+
+    private static LocalDate parseDate(String s) {
+        if (s == null) return null;
+        String v = s.trim();
+        if (v.length() < 10) return null;
+        try {
+            return LocalDate.parse(v.substring(0, 10));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static boolean isDone(String s) {
+        if (s == null) return false;
+        switch (s.trim().toLowerCase(Locale.ROOT)) {
+            case "true": case "yes": case "y": case "1": case "x": case "done": case "completed":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Reads one record into fields (cleared first), reusing field as scratch space. Returns false
+     * at end of input.
+     */
+    private static boolean readRecord(BufferedReader in, List<String> fields, StringBuilder field) throws IOException {
+        fields.clear();
+        field.setLength(0);
+        int c = in.read();
+        if (c < 0) return false;
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) throw new IOException("Unterminated quoted CSV field");
+                if (c == '"') {
+                    in.mark(1);
+                    int n = in.read();
+                    if (n == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (n >= 0) in.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c < 0 || c == '\n') {
+                break;
+            } else if (c == '\r') {
+                in.mark(1);
+                if (in.read() != '\n') in.reset();
+                break;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = in.read();
+        }
+        fields.add(field.toString());
+        return true;
+    }
+
+    @Override
+    public void write(Writer out, Iterable<TodoItem> items) throws IOException {
+        out.write(HEADER);
+        out.write("\r\n");
+        StringBuilder line = new StringBuilder(128);
+        for (TodoItem item : items) {
+            line.setLength(0);
+            appendField(line, item.getId()).append(',');
+            line.append(item.getDate()).append(',').append(item.getEndDate()).append(',');
+            appendField(line, item.getTitle()).append(',');
+            line.append(item.isCompleted()).append("\r\n");
+            out.append(line);
+        }
+        out.flush();
+    }
+
+    private static StringBuilder appendField(StringBuilder sb, String s) {
+        boolean quote = false;
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) return sb.append(s);
+        return sb.append('"').append(s.replace("\"", "\"\"")).append('"');
+    }
+}
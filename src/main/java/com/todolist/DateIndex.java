@@ -0,0 +1,458 @@
+package com.todolist;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Interval tree over item date ranges, used by {@link TodoStore} for day and range queries.
+ * AVL tree keyed by start day (ties broken by insertion sequence); each node also keeps the
+ * latest end day in its subtree, so subtrees that end before the query are skipped.
+ * Lookups cost O(log n + k) instead of a scan over every item.
+ * <p>
+ * The tree is persistent: nodes are never modified, and {@link #with}/{@link #without} return a
+ * new index that shares all but O(log n) nodes with the old one. An index value is therefore a
+ * complete, immutable point-in-time view that any thread can read without locking.
+ * <p>
+ * A columnar index ({@link #columnar}) starts from an immutable {@link TodoColumns} base and
+ * keeps the tree only for items added or changed since. Base rows that were removed or
+ * replaced are marked in a bit set split into small chunks, so marking one copies just the
+ * chunk table and one chunk. Queries merge base rows with tree items; summaries and counts
+ * read base rows straight from the columns.
+ * <p>
+ * The index also carries the store's {@link Recurrence} series. They are not items: the
+ * aggregate queries (summaries, counts) include their occurrences, while
+ * {@link #occurrences} lists them separately for the few days a caller asks for.
+ */
+final class DateIndex {
+    static final DateIndex EMPTY = new DateIndex(null, null, null, 0, new Recurrence[0]);
+    /** Removed-row bits per chunk: 64 longs = 4096 rows. */
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_LONGS = 1 << (CHUNK_SHIFT - 6);
+
+    private static final class Node {
+        final TodoItem item;
+        final long start;
+        final long end;
+        final long seq;
+        final long maxEnd;
+        final int height;
+        final int size;
+        final Node left;
+        final Node right;
+
+        Node(TodoItem item, long start, long end, long seq, Node left, Node right) {
+            this.item = item;
+            this.start = start;
+            this.end = end;
+            this.seq = seq;
+            this.left = left;
+            this.right = right;
+            this.height = 1 + Math.max(height(left), height(right));
+            this.size = 1 + size(left) + size(right);
+            long m = end;
+            if (left != null && left.maxEnd > m) m = left.maxEnd;
+            if (right != null && right.maxEnd > m) m = right.maxEnd;
+            this.maxEnd = m;
+        }
+
+        Node withChildren(Node left, Node right) {
+            return new Node(item, start, end, seq, left, right);
+        }
+    }
+
+    private final Node root;
+    /** Columnar base, or null. */
+    private final TodoColumns base;
+    /** Base rows no longer in this version, by chunk; a null chunk has none. */
+    private final long[][] removed;
+    private final int removedCount;
+    /** Recurring series, in the order they were added; few, so kept as a copied array. */
+    private final Recurrence[] rules;
+
+    private DateIndex(Node root, TodoColumns base, long[][] removed, int removedCount, Recurrence[] rules) {
+        this.root = root;
+        this.base = base;
+        this.removed = removed;
+        this.removedCount = removedCount;
+        this.rules = rules;
+    }
+
+    /** Index over base, whose row for insertion sequence i is item i. */
+    static DateIndex columnar(TodoColumns base) {
+        return new DateIndex(null, base, new long[(base.size() >>> CHUNK_SHIFT) + 1][], 0, EMPTY.rules);
+    }
+
+    private DateIndex withRoot(Node r) {
+        return r == root ? this : new DateIndex(r, base, removed, removedCount, rules);
+    }
+
+    /** Same items with other's recurring series. */
+    DateIndex withRulesOf(DateIndex other) {
+        return other.rules == rules ? this : new DateIndex(root, base, removed, removedCount, other.rules);
+    }
+
+    /** Index with rule added, or replacing the series with the same id. */
+    DateIndex withRule(Recurrence rule) {
+        Recurrence[] next = null;
+        for (int i = 0; i < rules.length; i++) {
+            if (rules[i].getId().equals(rule.getId())) {
+                next = rules.clone();
+                next[i] = rule;
+            }
+        }
+        if (next == null) {
+            next = Arrays.copyOf(rules, rules.length + 1);
+            next[rules.length] = rule;
+        }
+        return new DateIndex(root, base, removed, removedCount, next);
+    }
+
+    /** Index without the series id. */
+    DateIndex withoutRule(String id) {
+        for (int i = 0; i < rules.length; i++) {
+            if (!rules[i].getId().equals(id)) continue;
+            Recurrence[] next = new Recurrence[rules.length - 1];
+            System.arraycopy(rules, 0, next, 0, i);
+            System.arraycopy(rules, i + 1, next, i, next.length - i);
+            return new DateIndex(root, base, removed, removedCount, next);
+        }
+        return this;
+    }
+
+    /** The series with this id, or null. */
+    Recurrence rule(String id) {
+        for (Recurrence r : rules) {
+            if (r.getId().equals(id)) return r;
+        }
+        return null;
+    }
+
+    List<Recurrence> rules() {
+        return List.of(rules);
+    }
+
+    /** Occurrences of every series in [from, to], series by series, each by date. */
+    List<TodoItem> occurrences(LocalDate from, LocalDate to) {
+        if (rules.length == 0) return List.of();
+        List<TodoItem> result = new ArrayList<>();
+        for (Recurrence r : rules) {
+            r.forEachDay(from.toEpochDay(), to.toEpochDay(), day -> result.add(r.occurrence(LocalDate.ofEpochDay(day))));
+        }
+        return result;
+    }
+
+    private boolean isRemoved(int row) {
+        long[] chunk = removed[row >>> CHUNK_SHIFT];
+        return chunk != null && (chunk[(row >>> 6) & (CHUNK_LONGS - 1)] & (1L << row)) != 0;
+    }
+
+    /** Base rows in this version overlapping [from, to]. */
+    private void forEachBaseRow(long from, long to, IntConsumer visitor) {
+        if (base == null) return;
+        if (removedCount == 0) {
+            base.forEachOverlapping(from, to, visitor);
+        } else {
+            base.forEachOverlapping(from, to, row -> {
+                if (!isRemoved(row)) visitor.accept(row);
+            });
+        }
+    }
+
+    /** Current item with insertion sequence seq if it is a base row of this version, else null. */
+    TodoItem baseItem(int seq) {
+        if (base == null || seq < 0 || seq >= base.size()) return null;
+        int row = base.rowOfSeq(seq);
+        return isRemoved(row) ? null : base.item(row);
+    }
+
+    /** Number of base rows (the sequences below it may be base rows), 0 for a plain index. */
+    int baseSize() {
+        return base == null ? 0 : base.size();
+    }
+
+    /**
+     * Calls visitor with the sequence and item of every item in the tree (all items of a plain
+     * index; those added or replaced since the base of a columnar one), and with a null item for
+     * every base row removed without a replacement.
+     */
+    void forEachChange(ObjLongConsumer<TodoItem> visitor) {
+        List<Node> nodes = new ArrayList<>(size(root));
+        collect(root, Long.MIN_VALUE, Long.MAX_VALUE, nodes);
+        if (removedCount > 0) {
+            BitSet replaced = new BitSet();
+            for (Node n : nodes) {
+                if (n.seq < base.size()) replaced.set((int) n.seq);
+            }
+            for (int seq = 0; seq < base.size(); seq++) {
+                if (!replaced.get(seq) && isRemoved(base.rowOfSeq(seq))) visitor.accept(null, seq);
+            }
+        }
+        for (Node n : nodes) visitor.accept(n.item, n.seq);
+    }
+
+    /** Items added or replaced since the base was built. */
+    int deltaSize() {
+        return size(root);
+    }
+
+    /** Builds a balanced index in O(n log n); item i gets insertion sequence i. */
+    static DateIndex build(List<TodoItem> items) {
+        Node[] leaves = new Node[items.size()];
+        for (int i = 0; i < leaves.length; i++) {
+            TodoItem item = items.get(i);
+            leaves[i] = new Node(item, item.getDate().toEpochDay(), item.getEndDate().toEpochDay(), i, null, null);
+        }
+        Arrays.sort(leaves, Comparator.comparingLong((Node n) -> n.start).thenComparingLong(n -> n.seq));
+        return new DateIndex(buildBalanced(leaves, 0, leaves.length), null, null, 0, EMPTY.rules);
+    }
+
+    private static Node buildBalanced(Node[] sorted, int from, int to) {
+        if (from >= to) return null;
+        int mid = (from + to) >>> 1;
+        Node n = sorted[mid];
+        return n.withChildren(buildBalanced(sorted, from, mid), buildBalanced(sorted, mid + 1, to));
+    }
+
+    /** Index with item added under the given insertion sequence. */
+    DateIndex with(TodoItem item, long seq) {
+        Node n = new Node(item, item.getDate().toEpochDay(), item.getEndDate().toEpochDay(), seq, null, null);
+        return withRoot(insert(root, n));
+    }
+
+    /** Index without the entry for item's start day and sequence (a base row if item is a view of one). */
+    DateIndex without(TodoItem item, long seq) {
+        // A view of a base row is in the tree instead only if it was stored again after its row was removed.
+        if (base != null && item.source() == base && !isRemoved(item.record())) {
+            int row = item.record();
+            long[][] chunks = removed.clone();
+            int c = row >>> CHUNK_SHIFT;
+            long[] chunk = chunks[c] == null ? new long[CHUNK_LONGS] : chunks[c].clone();
+            chunk[(row >>> 6) & (CHUNK_LONGS - 1)] |= 1L << row;
+            chunks[c] = chunk;
+            return new DateIndex(root, base, chunks, removedCount + 1, rules);
+        }
+        return withRoot(delete(root, item.getDate().toEpochDay(), seq));
+    }
+
+    /** Number of stored items (occurrences of series are not counted). */
+    int size() {
+        return size(root) + baseSize() - removedCount;
+    }
+
+    /** Stored items whose range contains date, in insertion order. */
+    List<TodoItem> covering(LocalDate date) {
+        return overlapping(date, date);
+    }
+
+    /** Stored items whose range overlaps [from, to] (inclusive), in insertion order. */
+    List<TodoItem> overlapping(LocalDate from, LocalDate to) {
+        List<Node> hits = new ArrayList<>();
+        collect(root, from.toEpochDay(), to.toEpochDay(), hits);
+        if (base == null) return bySeq(hits);
+        hits.sort((a, b) -> Long.compare(a.seq, b.seq));
+        // Base rows as (seq, row) pairs sorted by seq, merged with the tree's hits.
+        long[][] pairs = { new long[16] };
+        int[] count = { 0 };
+        forEachBaseRow(from.toEpochDay(), to.toEpochDay(), row -> {
+            if (count[0] == pairs[0].length) pairs[0] = Arrays.copyOf(pairs[0], count[0] * 2);
+            pairs[0][count[0]++] = ((long) base.seq(row) << 32) | row;
+        });
+        long[] p = pairs[0];
+        int n = count[0];
+        Arrays.sort(p, 0, n);
+        List<TodoItem> result = new ArrayList<>(n + hits.size());
+        int i = 0;
+        for (Node node : hits) {
+            while (i < n && (p[i] >>> 32) < node.seq) result.add(base.item((int) p[i++]));
+            result.add(node.item);
+        }
+        while (i < n) result.add(base.item((int) p[i++]));
+        return result;
+    }
+
+    /** Stored items overlapping [from, to] in no particular order. */
+    List<TodoItem> overlappingUnordered(LocalDate from, LocalDate to) {
+        List<Node> hits = new ArrayList<>();
+        collect(root, from.toEpochDay(), to.toEpochDay(), hits);
+        List<TodoItem> result = new ArrayList<>(hits.size());
+        for (Node n : hits) result.add(n.item);
+        forEachBaseRow(from.toEpochDay(), to.toEpochDay(), row -> result.add(base.item(row)));
+        return result;
+    }
+
+    /** Per-day total and completed counts over [from, to], occurrences included, without materializing base rows. */
+    RangeSummary summarize(LocalDate from, LocalDate to) {
+        long f = from.toEpochDay();
+        long t = to.toEpochDay();
+        RangeSummary.Builder builder = new RangeSummary.Builder(from, to);
+        List<Node> hits = new ArrayList<>();
+        collect(root, f, t, hits);
+        for (Node n : hits) builder.add(n.start, n.end, n.item.isCompleted());
+        forEachBaseRow(f, t, row -> builder.add(base.start(row), base.end(row), base.isCompleted(row)));
+        for (Recurrence r : rules) r.forEachDay(f, t, day -> builder.add(day, day, r.isCompleted(day)));
+        return builder.build();
+    }
+
+    /** Every stored item, in insertion order. */
+    List<TodoItem> all() {
+        List<Node> nodes = new ArrayList<>(size(root));
+        collect(root, Long.MIN_VALUE, Long.MAX_VALUE, nodes);
+        if (base == null) return bySeq(nodes);
+        // Base sequences are 0..n-1; a replaced row's sequence is reused by its tree version.
+        TodoItem[] slots = new TodoItem[base.size()];
+        for (int seq = 0; seq < slots.length; seq++) slots[seq] = baseItem(seq);
+        List<Node> added = new ArrayList<>();
+        for (Node n : nodes) {
+            if (n.seq < slots.length) slots[(int) n.seq] = n.item;
+            else added.add(n);
+        }
+        List<TodoItem> result = new ArrayList<>(size());
+        for (TodoItem item : slots) {
+            if (item != null) result.add(item);
+        }
+        result.addAll(bySeq(added));
+        return result;
+    }
+
+    /** The sequence of each item {@link #all()} returns, in the same order. */
+    long[] seqs() {
+        List<Node> nodes = new ArrayList<>(size(root));
+        collect(root, Long.MIN_VALUE, Long.MAX_VALUE, nodes);
+        int baseSize = base == null ? 0 : base.size();
+        long[] out = new long[baseSize + nodes.size()];
+        boolean[] present = new boolean[baseSize];
+        for (int seq = 0; seq < baseSize; seq++) present[seq] = !isRemoved(base.rowOfSeq(seq));
+        int added = 0;
+        for (Node n : nodes) {
+            if (n.seq < baseSize) present[(int) n.seq] = true;
+            else out[baseSize + added++] = n.seq;
+        }
+        Arrays.sort(out, baseSize, baseSize + added);
+        int count = 0;
+        for (int seq = 0; seq < baseSize; seq++) {
+            if (present[seq]) out[count++] = seq;
+        }
+        System.arraycopy(out, baseSize, out, count, added);
+        return Arrays.copyOf(out, count + added);
+    }
+
+    /** Number of items and occurrences covering date; only completed ones when completedOnly. */
+    int countCovering(LocalDate date, boolean completedOnly) {
+        long day = date.toEpochDay();
+        int[] c = { count(root, day, completedOnly) };
+        forEachBaseRow(day, day, row -> {
+            if (!completedOnly || base.isCompleted(row)) c[0]++;
+        });
+        for (Recurrence r : rules) {
+            if (r.occursOn(date) && (!completedOnly || r.isCompleted(day))) c[0]++;
+        }
+        return c[0];
+    }
+
+    private static List<TodoItem> bySeq(List<Node> nodes) {
+        nodes.sort((a, b) -> Long.compare(a.seq, b.seq));
+        List<TodoItem> result = new ArrayList<>(nodes.size());
+        for (Node n : nodes) result.add(n.item);
+        return result;
+    }
+
+    private static void collect(Node n, long from, long to, List<Node> out) {
+        while (n != null && n.maxEnd >= from) {
+            collect(n.left, from, to, out);
+            if (n.start > to) return;
+            if (n.end >= from) out.add(n);
+            n = n.right;
+        }
+    }
+
+    private static int count(Node n, long day, boolean completedOnly) {
+        int c = 0;
+        while (n != null && n.maxEnd >= day) {
+            c += count(n.left, day, completedOnly);
+            if (n.start > day) break;
+            if (n.end >= day && (!completedOnly || n.item.isCompleted())) c++;
+            n = n.right;
+        }
+        return c;
+    }
+
+    // --- persistent AVL maintenance (path copying) ---
+
+    private static int height(Node n) {
+        return n == null ? 0 : n.height;
+    }
+
+    private static int size(Node n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static int compare(long start, long seq, Node n) {
+        int c = Long.compare(start, n.start);
+        return c != 0 ? c : Long.compare(seq, n.seq);
+    }
+
+    private static Node insert(Node t, Node n) {
+        if (t == null) return n;
+        if (compare(n.start, n.seq, t) < 0) return balance(t, insert(t.left, n), t.right);
+        return balance(t, t.left, insert(t.right, n));
+    }
+
+    private static Node delete(Node t, long start, long seq) {
+        if (t == null) return null;
+        int c = compare(start, seq, t);
+        if (c < 0) {
+            Node l = delete(t.left, start, seq);
+            return l == t.left ? t : balance(t, l, t.right);
+        }
+        if (c > 0) {
+            Node r = delete(t.right, start, seq);
+            return r == t.right ? t : balance(t, t.left, r);
+        }
+        if (t.left == null) return t.right;
+        if (t.right == null) return t.left;
+        Node min = t.right;
+        while (min.left != null) min = min.left;
+        return balance(min, t.left, deleteMin(t.right));
+    }
+
+    private static Node deleteMin(Node t) {
+        if (t.left == null) return t.right;
+        return balance(t, deleteMin(t.left), t.right);
+    }
+
+    /** New node with t's entry and the given children, rebalanced. */
+    private static Node balance(Node t, Node left, Node right) {
+        int bf = height(left) - height(right);
+        if (bf > 1) {
+            if (height(left.left) < height(left.right)) left = rotateLeft(left);
+            return rotateRight(t, left, right);
+        }
+        if (bf < -1) {
+            if (height(right.right) < height(right.left)) right = rotateRight(right, right.left, right.right);
+            return rotateLeft(t, left, right);
+        }
+        return t.withChildren(left, right);
+    }
+
+    private static Node rotateLeft(Node n) {
+        return rotateLeft(n, n.left, n.right);
+    }
+
+    /** Rotates left around t (whose children are left/right). */
+    private static Node rotateLeft(Node t, Node left, Node right) {
+        Node newLeft = t.withChildren(left, right.left);
+        return right.withChildren(newLeft, right.right);
+    }
+
+    /** Rotates right around t (whose children are left/right). */
+    private static Node rotateRight(Node t, Node left, Node right) {
+        Node newRight = t.withChildren(left.right, right);
+        return left.withChildren(left.left, newRight);
+    }
+}
@@ -2,16 +2,33 @@ package com.todolist;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableColumn;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.IOException;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Popup dialog showing the todo list for a single day or a date range.
  * Single day: add items for that day; multi-day tasks show and completing them marks the whole range.
- * Range: add "one task per day" or "one multi-day task" for the range; completing a multi-day task
- * marks all days in its range as completed.
+ * Range: add a task repeating daily over the range (one {@link Recurrence}, not one item per day)
+ * or "one multi-day task"; completing a multi-day task marks all days in its range as completed.
+ * Deleting an occurrence of a repeating task asks whether to drop that day or the whole series.
+ * Range mode also offers bulk complete/uncomplete/delete, applied as one {@link TodoBatch}.
+ * The list is a {@link JTable} over a row model that follows store events, so a year-long range
+ * costs one renderer per visible row rather than a panel per item.
  */
 public class DayTodoDialog extends JDialog {
     private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("EEEE, MMM d, yyyy");
@@ -21,7 +38,8 @@ public class DayTodoDialog extends JDialog {
     private final LocalDate dateTo; // null or same as dateFrom = single day
     private final TodoStore store;
     private final Runnable onUpdate;
-    private final JPanel listPanel;
+    private final TodoTableModel model = new TodoTableModel();
+    private final TodoStoreListener listener = this::todosChanged;
     private final JTextField newTodoField;
 
     /** Single-day dialog. */
@@ -36,8 +54,6 @@ public class DayTodoDialog extends JDialog {
         this.dateTo = (dateTo == null || dateTo.equals(dateFrom)) ? null : dateTo;
         this.store = store;
         this.onUpdate = onUpdate;
-        this.listPanel = new JPanel();
-        this.listPanel.setLayout(new BoxLayout(listPanel, BoxLayout.Y_AXIS));
         this.newTodoField = new JTextField(28);
 
         boolean rangeMode = isRangeMode();
@@ -53,15 +69,14 @@ public class DayTodoDialog extends JDialog {
         titleLabel.setFont(titleLabel.getFont().deriveFont(Font.BOLD, 14f));
         add(titleLabel, BorderLayout.NORTH);
 
-        JScrollPane scroll = new JScrollPane(listPanel);
-        scroll.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
-        scroll.setPreferredSize(new Dimension(420, 240));
-        add(scroll, BorderLayout.CENTER);
+        add(buildList(rangeMode), BorderLayout.CENTER);
 
         JPanel addPanel = buildAddPanel(rangeMode);
         add(addPanel, BorderLayout.SOUTH);
 
         refreshList();
+        store.addListener(listener);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         pack();
         setLocationRelativeTo(owner);
     }
@@ -70,6 +85,62 @@ public class DayTodoDialog extends JDialog {
         return dateTo != null && !dateTo.equals(dateFrom);
     }
 
+    /** Table of items (done / title / delete), or a hint when there are none. */
+    private JPanel buildList(boolean rangeMode) {
+        JTable table = new JTable(model);
+        table.setTableHeader(null);
+        table.setShowGrid(false);
+        table.setFillsViewportHeight(true);
+        table.setRowHeight(24);
+        table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        TableColumn done = table.getColumnModel().getColumn(0);
+        done.setMinWidth(28);
+        done.setMaxWidth(28);
+        TableColumn del = table.getColumnModel().getColumn(2);
+        del.setMinWidth(36);
+        del.setMaxWidth(36);
+        JButton delButton = new JButton("X");
+        delButton.setMargin(new Insets(0, 4, 0, 4));
+        del.setCellRenderer((t, value, selected, focus, row, column) -> delButton);
+        table.setDefaultRenderer(String.class, new DefaultTableCellRenderer());
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = table.rowAtPoint(e.getPoint());
+                if (row >= 0 && table.columnAtPoint(e.getPoint()) == 2) delete(model.itemAt(row));
+            }
+        });
+        table.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_DELETE, 0), "deleteRows");
+        table.getActionMap().put("deleteRows", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                int[] selected = table.getSelectedRows();
+                List<TodoItem> items = new ArrayList<>(selected.length);
+                for (int row : selected) items.add(model.itemAt(row));
+                if (items.size() == 1) {
+                    delete(items.get(0));
+                } else if (!items.isEmpty()) {
+                    store.batch(b -> items.forEach(b::remove));
+                    try { store.requestSave(); } catch (Exception ex) { showError(ex); }
+                    if (onUpdate != null) onUpdate.run();
+                }
+            }
+        });
+
+        JScrollPane scroll = new JScrollPane(table);
+        scroll.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
+        JLabel empty = new JLabel(rangeMode
+                ? "No todos in this range. Add one above (per day or multi-day)."
+                : "No todos for this day. Add one above.", SwingConstants.CENTER);
+        CardLayout cards = new CardLayout();
+        JPanel list = new JPanel(cards);
+        list.add(scroll, "table");
+        list.add(empty, "empty");
+        list.setPreferredSize(new Dimension(420, 240));
+        model.addTableModelListener(e -> cards.show(list, model.getRowCount() == 0 ? "empty" : "table"));
+        return list;
+    }
+
     private JPanel buildAddPanel(boolean rangeMode) {
         JPanel addPanel = new JPanel();
         addPanel.setLayout(new BoxLayout(addPanel, BoxLayout.Y_AXIS));
@@ -87,7 +158,7 @@ public class DayTodoDialog extends JDialog {
 
         if (rangeMode) {
             JPanel row2 = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
-            JButton addOnePerDay = new JButton("Add same task to each day");
+            JButton addOnePerDay = new JButton("Add task repeating each day");
             addOnePerDay.addActionListener(e -> addTaskToEachDay());
             JButton addMultiDay = new JButton("Add one multi-day task");
             addMultiDay.addActionListener(e -> addMultiDayTask());
@@ -95,6 +166,19 @@ public class DayTodoDialog extends JDialog {
             row2.add(addOnePerDay);
             row2.add(addMultiDay);
             addPanel.add(row2);
+
+            JPanel row3 = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
+            row3.add(new JLabel("All in range:"));
+            JButton completeAll = new JButton("Complete");
+            completeAll.addActionListener(e -> setAllCompleted(true));
+            JButton uncompleteAll = new JButton("Uncomplete");
+            uncompleteAll.addActionListener(e -> setAllCompleted(false));
+            JButton deleteAll = new JButton("Delete");
+            deleteAll.addActionListener(e -> deleteAllInRange());
+            row3.add(completeAll);
+            row3.add(uncompleteAll);
+            row3.add(deleteAll);
+            addPanel.add(row3);
         }
 
         return addPanel;
@@ -105,25 +189,18 @@ public class DayTodoDialog extends JDialog {
         if (text.isEmpty()) return;
         TodoItem item = new TodoItem(TodoStore.generateId(), dateFrom, text, false);
         store.add(item);
-        try { store.save(); } catch (Exception ex) { showError(ex); }
+        try { store.requestSave(); } catch (Exception ex) { showError(ex); }
         newTodoField.setText("");
-        refreshList();
         if (onUpdate != null) onUpdate.run();
     }
 
-    /** Create one task per day in the range (same title). */
+    /** Create a daily series over the range (same title); stored once however long the range. */
     private void addTaskToEachDay() {
         String text = newTodoField.getText().trim();
         if (text.isEmpty()) return;
-        LocalDate d = dateFrom;
-        while (!d.isAfter(dateTo)) {
-            TodoItem item = new TodoItem(TodoStore.generateId(), d, text, false);
-            store.add(item);
-            d = d.plusDays(1);
-        }
-        try { store.save(); } catch (Exception ex) { showError(ex); }
+        store.addRecurring(new Recurrence(TodoStore.generateId(), text, dateFrom, dateTo, Recurrence.Frequency.DAILY, null));
+        try { store.requestSave(); } catch (Exception ex) { showError(ex); }
         newTodoField.setText("");
-        refreshList();
         if (onUpdate != null) onUpdate.run();
     }
 
@@ -133,52 +210,205 @@ public class DayTodoDialog extends JDialog {
         if (text.isEmpty()) return;
         TodoItem item = new TodoItem(TodoStore.generateId(), dateFrom, dateTo, text, false);
         store.add(item);
-        try { store.save(); } catch (Exception ex) { showError(ex); }
+        try { store.requestSave(); } catch (Exception ex) { showError(ex); }
         newTodoField.setText("");
-        refreshList();
         if (onUpdate != null) onUpdate.run();
     }
 
+    /** Marks every item shown for the range completed or not, as one batch. */
+    private void setAllCompleted(boolean completed) {
+        List<TodoItem> items = store.getItemsInRange(dateFrom, dateTo);
+        if (items.isEmpty()) return;
+        store.batch(b -> items.forEach(item -> b.setCompleted(item, completed)));
+        try { store.requestSave(); } catch (Exception ex) { showError(ex); }
+        if (onUpdate != null) onUpdate.run();
+    }
+
+    /** Deletes every item shown for the range, as one batch, after confirmation. */
+    private void deleteAllInRange() {
+        List<TodoItem> items = store.getItemsInRange(dateFrom, dateTo);
+        if (items.isEmpty()) return;
+        int answer = JOptionPane.showConfirmDialog(this, "Delete " + items.size() + " todo(s) in this range?",
+                "Delete all", JOptionPane.OK_CANCEL_OPTION, JOptionPane.WARNING_MESSAGE);
+        if (answer != JOptionPane.OK_OPTION) return;
+        store.batch(b -> items.forEach(b::remove));
+        try { store.requestSave(); } catch (Exception ex) { showError(ex); }
+        if (onUpdate != null) onUpdate.run();
+    }
+
+    /** Loads the rows once; afterwards the model follows store events row by row. */
     private void refreshList() {
-        listPanel.removeAll();
-        List<TodoItem> items = isRangeMode()
+        long start = System.nanoTime();
+        try {
+            store.pageIn(YearMonth.from(dateFrom), YearMonth.from(isRangeMode() ? dateTo : dateFrom));
+        } catch (IOException e) {
+            showError(e);
+        }
+        model.setItems(isRangeMode()
                 ? store.getItemsInRange(dateFrom, dateTo)
-                : store.getItemsFor(dateFrom);
+                : store.getItemsFor(dateFrom));
+        store.getMetrics().timer("ui.dayDialog.refreshList").recordSince(start);
+    }
 
-        for (TodoItem item : items) {
-            JPanel row = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
-            String label = item.getTitle();
-            if (item.isMultiDay()) {
-                label += " (" + item.getDate().format(SHORT_FMT) + " to " + item.getEndDate().format(SHORT_FMT) + ")";
-            }
-            JCheckBox check = new JCheckBox(label, item.isCompleted());
-            check.addActionListener(e -> {
-                item.setCompleted(check.isSelected());
-                try { store.save(); } catch (Exception ex) { showError(ex); }
-                if (onUpdate != null) onUpdate.run();
-            });
-            row.add(check);
-            JButton del = new JButton("X");
-            del.setMargin(new Insets(0, 4, 0, 4));
-            del.addActionListener(e -> {
-                store.remove(item);
-                try { store.save(); } catch (Exception ex) { showError(ex); }
-                refreshList();
-                if (onUpdate != null) onUpdate.run();
-            });
-            row.add(del);
-            listPanel.add(row);
-        }
-        if (items.isEmpty()) {
-            listPanel.add(new JLabel(isRangeMode()
-                    ? "No todos in this range. Add one above (per day or multi-day)."
-                    : "No todos for this day. Add one above."));
-        }
-        listPanel.revalidate();
-        listPanel.repaint();
+    /** Store listener: reconciles only the rows the change touched. */
+    private void todosChanged(TodoChangeEvent e) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> todosChanged(e));
+            return;
+        }
+        if (!isDisplayable()) return;
+        if (e.getType() == TodoChangeEvent.Type.RELOADED) {
+            refreshList();
+            return;
+        }
+        LocalDate last = isRangeMode() ? dateTo : dateFrom;
+        if (!e.affects(dateFrom, last)) return;
+        if (e.isRecurringChange()) {
+            refreshList();
+            return;
+        }
+        model.reconcile(e.getItems());
+    }
+
+    private void toggle(TodoItem item, boolean completed) {
+        store.setCompleted(item.getId(), completed);
+        try { store.requestSave(); } catch (Exception ex) { showError(ex); }
+        if (onUpdate != null) onUpdate.run();
+    }
+
+    private void delete(TodoItem item) {
+        if (Recurrence.isOccurrence(item)) {
+            String[] options = { "This day", "Whole series", "Cancel" };
+            int answer = JOptionPane.showOptionDialog(this, "\"" + item.getTitle() + "\" repeats. Delete:",
+                    "Delete repeating task", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+            if (answer == 1) store.removeRecurring(Recurrence.seriesId(item.getId()));
+            else if (answer == 0) store.removeById(item.getId());
+            else return;
+        } else {
+            store.removeById(item.getId());
+        }
+        try { store.requestSave(); } catch (Exception ex) { showError(ex); }
+        if (onUpdate != null) onUpdate.run();
+    }
+
+    private static String label(TodoItem item) {
+        String label = item.getTitle();
+        if (item.isMultiDay()) {
+            label += " (" + item.getDate().format(SHORT_FMT) + " to " + item.getEndDate().format(SHORT_FMT) + ")";
+        }
+        if (Recurrence.isOccurrence(item)) label += " (repeats)";
+        return label;
+    }
+
+    @Override
+    public void dispose() {
+        store.removeListener(listener);
+        super.dispose();
     }
 
     private void showError(Exception ex) {
         JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
     }
+
+    /**
+     * Rows are the items shown by the dialog, in store order. Only visible rows are rendered,
+     * and changes are applied as row inserts, updates and deletes rather than a rebuild.
+     */
+    private class TodoTableModel extends AbstractTableModel {
+        private final List<TodoItem> rows = new ArrayList<>();
+        private final Map<String, Integer> rowById = new HashMap<>();
+
+        void setItems(List<TodoItem> items) {
+            rows.clear();
+            rows.addAll(items);
+            reindex(0);
+            fireTableDataChanged();
+        }
+
+        TodoItem itemAt(int row) {
+            return rows.get(row);
+        }
+
+        /**
+         * Brings the given items' rows in line with the store: current versions that still
+         * overlap the dialog's dates are updated or appended, anything else is deleted.
+         */
+        void reconcile(List<TodoItem> changed) {
+            LocalDate last = isRangeMode() ? dateTo : dateFrom;
+            BitSet removed = new BitSet();
+            int firstAdded = rows.size();
+            for (TodoItem item : changed) {
+                TodoItem current = store.getById(item.getId()).orElse(null);
+                boolean visible = current != null
+                        && !current.getEndDate().isBefore(dateFrom) && !current.getDate().isAfter(last);
+                Integer row = rowById.get(item.getId());
+                if (row == null) {
+                    if (visible) {
+                        rowById.put(current.getId(), rows.size());
+                        rows.add(current);
+                    }
+                } else if (visible) {
+                    rows.set(row, current);
+                    if (row < firstAdded) fireTableRowsUpdated(row, row);
+                } else {
+                    removed.set(row);
+                }
+            }
+            if (rows.size() > firstAdded) fireTableRowsInserted(firstAdded, rows.size() - 1);
+            if (removed.isEmpty()) return;
+            // Delete from the bottom up, one event per contiguous run of rows.
+            for (int hi = removed.length() - 1; hi >= 0; ) {
+                int lo = removed.previousClearBit(hi) + 1;
+                rows.subList(lo, hi + 1).clear();
+                fireTableRowsDeleted(lo, hi);
+                hi = removed.previousSetBit(lo - 1);
+            }
+            reindex(removed.nextSetBit(0));
+        }
+
+        private void reindex(int from) {
+            rowById.values().removeIf(r -> r >= from);
+            for (int r = from; r < rows.size(); r++) rowById.put(rows.get(r).getId(), r);
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 3;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return column == 1 ? "Task" : "";
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column == 0 ? Boolean.class : String.class;
+        }
+
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return column == 0;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            TodoItem item = rows.get(row);
+            switch (column) {
+                case 0: return item.isCompleted();
+                case 1: return label(item);
+                default: return "X";
+            }
+        }
+
+        @Override
+        public void setValueAt(Object value, int row, int column) {
+            if (column == 0) toggle(rows.get(row), (Boolean) value);
+        }
+    }
 }
@@ -0,0 +1,122 @@
+package com.todolist;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event queue that times every event dispatch, plus a sampler thread that notices when the
+ * current dispatch has run longer than the threshold and takes stack samples of the
+ * event-dispatch thread until it finishes. Each stall is reported to {@link TodoMetrics} with
+ * its (poll-granular) duration, the event and the distinct stack samples.
+ * <p>
+ * A dispatch that pumps a nested loop (a modal dialog) restarts the clock when the nested
+ * dispatch returns, so time spent waiting in a modal dialog is not reported as a stall.
+ */
+final class EdtWatchdog extends EventQueue {
+    private static final int MAX_SAMPLES = 5;
+    private static final int MAX_FRAMES = 25;
+
+    private final TodoMetrics metrics;
+    private final LatencyTimer dispatchTimer;
+    private final long thresholdNanos;
+    private final long pollMillis;
+    /** nanoTime when the current (innermost) dispatch started, 0 when idle. */
+    private volatile long dispatchStart;
+    private volatile AWTEvent currentEvent;
+    private volatile Thread dispatchThread;
+    /** Dispatches entered so far; EDT only. */
+    private long dispatches;
+
+    private EdtWatchdog(TodoMetrics metrics, long thresholdMillis) {
+        this.metrics = metrics;
+        this.dispatchTimer = metrics.timer("ui.edtDispatch");
+        this.thresholdNanos = thresholdMillis * 1_000_000L;
+        this.pollMillis = Math.max(5, thresholdMillis / 4);
+    }
+
+    /** Installs the watchdog on the system event queue. */
+    static EdtWatchdog install(TodoMetrics metrics, long thresholdMillis) {
+        EdtWatchdog watchdog = new EdtWatchdog(metrics, thresholdMillis);
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(watchdog);
+        Thread sampler = new Thread(watchdog::sample, "todo-edt-watchdog");
+        sampler.setDaemon(true);
+        sampler.start();
+        return watchdog;
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        long outerStart = dispatchStart;
+        AWTEvent outerEvent = currentEvent;
+        long entry = ++dispatches;
+        dispatchThread = Thread.currentThread();
+        currentEvent = event;
+        long start = System.nanoTime();
+        dispatchStart = start;
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            long end = System.nanoTime();
+            if (dispatches == entry) dispatchTimer.record(end - start);
+            currentEvent = outerEvent;
+            dispatchStart = outerStart == 0 ? 0 : end;
+        }
+    }
+
+    private void sample() {
+        long stallStart = 0;
+        long lastAge = 0;
+        Instant stallTime = null;
+        String stallEvent = null;
+        List<String> samples = new ArrayList<>();
+        while (true) {
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long start = dispatchStart;
+            long age = System.nanoTime() - start;
+            boolean stalled = start != 0 && age >= thresholdNanos;
+            if (stallStart != 0 && (!stalled || start != stallStart)) {
+                report(stallTime, lastAge, stallEvent, samples);
+                stallStart = 0;
+                samples = new ArrayList<>();
+            }
+            if (!stalled) continue;
+            if (stallStart == 0) {
+                stallStart = start;
+                stallTime = Instant.now().minusNanos(age);
+                AWTEvent event = currentEvent;
+                stallEvent = event == null ? "?"
+                        : event.getClass().getSimpleName() + " from " + event.getSource().getClass().getName();
+            }
+            lastAge = age;
+            Thread edt = dispatchThread;
+            if (edt != null && samples.size() < MAX_SAMPLES) {
+                String stack = format(edt.getStackTrace());
+                if (!samples.contains(stack)) samples.add(stack);
+            }
+        }
+    }
+
+    private void report(Instant when, long nanos, String event, List<String> samples) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(when).append(": EDT busy >= ").append(nanos / 1_000_000).append(" ms in ").append(event);
+        for (int i = 0; i < samples.size(); i++) {
+            sb.append("\nsample ").append(i + 1).append(':').append(samples.get(i));
+        }
+        metrics.recordStall(sb.toString());
+    }
+
+    private static String format(StackTraceElement[] stack) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < stack.length && i < MAX_FRAMES; i++) sb.append("\n  at ").append(stack[i]);
+        if (stack.length > MAX_FRAMES) sb.append("\n  ...");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package com.todolist;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * {@link TodoRepository} over the store's own flat file: todos.txt (text, or the binary layout
+ * of {@link BinaryTodoFile}, detected on load and kept on save) plus its todos.txt.recurring
+ * side file. Every save that changed items rewrites the whole file through a temp file, and a
+ * range query reads the file and filters it, so costs grow with the file. A journal left by a
+ * journaled store is replayed on load and removed once a save has written its items.
+ * Selected as "file"; the location is the path of the data file, by default todos.txt.
+ */
+public final class FileTodoRepository implements TodoRepository {
+    private final Path file;
+    /** Format for the next write; guarded by this. */
+    private boolean binary = "binary".equalsIgnoreCase(System.getProperty("todolist.format"));
+    /** A journal was replayed by the last load and is not folded into the file yet; guarded by this. */
+    private boolean journalPending;
+
+    public FileTodoRepository(Path file) {
+        this.file = file;
+    }
+
+    public static final class Provider implements TodoRepositoryProvider {
+        @Override
+        public String name() {
+            return "file";
+        }
+
+        @Override
+        public TodoRepository create(String location, Path dir) {
+            return new FileTodoRepository(location != null ? Path.of(location) : dir.resolve("todos.txt"));
+        }
+    }
+
+    @Override
+    public synchronized List<TodoItem> loadItems() throws IOException {
+        boolean journaled = Files.exists(TodoJournal.journalPathFor(file));
+        List<TodoItem> items = readItems(journaled);
+        if (journaled) journalPending = true;
+        if (Files.exists(file)) binary = BinaryTodoFile.isBinary(file);
+        return items;
+    }
+
+    /** The file's items, with the journal replayed over them if journaled; changes no field. */
+    private List<TodoItem> readItems(boolean journaled) throws IOException {
+        if (journaled) {
+            TodoStore store = new TodoStore(file, true);
+            store.load();
+            try {
+                store.close();
+            } catch (Exception e) {
+                throw new IOException("Could not close journal of " + file, e);
+            }
+            return store.getAllItems();
+        }
+        if (!Files.exists(file)) return new ArrayList<>();
+        return BinaryTodoFile.isBinary(file) ? TodoStore.loadBinary(file) : TextTodoLoader.load(file);
+    }
+
+    @Override
+    public List<Recurrence> loadRecurring() throws IOException {
+        return TodoStore.loadRecurring(TodoStore.recurringPathFor(file));
+    }
+
+    @Override
+    public synchronized List<TodoItem> findInRange(LocalDate from, LocalDate to) throws IOException {
+        List<TodoItem> found = new ArrayList<>();
+        for (TodoItem item : readItems(Files.exists(TodoJournal.journalPathFor(file)))) {
+            if (!item.getDate().isAfter(to) && !item.getEndDate().isBefore(from)) found.add(item);
+        }
+        found.sort(Comparator.comparing(TodoItem::getDate));
+        return found;
+    }
+
+    @Override
+    public synchronized void save(TodoSnapshot current, Collection<TodoItem> changed, Collection<String> removedIds,
+                                  boolean recurringChanged) throws IOException {
+        if (!changed.isEmpty() || !removedIds.isEmpty() || journalPending) {
+            TodoStore.writeItems(file, current.getAllItems(), binary);
+            if (journalPending) {
+                Files.deleteIfExists(TodoJournal.journalPathFor(file));
+                journalPending = false;
+            }
+        }
+        if (recurringChanged) TodoStore.writeRecurring(TodoStore.recurringPathFor(file), current.getRecurring());
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,169 @@
+package com.todolist;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Completion heatmap for one or more whole years: every day is a small square colored with the
+ * calendar's percent gradient (grey when it has no tasks). Each year is a band of week columns
+ * with Monday–Sunday rows. The colors come from one {@link TodoStore#summarize} pass over the
+ * whole span, so drawing ten years costs one aggregation and a few thousand fillRects.
+ * Clicking a square opens {@link DayTodoDialog} for that day.
+ */
+public class HeatmapPanel extends JComponent {
+    private static final DateTimeFormatter TIP_FMT = DateTimeFormatter.ofPattern("EEE, MMM d, yyyy");
+    private static final String[] MONTH_LABELS = { "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec" };
+    private static final int SQUARE = 11;
+    private static final int STEP = SQUARE + 2;
+    private static final int LEFT = 44;
+    private static final int BAND_HEADER = 18;
+    private static final int BAND_GAP = 10;
+    private static final int BAND_HEIGHT = BAND_HEADER + 7 * STEP + BAND_GAP;
+    private static final int WEEKS = 54;
+    private static final Color BACKGROUND = new Color(45, 45, 55);
+    private static final Color LABEL_COLOR = new Color(200, 200, 210);
+
+    private final TodoStore store;
+    private int firstYear;
+    private int lastYear;
+    private long firstEpochDay;
+    /** Per day since firstEpochDay: task count and percent completed. */
+    private int[] percentByDay = new int[0];
+    private int[] totalByDay = new int[0];
+    private boolean dirty = true;
+
+    public HeatmapPanel(TodoStore store, int firstYear, int lastYear) {
+        this.store = store;
+        setYears(firstYear, lastYear);
+        setOpaque(true);
+        setToolTipText("");
+        setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        store.addListener(this::todosChanged);
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                LocalDate date = dateAt(e.getX(), e.getY());
+                if (date == null) return;
+                new DayTodoDialog((Frame) SwingUtilities.getWindowAncestor(HeatmapPanel.this),
+                        date, null, store, null).setVisible(true);
+            }
+        });
+    }
+
+    /** Shows years firstYear..lastYear (inclusive), oldest at the top. */
+    public void setYears(int firstYear, int lastYear) {
+        if (lastYear < firstYear) throw new IllegalArgumentException("lastYear must be >= firstYear");
+        this.firstYear = firstYear;
+        this.lastYear = lastYear;
+        this.firstEpochDay = LocalDate.of(firstYear, 1, 1).toEpochDay();
+        dirty = true;
+        setPreferredSize(new Dimension(LEFT + WEEKS * STEP + 8, (lastYear - firstYear + 1) * BAND_HEIGHT));
+        revalidate();
+        repaint();
+    }
+
+    public int getFirstYear() { return firstYear; }
+    public int getLastYear() { return lastYear; }
+
+    private void todosChanged(TodoChangeEvent e) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> todosChanged(e));
+            return;
+        }
+        if (dirty || !e.affects(LocalDate.of(firstYear, 1, 1), LocalDate.of(lastYear, 12, 31))) return;
+        dirty = true;
+        repaint();
+    }
+
+    /** One aggregation pass over the whole span. */
+    private void recompute() {
+        long start = System.nanoTime();
+        LocalDate from = LocalDate.of(firstYear, 1, 1);
+        LocalDate to = LocalDate.of(lastYear, 12, 31);
+        try {
+            store.pageIn(YearMonth.from(from), YearMonth.from(to));
+        } catch (IOException e) {
+            System.err.println("Could not load todos for " + firstYear + "-" + lastYear + ": " + e.getMessage());
+        }
+        RangeSummary summary = store.summarize(from, to);
+        int days = (int) (to.toEpochDay() - from.toEpochDay() + 1);
+        if (percentByDay.length != days) {
+            percentByDay = new int[days];
+            totalByDay = new int[days];
+        }
+        LocalDate d = from;
+        for (int i = 0; i < days; i++, d = d.plusDays(1)) {
+            int total = summary.totalCount(d);
+            totalByDay[i] = total;
+            percentByDay[i] = summary.percentCompleted(d);
+        }
+        dirty = false;
+        store.getMetrics().timer("ui.heatmap.recompute").recordSince(start);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (dirty) recompute();
+        Rectangle clip = g.getClipBounds();
+        g.setColor(BACKGROUND);
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        ((Graphics2D) g).setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        FontMetrics fm = g.getFontMetrics();
+
+        for (int year = firstYear; year <= lastYear; year++) {
+            int bandTop = (year - firstYear) * BAND_HEIGHT;
+            if (bandTop > clip.y + clip.height || bandTop + BAND_HEIGHT < clip.y) continue;
+            g.setColor(LABEL_COLOR);
+            g.drawString(String.valueOf(year), 4, bandTop + BAND_HEADER + 3 * STEP + fm.getAscent() / 2);
+
+            LocalDate jan1 = LocalDate.of(year, 1, 1);
+            int offset = jan1.getDayOfWeek().getValue() - 1;
+            int yearStart = (int) (jan1.toEpochDay() - firstEpochDay);
+            int length = jan1.lengthOfYear();
+            for (int m = 1; m <= 12; m++) {
+                int doy = LocalDate.of(year, m, 1).getDayOfYear() - 1;
+                g.drawString(MONTH_LABELS[m - 1], LEFT + ((doy + offset) / 7) * STEP, bandTop + fm.getAscent());
+            }
+            for (int i = 0; i < length; i++) {
+                int slot = i + offset;
+                int x = LEFT + (slot / 7) * STEP;
+                int y = bandTop + BAND_HEADER + (slot % 7) * STEP;
+                g.setColor(CalendarPanel.cellColor(totalByDay[yearStart + i], percentByDay[yearStart + i]));
+                g.fillRect(x, y, SQUARE, SQUARE);
+            }
+        }
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        LocalDate date = dateAt(e.getX(), e.getY());
+        if (date == null) return null;
+        if (dirty) recompute();
+        int i = (int) (date.toEpochDay() - firstEpochDay);
+        int total = totalByDay[i];
+        return date.format(TIP_FMT) + (total == 0 ? " — no tasks" : " — " + percentByDay[i] + "% of " + total);
+    }
+
+    /** Date of the square under (x, y), or null. */
+    private LocalDate dateAt(int x, int y) {
+        if (x < LEFT || y < 0) return null;
+        int band = y / BAND_HEIGHT;
+        int year = firstYear + band;
+        if (year > lastYear) return null;
+        int inBand = y - band * BAND_HEIGHT - BAND_HEADER;
+        if (inBand < 0 || inBand >= 7 * STEP || inBand % STEP >= SQUARE) return null;
+        int col = (x - LEFT) / STEP;
+        if ((x - LEFT) % STEP >= SQUARE) return null;
+        int slot = col * 7 + inBand / STEP;
+        LocalDate jan1 = LocalDate.of(year, 1, 1);
+        int dayIndex = slot - (jan1.getDayOfWeek().getValue() - 1);
+        if (dayIndex < 0 || dayIndex >= jan1.lengthOfYear()) return null;
+        return jan1.plusDays(dayIndex);
+    }
+}
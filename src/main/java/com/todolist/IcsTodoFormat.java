@@ -0,0 +1,179 @@
+package com.todolist;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * iCalendar (RFC 5545) VTODO components. Folded lines are unfolded as they are read, so only
+ * the current component's few properties are held in memory.
+ * <p>
+ * Mapping: UID → id (see {@link TodoFormat#importId}), SUMMARY → title, DTSTART → start date,
+ * DUE → end date (inclusive; a todo with only one of the two is single-day), STATUS:COMPLETED,
+ * a COMPLETED timestamp or PERCENT-COMPLETE:100 → completed. Date-times are cut to their date.
+ * Components nested in a VTODO (VALARM) are ignored. Export writes all-day DTSTART/DUE values.
+ */
+final class IcsTodoFormat implements TodoFormat {
+    private static final DateTimeFormatter BASIC_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final int MAX_LINE_OCTETS = 75;
+
+    @Override
+    public long read(Reader in, Consumer<TodoItem> sink) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, 64 * 1024);
+        long skipped = 0;
+        int depth = 0; // components open inside the current VTODO
+        boolean inTodo = false;
+        String uid = null, summary = null;
+        LocalDate start = null, due = null;
+        boolean completed = false;
+        String line;
+        StringBuilder logical = new StringBuilder();
+        String pending = reader.readLine();
+        while (pending != null) {
+            // Unfold: continuation lines start with a space or tab.
+            logical.setLength(0);
+            logical.append(pending);
+            while ((pending = reader.readLine()) != null && !pending.isEmpty()
+                    && (pending.charAt(0) == ' ' || pending.charAt(0) == '\t')) {
+                logical.append(pending, 1, pending.length());
+            }
+            line = logical.toString();
+            int colon = valueStart(line);
+            if (colon < 0) continue;
+            String head = line.substring(0, colon);
+            String value = line.substring(colon + 1);
+            int semi = head.indexOf(';');
+            String name = (semi < 0 ? head : head.substring(0, semi)).toUpperCase(Locale.ROOT);
+
+            if (name.equals("BEGIN")) {
+                if (inTodo) {
+                    depth++;
+                } else if (value.trim().equalsIgnoreCase("VTODO")) {
+                    inTodo = true;
+                    depth = 0;
+                    uid = summary = null;
+                    start = due = null;
+                    completed = false;
+                }
+                continue;
+            }
+            if (name.equals("END") && inTodo) {
+                if (depth > 0) {
+                    depth--;
+                    continue;
+                }
+                inTodo = false;
+                LocalDate first = start != null ? start : due;
+                LocalDate last = due != null ? due : start;
+                if (first == null || last.isBefore(first)) {
+                    skipped++;
+                    continue;
+                }
+                sink.accept(new TodoItem(TodoFormat.importId(uid), first, last, summary == null ? "" : summary, completed));
+                continue;
+            }
+            if (!inTodo || depth > 0) continue;
+            switch (name) {
+                case "UID": uid = value; break;
+                case "SUMMARY": summary = unescape(value); break;
+                case "DTSTART": start = parseDate(value); break;
+                case "DUE": due = parseDate(value); break;
+                case "STATUS": completed |= value.trim().equalsIgnoreCase("COMPLETED"); break;
+                case "COMPLETED": completed = true; break;
+                case "PERCENT-COMPLETE": completed |= value.trim().equals("100"); break;
+                default: break;
+            }
+        }
+        return skipped;
+    }
+
+    /** Index of the colon that ends the name and parameters; colons in quoted parameter values don't count. */
+    private static int valueStart(String line) {
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') quoted = !quoted;
+            else if (c == ':' && !quoted) return i;
+        }
+        return -1;
+    }
+
+    /** yyyyMMdd or yyyyMMddTHHmmss[Z]; null if unreadable. */
+    private static LocalDate parseDate(String value) {
+        String v = value.trim();
+        if (v.length() < 8) return null;
+        try {
+            return LocalDate.parse(v.substring(0, 8), BASIC_DATE);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String unescape(String s) {
+        if (s.indexOf('\\') < 0) return s;
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char n = s.charAt(++i);
+                sb.append(n == 'n' || n == 'N' ? ' ' : n);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,").replace("\n", "\\n");
+    }
+
+    @Override
+    public void write(Writer out, Iterable<TodoItem> items) throws IOException {
+        String stamp = ZonedDateTime.now(ZoneOffset.UTC).format(STAMP);
+        writeLine(out, "BEGIN:VCALENDAR");
+        writeLine(out, "VERSION:2.0");
+        writeLine(out, "PRODID:-//Calendar Todo List//EN");
+        for (TodoItem item : items) {
+            writeLine(out, "BEGIN:VTODO");
+            writeLine(out, "UID:" + item.getId());
+            writeLine(out, "DTSTAMP:" + stamp);
+            writeLine(out, "SUMMARY:" + escape(item.getTitle()));
+            writeLine(out, "DTSTART;VALUE=DATE:" + item.getDate().format(BASIC_DATE));
+            writeLine(out, "DUE;VALUE=DATE:" + item.getEndDate().format(BASIC_DATE));
+            writeLine(out, "STATUS:" + (item.isCompleted() ? "COMPLETED" : "NEEDS-ACTION"));
+            writeLine(out, "END:VTODO");
+        }
+        writeLine(out, "END:VCALENDAR");
+        out.flush();
+    }
+
+    /** Writes a content line folded at 75 octets, never splitting a character, with CRLF endings. */
+    private static void writeLine(Writer out, String line) throws IOException {
+        int octets = 0;
+        int limit = MAX_LINE_OCTETS;
+        int i = 0;
+        while (i < line.length()) {
+            int cp = line.codePointAt(i);
+            int len = new String(Character.toChars(cp)).getBytes(StandardCharsets.UTF_8).length;
+            if (octets + len > limit) {
+                out.write("\r\n ");
+                octets = 0;
+                limit = MAX_LINE_OCTETS - 1; // the leading space counts
+            }
+            out.write(Character.toChars(cp));
+            octets += len;
+            i += Character.charCount(cp);
+        }
+        out.write("\r\n");
+    }
+}
@@ -0,0 +1,255 @@
+package com.todolist;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link TodoRepository} in a SQL database reached through JDBC, meant for an embedded
+ * single-file database such as H2 ({@code jdbc:h2:/path/todos}) or SQLite
+ * ({@code jdbc:sqlite:/path/todos.db}); only the driver has to be on the class path.
+ * <p>
+ * Items are rows of todo_items with epoch-day start and end columns, indexed by start day, and
+ * the sequence that keeps their order. A save updates or inserts just the changed rows and
+ * deletes the removed ones in one transaction. Range queries run in the database: an item
+ * overlapping [from, to] starts no earlier than from minus the longest span stored, so only
+ * that slice of the start-day index is read. Series are rows of todo_series holding the
+ * recurring side file's line for each.
+ * Selected as "jdbc"; the location is the JDBC URL, by default an H2 database (todos-db.mv.db).
+ */
+public final class JdbcTodoRepository implements TodoRepository {
+    /** Rows per JDBC batch, so a save of a whole import does not build one huge batch. */
+    private static final int BATCH_ROWS = 10_000;
+    private static final String COLUMNS = "id, start_day, end_day, title, completed";
+
+    private final String url;
+    /** Open connection, in manual-commit mode; null until first used. Guarded by this, like the fields below. */
+    private Connection connection;
+    /** Longest end_day - start_day stored (never shrinks, so it may be larger). */
+    private long maxSpan;
+    private long nextSeq;
+
+    public JdbcTodoRepository(String url) {
+        this.url = url;
+    }
+
+    public static final class Provider implements TodoRepositoryProvider {
+        @Override
+        public String name() {
+            return "jdbc";
+        }
+
+        @Override
+        public TodoRepository create(String location, Path dir) {
+            return new JdbcTodoRepository(location != null ? location : "jdbc:h2:" + dir.resolve("todos-db").toAbsolutePath());
+        }
+    }
+
+    /** The connection, opened and the tables created on first use. */
+    private Connection connection() throws SQLException {
+        if (connection != null) return connection;
+        Connection c = DriverManager.getConnection(url);
+        try {
+            c.setAutoCommit(false);
+            try (Statement s = c.createStatement()) {
+                s.execute("CREATE TABLE IF NOT EXISTS todo_items (id VARCHAR(255) PRIMARY KEY, seq BIGINT NOT NULL,"
+                        + " start_day INTEGER NOT NULL, end_day INTEGER NOT NULL, title VARCHAR(1000000) NOT NULL,"
+                        + " completed BOOLEAN NOT NULL)");
+                s.execute("CREATE INDEX IF NOT EXISTS todo_items_start ON todo_items (start_day)");
+                s.execute("CREATE TABLE IF NOT EXISTS todo_series (id VARCHAR(255) PRIMARY KEY, spec VARCHAR(1000000) NOT NULL)");
+                try (ResultSet rs = s.executeQuery("SELECT MAX(end_day - start_day), MAX(seq) FROM todo_items")) {
+                    rs.next();
+                    maxSpan = rs.getLong(1);
+                    nextSeq = rs.getObject(2) == null ? 0 : rs.getLong(2) + 1;
+                }
+            }
+            c.commit();
+        } catch (SQLException e) {
+            c.close();
+            throw e;
+        }
+        connection = c;
+        return c;
+    }
+
+    @Override
+    public synchronized List<TodoItem> loadItems() throws IOException {
+        try (Statement s = connection().createStatement();
+             ResultSet rs = s.executeQuery("SELECT " + COLUMNS + " FROM todo_items ORDER BY seq")) {
+            List<TodoItem> items = read(rs);
+            connection.commit();
+            return items;
+        } catch (SQLException e) {
+            throw failure("read", e);
+        }
+    }
+
+    @Override
+    public synchronized List<Recurrence> loadRecurring() throws IOException {
+        try (Statement s = connection().createStatement();
+             ResultSet rs = s.executeQuery("SELECT spec FROM todo_series ORDER BY id")) {
+            List<Recurrence> rules = new ArrayList<>();
+            while (rs.next()) {
+                Recurrence rule = TodoStore.parseRule(rs.getString(1));
+                if (rule != null) rules.add(rule);
+            }
+            connection.commit();
+            return rules;
+        } catch (SQLException e) {
+            throw failure("read", e);
+        }
+    }
+
+    @Override
+    public synchronized List<TodoItem> findInRange(LocalDate from, LocalDate to) throws IOException {
+        try (PreparedStatement q = connection().prepareStatement("SELECT " + COLUMNS + " FROM todo_items"
+                + " WHERE start_day >= ? AND start_day <= ? AND end_day >= ? ORDER BY start_day, seq")) {
+            long first = from.toEpochDay();
+            q.setLong(1, Math.max(Integer.MIN_VALUE, first - maxSpan));
+            q.setLong(2, to.toEpochDay());
+            q.setLong(3, first);
+            List<TodoItem> items;
+            try (ResultSet rs = q.executeQuery()) {
+                items = read(rs);
+            }
+            connection.commit();
+            return items;
+        } catch (SQLException e) {
+            throw failure("query", e);
+        }
+    }
+
+    private static List<TodoItem> read(ResultSet rs) throws SQLException {
+        List<TodoItem> items = new ArrayList<>();
+        while (rs.next()) {
+            LocalDate start = LocalDate.ofEpochDay(rs.getInt(2));
+            int end = rs.getInt(3);
+            items.add(new TodoItem(rs.getString(1), start, end == start.toEpochDay() ? start : LocalDate.ofEpochDay(end),
+                    rs.getString(4), rs.getBoolean(5)));
+        }
+        return items;
+    }
+
+    @Override
+    public synchronized void save(TodoSnapshot current, Collection<TodoItem> changed, Collection<String> removedIds,
+                                  boolean recurringChanged) throws IOException {
+        long seq = nextSeq;
+        long span = maxSpan;
+        try {
+            Connection c = connection();
+            try {
+                if (!removedIds.isEmpty()) {
+                    try (PreparedStatement delete = c.prepareStatement("DELETE FROM todo_items WHERE id = ?")) {
+                        int n = 0;
+                        for (String id : removedIds) {
+                            delete.setString(1, id);
+                            delete.addBatch();
+                            if (++n % BATCH_ROWS == 0) delete.executeBatch();
+                        }
+                        delete.executeBatch();
+                    }
+                }
+                if (!changed.isEmpty()) seq = upsert(c, changed, seq);
+                if (recurringChanged) {
+                    try (Statement s = c.createStatement();
+                         PreparedStatement insert = c.prepareStatement("INSERT INTO todo_series (id, spec) VALUES (?, ?)")) {
+                        s.executeUpdate("DELETE FROM todo_series");
+                        for (Recurrence rule : current.getRecurring()) {
+                            insert.setString(1, rule.getId());
+                            insert.setString(2, TodoStore.formatRule(rule));
+                            insert.addBatch();
+                        }
+                        insert.executeBatch();
+                    }
+                }
+                c.commit();
+            } catch (SQLException | RuntimeException e) {
+                c.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw failure("save", e);
+        }
+        for (TodoItem item : changed) span = Math.max(span, item.getEndDate().toEpochDay() - item.getDate().toEpochDay());
+        nextSeq = seq;
+        maxSpan = span;
+    }
+
+    /** Updates the rows of items that exist and inserts the others; returns the next free sequence. */
+    private static long upsert(Connection c, Collection<TodoItem> items, long seq) throws SQLException {
+        List<TodoItem> chunk = new ArrayList<>(Math.min(items.size(), BATCH_ROWS));
+        try (PreparedStatement update = c.prepareStatement(
+                     "UPDATE todo_items SET start_day = ?, end_day = ?, title = ?, completed = ? WHERE id = ?");
+             PreparedStatement insert = c.prepareStatement(
+                     "INSERT INTO todo_items (" + COLUMNS + ", seq) VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement exists = c.prepareStatement("SELECT 1 FROM todo_items WHERE id = ?")) {
+            for (TodoItem item : items) {
+                chunk.add(item);
+                if (chunk.size() == BATCH_ROWS) seq = upsertChunk(chunk, update, insert, exists, seq);
+            }
+            if (!chunk.isEmpty()) seq = upsertChunk(chunk, update, insert, exists, seq);
+        }
+        return seq;
+    }
+
+    private static long upsertChunk(List<TodoItem> chunk, PreparedStatement update, PreparedStatement insert,
+                                    PreparedStatement exists, long seq) throws SQLException {
+        for (TodoItem item : chunk) {
+            update.setInt(1, (int) item.getDate().toEpochDay());
+            update.setInt(2, (int) item.getEndDate().toEpochDay());
+            update.setString(3, item.getTitle());
+            update.setBoolean(4, item.isCompleted());
+            update.setString(5, item.getId());
+            update.addBatch();
+        }
+        int[] counts = update.executeBatch();
+        boolean inserts = false;
+        for (int i = 0; i < chunk.size(); i++) {
+            if (counts[i] > 0 || (counts[i] == Statement.SUCCESS_NO_INFO && exists(exists, chunk.get(i).getId()))) continue;
+            TodoItem item = chunk.get(i);
+            insert.setString(1, item.getId());
+            insert.setInt(2, (int) item.getDate().toEpochDay());
+            insert.setInt(3, (int) item.getEndDate().toEpochDay());
+            insert.setString(4, item.getTitle());
+            insert.setBoolean(5, item.isCompleted());
+            insert.setLong(6, seq++);
+            insert.addBatch();
+            inserts = true;
+        }
+        if (inserts) insert.executeBatch();
+        chunk.clear();
+        return seq;
+    }
+
+    private static boolean exists(PreparedStatement exists, String id) throws SQLException {
+        exists.setString(1, id);
+        try (ResultSet rs = exists.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    private IOException failure(String what, SQLException e) {
+        return new IOException("Could not " + what + " todos in " + url + ": " + e.getMessage(), e);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw failure("close", e);
+        } finally {
+            connection = null;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.todolist;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The little JSON {@link TodoServer} needs: writing strings and reading request bodies that are
+ * one flat object. Values read back as String, Boolean, BigDecimal or null; nested objects
+ * and arrays are rejected. Malformed input throws IllegalArgumentException.
+ */
+final class Json {
+    private final String text;
+    private int pos;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /** Appends s as a JSON string literal. */
+    static StringBuilder quote(StringBuilder out, String s) {
+        out.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                    else out.append(c);
+            }
+        }
+        return out.append('"');
+    }
+
+    /** Fields of the single flat object in text, in order. */
+    static Map<String, Object> parseObject(String text) {
+        Json p = new Json(text);
+        Map<String, Object> fields = new LinkedHashMap<>();
+        p.expect('{');
+        if (!p.consume('}')) {
+            do {
+                p.skipSpace();
+                String name = p.string();
+                p.expect(':');
+                fields.put(name, p.value());
+            } while (p.consume(','));
+            p.expect('}');
+        }
+        p.skipSpace();
+        if (p.pos != text.length()) throw p.error("trailing characters");
+        return fields;
+    }
+
+    private Object value() {
+        skipSpace();
+        if (pos >= text.length()) throw error("value expected");
+        char c = text.charAt(pos);
+        if (c == '"') return string();
+        if (text.startsWith("true", pos)) { pos += 4; return Boolean.TRUE; }
+        if (text.startsWith("false", pos)) { pos += 5; return Boolean.FALSE; }
+        if (text.startsWith("null", pos)) { pos += 4; return null; }
+        if (c == '-' || (c >= '0' && c <= '9')) {
+            int start = pos;
+            while (pos < text.length() && "+-.eE0123456789".indexOf(text.charAt(pos)) >= 0) pos++;
+            try {
+                return new BigDecimal(text.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("bad number");
+            }
+        }
+        throw error("only strings, numbers, booleans and null are supported");
+    }
+
+    private String string() {
+        if (!consume('"')) throw error("string expected");
+        StringBuilder out = new StringBuilder();
+        while (true) {
+            if (pos >= text.length()) throw error("unterminated string");
+            char c = text.charAt(pos++);
+            if (c == '"') return out.toString();
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            if (pos >= text.length()) throw error("unterminated string");
+            char e = text.charAt(pos++);
+            switch (e) {
+                case '"': case '\\': case '/': out.append(e); break;
+                case 'b': out.append('\b'); break;
+                case 'f': out.append('\f'); break;
+                case 'n': out.append('\n'); break;
+                case 'r': out.append('\r'); break;
+                case 't': out.append('\t'); break;
+                case 'u':
+                    if (pos + 4 > text.length()) throw error("bad \\u escape");
+                    try {
+                        out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException x) {
+                        throw error("bad \\u escape");
+                    }
+                    pos += 4;
+                    break;
+                default: throw error("bad escape \\" + e);
+            }
+        }
+    }
+
+    private void expect(char c) {
+        if (!consume(c)) throw error("'" + c + "' expected");
+    }
+
+    private boolean consume(char c) {
+        skipSpace();
+        if (pos < text.length() && text.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipSpace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Bad JSON at " + pos + ": " + message);
+    }
+}
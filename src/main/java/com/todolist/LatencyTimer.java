@@ -0,0 +1,70 @@
+package com.todolist;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two buckets: bucket i counts durations in
+ * [2^(i-1), 2^i) nanoseconds. Recording is a few atomic increments, cheap enough for every call
+ * on a hot path; percentiles are reported as the upper bound of their bucket.
+ */
+final class LatencyTimer {
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(65);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    LatencyTimer(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /** Records the time since startNanos (a {@link System#nanoTime()} value). */
+    void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) max = maxNanos.get();
+    }
+
+    void reset() {
+        for (int i = 0; i < buckets.length(); i++) buckets.set(i, 0);
+        count.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    /** Point-in-time figures; not atomic with respect to concurrent recording. */
+    TimerStats stats() {
+        long[] counts = new long[buckets.length()];
+        long n = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+            n += counts[i];
+        }
+        return new TimerStats(name, n, totalNanos.sum(), maxNanos.get(),
+                percentile(counts, n, 0.50), percentile(counts, n, 0.90), percentile(counts, n, 0.99));
+    }
+
+    private static long percentile(long[] counts, long n, double p) {
+        if (n == 0) return 0;
+        long rank = (long) Math.ceil(p * n);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return i == 0 ? 0 : i >= 63 ? Long.MAX_VALUE : 1L << i;
+        }
+        return Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,176 @@
+package com.todolist;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * Hash map from long keys to values with no boxing: parallel key and value arrays, linear
+ * probing from a Fibonacci hash, and backward-shift deletion (no tombstones). Key 0 marks an
+ * empty slot and cannot be stored.
+ * <p>
+ * Writes must be serialized by the caller. {@link #get} and {@link #containsKey} may run at the
+ * same time as a write: they read optimistically and repeat under a read lock if a write
+ * overlapped, so readers never block each other and rarely wait for a writer.
+ */
+final class LongObjectMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private final StampedLock lock = new StampedLock();
+    private long[] keys;
+    private Object[] values;
+    /** 64 - log2(capacity): the hash is the top bits of key * golden ratio. */
+    private int shift;
+    private int size;
+
+    LongObjectMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    private static int slot(long key, int shift) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    int size() {
+        return size;
+    }
+
+    V get(long key) {
+        long stamp = lock.tryOptimisticRead();
+        V v = find(key);
+        if (lock.validate(stamp)) return v;
+        stamp = lock.readLock();
+        try {
+            return find(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /** Lookup that tolerates a concurrent write (the result is then discarded by the caller). */
+    @SuppressWarnings("unchecked")
+    private V find(long key) {
+        if (key == 0) return null;
+        long[] ks = keys;
+        Object[] vs = values;
+        int sh = shift;
+        int mask = ks.length - 1;
+        if (vs.length != ks.length || 64 - sh != Integer.numberOfTrailingZeros(ks.length)) return null; // mid-resize
+        int i = slot(key, sh);
+        for (int probes = 0; probes < ks.length; probes++) {
+            long k = ks[i];
+            if (k == key) return (V) vs[i];
+            if (k == 0) return null;
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /** Maps key to value (not null) and returns the previous value, if any. */
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+        if (key == 0) throw new IllegalArgumentException("key 0 is reserved");
+        long stamp = lock.writeLock();
+        try {
+            if ((size + 1) * 3 > keys.length * 2) resize(keys.length * 2);
+            int mask = keys.length - 1;
+            int i = slot(key, shift);
+            while (keys[i] != 0) {
+                if (keys[i] == key) {
+                    V old = (V) values[i];
+                    values[i] = value;
+                    return old;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            size++;
+            return null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Removes key and returns its value, or null if it was not present. */
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        if (key == 0) return null;
+        long stamp = lock.writeLock();
+        try {
+            int mask = keys.length - 1;
+            int i = slot(key, shift);
+            while (keys[i] != key) {
+                if (keys[i] == 0) return null;
+                i = (i + 1) & mask;
+            }
+            V old = (V) values[i];
+            // Shift later members of the probe run back so lookups never stop at a gap.
+            int gap = i;
+            for (int j = (i + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+                int home = slot(keys[j], shift);
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = 0;
+            values[gap] = null;
+            size--;
+            return old;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    void clear() {
+        long stamp = lock.writeLock();
+        try {
+            if (keys.length > MIN_CAPACITY) {
+                allocate(MIN_CAPACITY);
+            } else {
+                Arrays.fill(keys, 0);
+                Arrays.fill(values, null);
+            }
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Visits every value; the caller must keep writers out for the duration. */
+    @SuppressWarnings("unchecked")
+    void forEachValue(Consumer<? super V> action) {
+        Object[] vs = values;
+        for (Object v : vs) {
+            if (v != null) action.accept((V) v);
+        }
+    }
+
+    /** Call with the write lock held. */
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            long k = oldKeys[j];
+            if (k == 0) continue;
+            int i = slot(k, shift);
+            while (keys[i] != 0) i = (i + 1) & mask;
+            keys[i] = k;
+            values[i] = oldValues[j];
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.todolist;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link TodoRepository} that keeps saved items in a map and forgets them when the process
+ * ends: for tests, demos and as the reference the other backends are checked against.
+ * Selected as "memory"; the location is ignored.
+ */
+public final class MemoryTodoRepository implements TodoRepository {
+    /** Saved items by id, in order of first save; guarded by this. */
+    private final Map<String, TodoItem> items = new LinkedHashMap<>();
+    /** Saved series; guarded by this. */
+    private List<Recurrence> rules = List.of();
+
+    public static final class Provider implements TodoRepositoryProvider {
+        @Override
+        public String name() {
+            return "memory";
+        }
+
+        @Override
+        public TodoRepository create(String location, Path dir) {
+            return new MemoryTodoRepository();
+        }
+    }
+
+    @Override
+    public synchronized List<TodoItem> loadItems() {
+        return new ArrayList<>(items.values());
+    }
+
+    @Override
+    public synchronized List<Recurrence> loadRecurring() {
+        return rules;
+    }
+
+    @Override
+    public synchronized List<TodoItem> findInRange(LocalDate from, LocalDate to) {
+        List<TodoItem> found = new ArrayList<>();
+        for (TodoItem item : items.values()) {
+            if (!item.getDate().isAfter(to) && !item.getEndDate().isBefore(from)) found.add(item);
+        }
+        found.sort(Comparator.comparing(TodoItem::getDate));
+        return found;
+    }
+
+    @Override
+    public synchronized void save(TodoSnapshot current, Collection<TodoItem> changed, Collection<String> removedIds,
+                                  boolean recurringChanged) {
+        for (String id : removedIds) items.remove(id);
+        for (TodoItem item : changed) items.put(item.getId(), item);
+        if (recurringChanged) rules = List.copyOf(current.getRecurring());
+    }
+
+    @Override
+    public void close() {
+    }
+}
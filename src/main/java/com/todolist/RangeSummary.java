@@ -0,0 +1,85 @@
+package com.todolist;
+
+import java.time.LocalDate;
+
+/**
+ * Per-day total and completed counts for a date range, computed in one pass by
+ * {@link TodoStore#summarize(LocalDate, LocalDate)}. Days outside the range read as 0.
+ */
+public final class RangeSummary {
+    private final LocalDate from;
+    private final LocalDate to;
+    private final int[] total;
+    private final int[] completed;
+
+    RangeSummary(LocalDate from, LocalDate to, int[] total, int[] completed) {
+        this.from = from;
+        this.to = to;
+        this.total = total;
+        this.completed = completed;
+    }
+
+    /** Accumulates item ranges given as epoch days into a difference array, then prefix-sums it. */
+    static final class Builder {
+        private final LocalDate from;
+        private final LocalDate to;
+        private final long base;
+        private final int days;
+        private final int[] total;
+        private final int[] completed;
+
+        Builder(LocalDate from, LocalDate to) {
+            this.from = from;
+            this.to = to;
+            this.base = from.toEpochDay();
+            this.days = (int) (to.toEpochDay() - base + 1);
+            this.total = new int[days + 1];
+            this.completed = new int[days + 1];
+        }
+
+        void add(long startDay, long endDay, boolean done) {
+            int s = (int) Math.max(0, startDay - base);
+            int e = (int) Math.min(days - 1, endDay - base);
+            if (s > e) return;
+            total[s]++;
+            total[e + 1]--;
+            if (done) {
+                completed[s]++;
+                completed[e + 1]--;
+            }
+        }
+
+        RangeSummary build() {
+            for (int i = 1; i < days; i++) {
+                total[i] += total[i - 1];
+                completed[i] += completed[i - 1];
+            }
+            return new RangeSummary(from, to, total, completed);
+        }
+    }
+
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo() { return to; }
+
+    public int totalCount(LocalDate date) {
+        int i = slot(date);
+        return i < 0 ? 0 : total[i];
+    }
+
+    public int completedCount(LocalDate date) {
+        int i = slot(date);
+        return i < 0 ? 0 : completed[i];
+    }
+
+    /** Percent completed for the day (0–100), same rounding as {@link TodoStore#percentCompleted}. */
+    public int percentCompleted(LocalDate date) {
+        int i = slot(date);
+        if (i < 0 || total[i] == 0) return 0;
+        return (int) Math.round(100.0 * completed[i] / total[i]);
+    }
+
+    private int slot(LocalDate date) {
+        if (date.isBefore(from) || date.isAfter(to)) return -1;
+        return (int) (date.toEpochDay() - from.toEpochDay());
+    }
+}
@@ -0,0 +1,267 @@
+package com.todolist;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+
+/**
+ * A repeating task, stored once: a title, a first day, an optional last day and a pattern
+ * (daily, weekdays, weekly on given days, or monthly on the first day's day of month, moved
+ * to the last day of shorter months). Completing or deleting one occurrence is kept as a
+ * sorted list of exception days, so the cost of a series does not depend on how long it runs.
+ * <p>
+ * Occurrences are single-day {@link TodoItem}s made when a query asks for their dates; their
+ * id is the series id, '@' and the ISO date, so the store can route edits back to the series.
+ * Instances are immutable; the with* methods return changed copies.
+ */
+public final class Recurrence {
+    public enum Frequency { DAILY, WEEKDAYS, WEEKLY, MONTHLY }
+
+    private static final long[] NONE = new long[0];
+
+    private final String id;
+    private final String title;
+    private final LocalDate start;
+    /** Last possible day (inclusive), or null for a series without end. */
+    private final LocalDate until;
+    private final Frequency frequency;
+    /** Weekly: bit (DayOfWeek value - 1) set for each day it occurs on. */
+    private final int weekdays;
+    /** Epoch days of completed occurrences, sorted. */
+    private final long[] completed;
+    /** Epoch days of deleted occurrences, sorted. */
+    private final long[] skipped;
+
+    /**
+     * Series starting on start; until may be null. Weekly series occur on days, or on start's
+     * day of week when days is empty; other frequencies ignore days.
+     */
+    public Recurrence(String id, String title, LocalDate start, LocalDate until, Frequency frequency, Set<DayOfWeek> days) {
+        this(id, title, start, until, frequency, mask(frequency, start, days), NONE, NONE);
+    }
+
+    private Recurrence(String id, String title, LocalDate start, LocalDate until, Frequency frequency,
+                       int weekdays, long[] completed, long[] skipped) {
+        if (id.indexOf('@') >= 0) throw new IllegalArgumentException("Series id must not contain '@': " + id);
+        if (until != null && until.isBefore(start)) throw new IllegalArgumentException("until must be >= start");
+        this.id = id;
+        this.title = Objects.requireNonNull(title);
+        this.start = start;
+        this.until = until;
+        this.frequency = frequency;
+        this.weekdays = weekdays;
+        this.completed = completed;
+        this.skipped = skipped;
+    }
+
+    private static int mask(Frequency frequency, LocalDate start, Set<DayOfWeek> days) {
+        if (frequency != Frequency.WEEKLY) return 0;
+        if (days == null || days.isEmpty()) return 1 << (start.getDayOfWeek().getValue() - 1);
+        int m = 0;
+        for (DayOfWeek d : days) m |= 1 << (d.getValue() - 1);
+        return m;
+    }
+
+    public String getId() { return id; }
+    public String getTitle() { return title; }
+    public LocalDate getStart() { return start; }
+    /** Last possible day, or null if the series does not end. */
+    public LocalDate getUntil() { return until; }
+    public Frequency getFrequency() { return frequency; }
+
+    /** Days of the week a weekly series occurs on; empty for other frequencies. */
+    public Set<DayOfWeek> getDays() {
+        EnumSet<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek d : DayOfWeek.values()) {
+            if ((weekdays & (1 << (d.getValue() - 1))) != 0) days.add(d);
+        }
+        return Collections.unmodifiableSet(days);
+    }
+
+    /** Epoch days of completed occurrences, ascending (a copy). */
+    long[] completedDays() {
+        return completed.clone();
+    }
+
+    /** Epoch days of deleted occurrences, ascending (a copy). */
+    long[] skippedDays() {
+        return skipped.clone();
+    }
+
+    /** Series as read back from storage. */
+    static Recurrence restore(String id, String title, LocalDate start, LocalDate until, Frequency frequency,
+                              Set<DayOfWeek> days, long[] completed, long[] skipped) {
+        long[] c = completed.clone();
+        long[] s = skipped.clone();
+        Arrays.sort(c);
+        Arrays.sort(s);
+        return new Recurrence(id, title, start, until, frequency, mask(frequency, start, days), c, s);
+    }
+
+    /** True if the series has an occurrence on date that was not deleted. */
+    public boolean occursOn(LocalDate date) {
+        long day = date.toEpochDay();
+        return matches(day) && Arrays.binarySearch(skipped, day) < 0;
+    }
+
+    /** The occurrence on date; only meaningful if {@link #occursOn} date. */
+    public TodoItem occurrence(LocalDate date) {
+        return new TodoItem(occurrenceId(id, date), date, title, Arrays.binarySearch(completed, date.toEpochDay()) >= 0);
+    }
+
+    /** First occurrence on or after date, or null if there is none. */
+    public TodoItem nextOccurrence(LocalDate date) {
+        long from = Math.max(date.toEpochDay(), start.toEpochDay());
+        long last = until == null ? from + 366L * 4 : until.toEpochDay();
+        long[] found = { Long.MIN_VALUE };
+        forEachDayWhile(from, last, day -> {
+            found[0] = day;
+            return false;
+        });
+        return found[0] == Long.MIN_VALUE ? null : occurrence(LocalDate.ofEpochDay(found[0]));
+    }
+
+    /**
+     * Calls action with the epoch day of every remaining occurrence in [from, to], in order.
+     * Only the queried days are looked at, never the whole series.
+     */
+    void forEachDay(long from, long to, LongConsumer action) {
+        forEachDayWhile(from, to, day -> {
+            action.accept(day);
+            return true;
+        });
+    }
+
+    /** {@link #forEachDay}, stopping after the first day action returns false for. */
+    private void forEachDayWhile(long from, long to, LongPredicate action) {
+        long first = Math.max(from, start.toEpochDay());
+        long last = until == null ? to : Math.min(to, until.toEpochDay());
+        if (first > last) return;
+        int skip = lowerBound(skipped, first);
+        if (frequency == Frequency.MONTHLY) {
+            LocalDate month = LocalDate.ofEpochDay(first).withDayOfMonth(1);
+            for (; month.toEpochDay() <= last; month = month.plusMonths(1)) {
+                long day = month.withDayOfMonth(Math.min(start.getDayOfMonth(), month.lengthOfMonth())).toEpochDay();
+                if (day < first || day > last) continue;
+                while (skip < skipped.length && skipped[skip] < day) skip++;
+                if (skip < skipped.length && skipped[skip] == day) continue;
+                if (!action.test(day)) return;
+            }
+            return;
+        }
+        for (long day = first; day <= last; day++) {
+            if (!matches(day)) continue;
+            while (skip < skipped.length && skipped[skip] < day) skip++;
+            if (skip < skipped.length && skipped[skip] == day) continue;
+            if (!action.test(day)) return;
+        }
+    }
+
+    /** True if the occurrence on day is marked completed. */
+    boolean isCompleted(long day) {
+        return Arrays.binarySearch(completed, day) >= 0;
+    }
+
+    /** Whether the pattern hits day, ignoring deletions. */
+    private boolean matches(long day) {
+        if (day < start.toEpochDay() || (until != null && day > until.toEpochDay())) return false;
+        switch (frequency) {
+            case DAILY:
+                return true;
+            case WEEKDAYS:
+                return dayOfWeek(day) <= 5;
+            case WEEKLY:
+                return (weekdays & (1 << (dayOfWeek(day) - 1))) != 0;
+            default: {
+                LocalDate date = LocalDate.ofEpochDay(day);
+                return date.getDayOfMonth() == Math.min(start.getDayOfMonth(), date.lengthOfMonth());
+            }
+        }
+    }
+
+    /** ISO day of week (Monday = 1) without building a LocalDate; 1970-01-01 was a Thursday. */
+    private static int dayOfWeek(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L) + 1;
+    }
+
+    public Recurrence withTitle(String title) {
+        return new Recurrence(id, title, start, until, frequency, weekdays, completed, skipped);
+    }
+
+    /** Series ending on until (null: never). */
+    public Recurrence withUntil(LocalDate until) {
+        return new Recurrence(id, title, start, until, frequency, weekdays, completed, skipped);
+    }
+
+    /** Series with the occurrence on date marked completed or not. */
+    public Recurrence withCompleted(LocalDate date, boolean done) {
+        long[] c = done ? insert(completed, date.toEpochDay()) : delete(completed, date.toEpochDay());
+        return c == completed ? this : new Recurrence(id, title, start, until, frequency, weekdays, c, skipped);
+    }
+
+    /** Series without the occurrence on date. */
+    public Recurrence withoutOccurrence(LocalDate date) {
+        long day = date.toEpochDay();
+        long[] s = insert(skipped, day);
+        long[] c = delete(completed, day);
+        return s == skipped && c == completed ? this : new Recurrence(id, title, start, until, frequency, weekdays, c, s);
+    }
+
+    private static long[] insert(long[] days, long day) {
+        int i = Arrays.binarySearch(days, day);
+        if (i >= 0) return days;
+        i = -i - 1;
+        long[] out = new long[days.length + 1];
+        System.arraycopy(days, 0, out, 0, i);
+        out[i] = day;
+        System.arraycopy(days, i, out, i + 1, days.length - i);
+        return out;
+    }
+
+    private static long[] delete(long[] days, long day) {
+        int i = Arrays.binarySearch(days, day);
+        if (i < 0) return days;
+        long[] out = new long[days.length - 1];
+        System.arraycopy(days, 0, out, 0, i);
+        System.arraycopy(days, i + 1, out, i, days.length - i - 1);
+        return out;
+    }
+
+    private static int lowerBound(long[] days, long day) {
+        int i = Arrays.binarySearch(days, day);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /** Id of the occurrence of series id on date. */
+    public static String occurrenceId(String id, LocalDate date) {
+        return id + "@" + date;
+    }
+
+    /** Series id part of an occurrence id, or null if id does not have that form. */
+    static String seriesId(String id) {
+        int at = id.lastIndexOf('@');
+        return at > 0 && occurrenceDate(id) != null ? id.substring(0, at) : null;
+    }
+
+    /** Date part of an occurrence id, or null if id does not have that form. */
+    static LocalDate occurrenceDate(String id) {
+        int at = id.lastIndexOf('@');
+        if (at <= 0 || id.length() - at != 11) return null;
+        try {
+            return LocalDate.parse(id.substring(at + 1));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /** True if item is an occurrence of a recurring series rather than a stored item. */
+    public static boolean isOccurrence(TodoItem item) {
+        return seriesId(item.getId()) != null;
+    }
+}
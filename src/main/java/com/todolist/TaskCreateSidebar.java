@@ -10,15 +10,22 @@ import java.util.Date;
 
 /**
  * Sidebar panel for creating tasks without using the calendar.
- * Supports single-day and multi-day tasks via start/end date.
+ * Supports single-day and multi-day tasks via start/end date, and repeating tasks (daily,
+ * weekdays, weekly or monthly from the start date, optionally until the end date).
  */
 public class TaskCreateSidebar extends JPanel {
+    /** Repeat choices after "Does not repeat", in combo order. */
+    private static final Recurrence.Frequency[] REPEATS = {
+            Recurrence.Frequency.DAILY, Recurrence.Frequency.WEEKDAYS, Recurrence.Frequency.WEEKLY, Recurrence.Frequency.MONTHLY
+    };
+
     private final TodoStore store;
     private final Runnable onTaskAdded;
     private final JTextField titleField;
     private final JSpinner startSpinner;
     private final JCheckBox multiDayCheck;
     private final JSpinner endSpinner;
+    private final JComboBox<String> repeatCombo;
     private final JButton addButton;
 
     public TaskCreateSidebar(TodoStore store, Runnable onTaskAdded) {
@@ -50,11 +57,6 @@ public class TaskCreateSidebar extends JPanel {
         multiDayCheck = new JCheckBox("Multi-day task", false);
         multiDayCheck.setForeground(Color.WHITE);
         multiDayCheck.setBackground(getBackground());
-        multiDayCheck.addActionListener(e -> {
-            boolean multi = multiDayCheck.isSelected();
-            endSpinner.setEnabled(multi);
-            if (multi) endSpinner.setValue(startSpinner.getValue());
-        });
 
         JLabel endLabel = new JLabel("End date");
         endLabel.setForeground(Color.WHITE);
@@ -63,6 +65,18 @@ public class TaskCreateSidebar extends JPanel {
         endSpinner.setEditor(endEditor);
         endSpinner.setValue(new Date());
         endSpinner.setEnabled(false);
+        multiDayCheck.addActionListener(e -> {
+            boolean multi = multiDayCheck.isSelected();
+            endSpinner.setEnabled(multi);
+            if (multi) endSpinner.setValue(startSpinner.getValue());
+        });
+
+        JLabel repeatLabel = new JLabel("Repeat");
+        repeatLabel.setForeground(Color.WHITE);
+        repeatCombo = new JComboBox<>(new String[] { "Does not repeat", "Daily", "Weekdays", "Weekly", "Monthly" });
+        repeatCombo.setMaximumSize(new Dimension(Integer.MAX_VALUE, 28));
+        repeatCombo.addActionListener(e -> multiDayCheck.setText(repeatCombo.getSelectedIndex() == 0
+                ? "Multi-day task" : "Repeat until end date"));
 
         addButton = new JButton("Add task");
         addButton.addActionListener(e -> addTask());
@@ -78,6 +92,10 @@ public class TaskCreateSidebar extends JPanel {
         add(Box.createVerticalStrut(2));
         add(startSpinner);
         add(Box.createVerticalStrut(8));
+        add(repeatLabel);
+        add(Box.createVerticalStrut(2));
+        add(repeatCombo);
+        add(Box.createVerticalStrut(8));
         add(multiDayCheck);
         add(Box.createVerticalStrut(4));
         add(endLabel);
@@ -88,6 +106,18 @@ public class TaskCreateSidebar extends JPanel {
         add(Box.createVerticalGlue());
     }
 
+    /** Enables or disables the form; the end date stays off unless the task is multi-day. */
+    @Override
+    public void setEnabled(boolean enabled) {
+        super.setEnabled(enabled);
+        titleField.setEnabled(enabled);
+        startSpinner.setEnabled(enabled);
+        repeatCombo.setEnabled(enabled);
+        multiDayCheck.setEnabled(enabled);
+        endSpinner.setEnabled(enabled && multiDayCheck.isSelected());
+        addButton.setEnabled(enabled);
+    }
+
     private static LocalDate toLocalDate(Date d) {
         return d.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
     }
@@ -105,10 +135,14 @@ public class TaskCreateSidebar extends JPanel {
             JOptionPane.showMessageDialog(this, "End date must be on or after start date.", "Invalid dates", JOptionPane.WARNING_MESSAGE);
             return;
         }
-        TodoItem item = new TodoItem(TodoStore.generateId(), start, end, title, false);
-        store.add(item);
+        int repeat = repeatCombo.getSelectedIndex();
+        if (repeat > 0) {
+            store.addRecurring(new Recurrence(TodoStore.generateId(), title, start, multiDay ? end : null, REPEATS[repeat - 1], null));
+        } else {
+            store.add(new TodoItem(TodoStore.generateId(), start, end, title, false));
+        }
         try {
-            store.save();
+            store.requestSave();
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
             return;
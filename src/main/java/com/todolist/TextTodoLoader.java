@@ -0,0 +1,203 @@
+package com.todolist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Loader for the todos.txt text format that reads the file into one buffer and parses
+ * line-aligned chunks of it in parallel on the common fork-join pool. Fields are located by
+ * scanning bytes, dates are built straight from their digits, and only the id and title become
+ * Strings. Accepts the same 4-field (legacy) and 5-field lines as {@link TodoStore}'s line
+ * parser and keeps file order. The file is read, not mapped, so it is closed again before the
+ * store can save over it (a mapped file cannot be replaced on Windows until the mapping is
+ * collected).
+ */
+final class TextTodoLoader {
+    /** Below this size the file is parsed on the calling thread. */
+    private static final int PARALLEL_THRESHOLD = 1 << 20;
+    private static final byte SEP = '|';
+
+    private final ByteBuffer buf;
+
+    private TextTodoLoader(ByteBuffer buf) {
+        this.buf = buf;
+    }
+
+    /** Receives the fields of each valid line of one chunk, in file order. */
+    interface LineSink {
+        void line(String id, LocalDate start, LocalDate end, String title, boolean completed);
+    }
+
+    /** Items of one chunk. */
+    private static final class ItemSink implements LineSink {
+        final List<TodoItem> items;
+
+        ItemSink(int expected) {
+            items = new ArrayList<>(expected);
+        }
+
+        @Override
+        public void line(String id, LocalDate start, LocalDate end, String title, boolean completed) {
+            items.add(new TodoItem(id, start, end, title, completed));
+        }
+    }
+
+    static List<TodoItem> load(Path path) throws IOException {
+        return load(read(path));
+    }
+
+    /** Parses todo lines from buf's [0, limit), e.g. a decompressed segment. */
+    static List<TodoItem> load(ByteBuffer buf) {
+        List<ItemSink> parts = new TextTodoLoader(buf).parse(ItemSink::new);
+        if (parts.size() == 1) return parts.get(0).items;
+        int total = 0;
+        for (ItemSink p : parts) total += p.items.size();
+        List<TodoItem> result = new ArrayList<>(total);
+        for (ItemSink p : parts) result.addAll(p.items);
+        return result;
+    }
+
+    /** Loads the file straight into columns, one chunk of rows per parsed chunk; no item objects are made. */
+    static TodoColumns loadColumns(Path path) throws IOException {
+        return TodoColumns.build(new TextTodoLoader(read(path)).parse(TodoColumns.Builder::new));
+    }
+
+    private static ByteBuffer read(Path path) throws IOException {
+        ByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Todo file too large: " + size + " bytes");
+            buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining() && ch.read(buf) >= 0) { }
+        }
+        return buf.flip();
+    }
+
+    /** Parses every chunk into its own sink (made with an expected line count); returns them in file order. */
+    private <S extends LineSink> List<S> parse(IntFunction<S> sinks) {
+        int size = buf.limit();
+        if (size < PARALLEL_THRESHOLD) return List.of(parseChunk(0, size, sinks));
+        int chunks = Math.max(1, Math.min(size / (PARALLEL_THRESHOLD / 4), Runtime.getRuntime().availableProcessors() * 4));
+        int[] bounds = new int[chunks + 1];
+        bounds[chunks] = size;
+        for (int i = 1; i < chunks; i++) bounds[i] = lineStartAtOrAfter(Math.max(bounds[i - 1], (int) ((long) size * i / chunks)));
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(i -> parseChunk(bounds[i], bounds[i + 1], sinks))
+                .collect(Collectors.toList());
+    }
+
+    private int lineStartAtOrAfter(int pos) {
+        if (pos == 0) return 0;
+        int limit = buf.limit();
+        while (pos < limit && buf.get(pos - 1) != '\n') pos++;
+        return pos;
+    }
+
+    private <S extends LineSink> S parseChunk(int from, int to, IntFunction<S> sinks) {
+        S sink = sinks.apply(Math.max(16, (to - from) / 48));
+        int pos = from;
+        while (pos < to) {
+            int eol = pos;
+            while (eol < to && buf.get(eol) != '\n') eol++;
+            parseLine(pos, eol, sink);
+            pos = eol + 1;
+        }
+        return sink;
+    }
+
+    /** Mirrors TodoStore.parseLine on the byte range [start, end) of one line; invalid lines are skipped. */
+    private void parseLine(int start, int end, LineSink sink) {
+        while (start < end && (buf.get(start) & 0xff) <= ' ') start++;
+        while (end > start && (buf.get(end - 1) & 0xff) <= ' ') end--;
+        if (start == end) return;
+        int a = indexOf(start, end);
+        if (a < 0) return;
+        int b = indexOf(a + 1, end);
+        if (b < 0) return;
+        int c = indexOf(b + 1, end);
+        if (c < 0) return;
+        LocalDate date = parseDate(a + 1, b);
+        if (date == null) return;
+        String id = string(start, a);
+        int d = indexOf(c + 1, end);
+        if (d < 0) {
+            sink.line(id, date, date, title(b + 1, c), isTrue(c + 1, end));
+            return;
+        }
+        LocalDate endDate = parseDate(b + 1, c);
+        if (endDate == null || endDate.isBefore(date)) return;
+        sink.line(id, date, endDate, title(c + 1, d), isTrue(d + 1, end));
+    }
+
+    private int indexOf(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf.get(i) == SEP) return i;
+        }
+        return -1;
+    }
+
+    /** yyyy-MM-dd from digits; anything else (e.g. +10000-01-01) goes through LocalDate.parse. */
+    private LocalDate parseDate(int from, int to) {
+        if (to - from == 10 && buf.get(from + 4) == '-' && buf.get(from + 7) == '-') {
+            int y = digits(from, from + 4);
+            int m = digits(from + 5, from + 7);
+            int d = digits(from + 8, from + 10);
+            if (y >= 0 && m >= 0 && d >= 0) {
+                try {
+                    return LocalDate.of(y, m, d);
+                } catch (DateTimeException e) {
+                    return null;
+                }
+            }
+        }
+        try {
+            return LocalDate.parse(string(from, to));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private int digits(int from, int to) {
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            int c = buf.get(i) - '0';
+            if (c < 0 || c > 9) return -1;
+            v = v * 10 + c;
+        }
+        return v;
+    }
+
+    /** The remainder of the line, trimmed, equals "true" ignoring case. */
+    private boolean isTrue(int from, int to) {
+        while (from < to && (buf.get(from) & 0xff) <= ' ') from++;
+        if (to - from != 4) return false;
+        return (buf.get(from) | 0x20) == 't' && (buf.get(from + 1) | 0x20) == 'r'
+                && (buf.get(from + 2) | 0x20) == 'u' && (buf.get(from + 3) | 0x20) == 'e';
+    }
+
+    private String title(int from, int to) {
+        String s = string(from, to);
+        return s.indexOf('\u2016') >= 0 ? s.replace('\u2016', '|') : s;
+    }
+
+    private String string(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buf.get(from, bytes);
+        for (byte b : bytes) {
+            if (b < 0) return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,40 @@
+package com.todolist;
+
+/**
+ * Snapshot of one operation timer, as exposed through {@link TodoMetricsMXBean}. Percentiles
+ * are upper bounds (the histogram has power-of-two buckets).
+ */
+public final class TimerStats {
+    private final String name;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+
+    TimerStats(String name, long count, long totalNanos, long maxNanos, long p50Nanos, long p90Nanos, long p99Nanos) {
+        this.name = name;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+    }
+
+    public String getName() { return name; }
+    public long getCount() { return count; }
+    public double getTotalMillis() { return totalNanos / 1e6; }
+    public double getMeanMicros() { return count == 0 ? 0 : totalNanos / 1e3 / count; }
+    public double getP50Micros() { return p50Nanos / 1e3; }
+    public double getP90Micros() { return p90Nanos / 1e3; }
+    public double getP99Micros() { return p99Nanos / 1e3; }
+    public double getMaxMicros() { return maxNanos / 1e3; }
+
+    @Override
+    public String toString() {
+        return String.format("%-28s n=%-8d mean=%.1fus p50<=%.0fus p90<=%.0fus p99<=%.0fus max=%.1fus",
+                name, count, getMeanMicros(), getP50Micros(), getP90Micros(), getP99Micros(), getMaxMicros());
+    }
+}
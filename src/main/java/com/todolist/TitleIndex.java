@@ -0,0 +1,323 @@
+package com.todolist;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * Inverted index from title words to items, for search-as-you-type. Titles are split into
+ * lowercase runs of letters and digits; a query matches an item when every query word is a
+ * prefix of some word in its title.
+ * <p>
+ * Items are addressed by their store sequence number, which stays the same across versions.
+ * Postings are append-only: when a title changes only its new words are posted, and words it
+ * lost (or a removed item's words) become stale entries that the query filters out by checking
+ * the current title. Postings are rebuilt once stale entries outnumber live ones.
+ * <p>
+ * A query starts from its most selective word, measured by posting counts under that word's
+ * prefix, and keeps the earliest matches by date in a heap bounded by the limit, so its cost
+ * tracks the number of candidates of that word rather than the number of items.
+ * <p>
+ * Over a columnar store, docs below the base size that were never put are looked up through
+ * a resolver instead of being held here, so the index keeps no item objects for them.
+ */
+final class TitleIndex {
+    private static final int MIN_REBUILD_STALE = 1 << 14;
+    /** Distinct words looked at when estimating a prefix's selectivity. */
+    private static final int ESTIMATE_WORDS = 256;
+    /** Most distinct words a prefix may cover to be used as a merge filter. */
+    private static final int FILTER_WORDS = 16;
+
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    /** Current version by sequence number; null once removed (or, below baseSize, never put). */
+    private TodoItem[] docs = new TodoItem[1024];
+    /** Docs below this with no entry in docs are read through baseDocs. */
+    private final int baseSize;
+    private final IntFunction<TodoItem> baseDocs;
+    /** Base docs removed or replaced since the index was built. */
+    private final BitSet baseDropped = new BitSet();
+    private long liveEntries;
+    private long staleEntries;
+
+    TitleIndex() {
+        this(0, null);
+    }
+
+    /** Index whose docs 0..baseSize-1 start out as baseDocs.apply(doc) (null if gone). */
+    TitleIndex(int baseSize, IntFunction<TodoItem> baseDocs) {
+        this.baseSize = baseSize;
+        this.baseDocs = baseDocs;
+    }
+
+    private TodoItem doc(int doc) {
+        TodoItem item = doc < docs.length ? docs[doc] : null;
+        if (item != null || doc >= baseSize || baseDropped.get(doc)) return item;
+        return baseDocs.apply(doc);
+    }
+
+    /** Doc numbers for one word; kept sorted and distinct, re-sorted lazily after an out-of-order add. */
+    private static final class Postings {
+        int[] docs = new int[2];
+        int size;
+        boolean sorted = true;
+
+        void add(int doc) {
+            if (size == docs.length) docs = Arrays.copyOf(docs, size * 2);
+            if (size > 0 && doc <= docs[size - 1]) sorted = false;
+            docs[size++] = doc;
+        }
+
+        void ensureSorted() {
+            if (sorted) return;
+            Arrays.sort(docs, 0, size);
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (n == 0 || docs[i] != docs[n - 1]) docs[n++] = docs[i];
+            }
+            size = n;
+            sorted = true;
+        }
+    }
+
+    /** Records item as the version of doc; previous is the version it replaces, or null. */
+    synchronized void put(int doc, TodoItem previous, TodoItem item) {
+        if (doc >= docs.length) docs = Arrays.copyOf(docs, Math.max(doc + 1, docs.length * 2));
+        docs[doc] = item;
+        if (doc < baseSize) baseDropped.set(doc);
+        if (previous != null && Objects.equals(previous.getTitle(), item.getTitle())) return;
+        Set<String> old = previous == null ? new HashSet<>() : new HashSet<>(tokens(previous.getTitle()));
+        Set<String> now = new HashSet<>(tokens(item.getTitle()));
+        for (String word : now) {
+            if (old.remove(word)) continue;
+            postings.computeIfAbsent(word, w -> new Postings()).add(doc);
+            liveEntries++;
+        }
+        retire(old.size());
+    }
+
+    synchronized void remove(int doc, TodoItem item) {
+        if (doc(doc) == null) return;
+        if (doc < docs.length) docs[doc] = null;
+        if (doc < baseSize) baseDropped.set(doc);
+        retire(new HashSet<>(tokens(item.getTitle())).size());
+    }
+
+    private void retire(int entries) {
+        liveEntries -= entries;
+        staleEntries += entries;
+        if (staleEntries > MIN_REBUILD_STALE && staleEntries > liveEntries) rebuild();
+    }
+
+    /**
+     * Sets doc's item (null: gone) without indexing it; call {@link #rebuild()} after a series
+     * of these.
+     */
+    synchronized void preload(int doc, TodoItem item) {
+        if (doc >= docs.length) docs = Arrays.copyOf(docs, Math.max(doc + 1, docs.length * 2));
+        docs[doc] = item;
+        if (doc < baseSize) baseDropped.set(doc);
+    }
+
+    /** Re-derives all postings from the current items, in doc order. */
+    synchronized void rebuild() {
+        postings.clear();
+        liveEntries = 0;
+        staleEntries = 0;
+        for (int doc = 0; doc < Math.max(docs.length, baseSize); doc++) {
+            TodoItem item = doc(doc);
+            if (item == null) continue;
+            for (String word : new HashSet<>(tokens(item.getTitle()))) {
+                postings.computeIfAbsent(word, w -> new Postings()).add(doc);
+                liveEntries++;
+            }
+        }
+    }
+
+    /**
+     * This index with its docs renumbered for a new columnar base: the item at oldDocs[i] is doc
+     * i of the base now, read through baseDocs, and docs not in oldDocs are gone. oldDocs must
+     * be ascending, so every postings list stays sorted and no title is tokenized again. This
+     * index is left as it was for searches already running on it.
+     */
+    synchronized TitleIndex renumbered(long[] oldDocs, IntFunction<TodoItem> baseDocs) {
+        int[] newDoc = new int[oldDocs.length == 0 ? 0 : (int) oldDocs[oldDocs.length - 1] + 1];
+        Arrays.fill(newDoc, -1);
+        for (int i = 0; i < oldDocs.length; i++) newDoc[(int) oldDocs[i]] = i;
+        TitleIndex t = new TitleIndex(oldDocs.length, baseDocs);
+        long kept = 0;
+        for (Map.Entry<String, Postings> e : postings.entrySet()) {
+            Postings p = e.getValue();
+            p.ensureSorted();
+            Postings q = new Postings();
+            q.docs = new int[Math.max(2, p.size)];
+            for (int i = 0; i < p.size; i++) {
+                int doc = p.docs[i];
+                if (doc < newDoc.length && newDoc[doc] >= 0) q.docs[q.size++] = newDoc[doc];
+            }
+            if (q.size > 0) t.postings.put(e.getKey(), q);
+            kept += q.size;
+        }
+        t.liveEntries = liveEntries;
+        t.staleEntries = Math.max(0, kept - liveEntries); // entries of gone docs were stale already
+        return t;
+    }
+
+    /** A match waiting in the search heap. */
+    private static final class Hit {
+        final int doc;
+        final TodoItem item;
+
+        Hit(int doc, TodoItem item) {
+            this.doc = doc;
+            this.item = item;
+        }
+    }
+
+    /** Earliest by date first, then by doc (insertion order). */
+    private static final Comparator<Hit> BY_DATE =
+            Comparator.<Hit, LocalDate>comparing(h -> h.item.getDate()).thenComparingInt(h -> h.doc);
+
+    /**
+     * The limit earliest items by date matching query, ordered by date and then insertion order;
+     * empty for a query with no words.
+     */
+    synchronized List<TodoItem> search(String query, int limit) {
+        List<String> words = tokens(query);
+        if (words.isEmpty() || limit <= 0) return List.of();
+        // Drive from the word whose prefix range has the fewest postings. The next most selective
+        // word that covers only a few distinct words filters candidates by merging its sorted
+        // postings alongside, before any title is looked at.
+        SortedMap<String, Postings> driver = null;
+        long best = Long.MAX_VALUE;
+        List<SortedMap<String, Postings>> ranges = new ArrayList<>(words.size());
+        long[] counts = new long[words.size()];
+        for (int w = 0; w < words.size(); w++) {
+            SortedMap<String, Postings> range = prefixRange(words.get(w));
+            ranges.add(range);
+            counts[w] = estimate(range);
+            if (driver == null || counts[w] < best) {
+                driver = range;
+                best = counts[w];
+            }
+        }
+        Postings[] filter = null;
+        long filterCount = Long.MAX_VALUE;
+        for (int w = 0; w < ranges.size(); w++) {
+            SortedMap<String, Postings> range = ranges.get(w);
+            if (range == driver || counts[w] >= filterCount || range.size() > FILTER_WORDS) continue;
+            filter = range.values().toArray(new Postings[0]);
+            filterCount = counts[w];
+        }
+        if (filter != null) {
+            for (Postings p : filter) p.ensureSorted();
+        }
+        int[] cursors = filter == null ? null : new int[filter.length];
+
+        PriorityQueue<Hit> latestFirst = new PriorityQueue<>(Math.min(limit, 64), BY_DATE.reversed());
+        Set<Integer> seen = new HashSet<>();
+        for (Postings p : driver.values()) {
+            p.ensureSorted();
+            if (cursors != null) Arrays.fill(cursors, 0);
+            for (int i = 0; i < p.size; i++) {
+                int doc = p.docs[i];
+                if (filter != null && !containsAny(filter, cursors, doc)) continue;
+                TodoItem item = doc(doc);
+                if (item == null || !matches(item, words) || !seen.add(doc)) continue;
+                Hit hit = new Hit(doc, item);
+                if (latestFirst.size() < limit) latestFirst.add(hit);
+                else if (BY_DATE.compare(hit, latestFirst.peek()) < 0) {
+                    latestFirst.poll();
+                    latestFirst.add(hit);
+                }
+            }
+        }
+        List<Hit> hits = new ArrayList<>(latestFirst);
+        hits.sort(BY_DATE);
+        List<TodoItem> result = new ArrayList<>(hits.size());
+        for (Hit hit : hits) result.add(hit.item);
+        return result;
+    }
+
+    /** True if any of the sorted lists holds doc; cursors only move forward, by galloping. */
+    private static boolean containsAny(Postings[] lists, int[] cursors, int doc) {
+        for (int j = 0; j < lists.length; j++) {
+            Postings p = lists[j];
+            int lo = cursors[j];
+            int step = 1;
+            int hi = lo;
+            while (hi < p.size && p.docs[hi] < doc) {
+                lo = hi + 1;
+                hi += step;
+                step <<= 1;
+            }
+            int at = Arrays.binarySearch(p.docs, lo, Math.min(hi + 1, p.size), doc);
+            cursors[j] = at >= 0 ? at : -at - 1;
+            if (at >= 0) return true;
+        }
+        return false;
+    }
+
+    /** Postings under a prefix, or Long.MAX_VALUE for a prefix of too many distinct words to count. */
+    private static long estimate(SortedMap<String, Postings> range) {
+        long count = 0;
+        int words = 0;
+        for (Postings p : range.values()) {
+            if (++words > ESTIMATE_WORDS) return Long.MAX_VALUE;
+            count += p.size;
+        }
+        return count;
+    }
+
+    private SortedMap<String, Postings> prefixRange(String prefix) {
+        return postings.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    /** Every query word is a prefix of a word in the item's current title. */
+    static boolean matches(TodoItem item, List<String> words) {
+        return matches(item.getTitle(), words);
+    }
+
+    /** Every query word is a prefix of a word in title. */
+    static boolean matches(String title, List<String> words) {
+        if (title == null) return false;
+        for (String word : words) {
+            if (!hasWordStartingWith(title, word)) return false;
+        }
+        return true;
+    }
+
+    /** Same word boundaries and case folding as {@link #tokens}, without building the words. */
+    private static boolean hasWordStartingWith(String text, String prefix) {
+        int n = text.length();
+        int len = prefix.length();
+        for (int i = 0; i + len <= n; i++) {
+            if (!Character.isLetterOrDigit(text.charAt(i)) || (i > 0 && Character.isLetterOrDigit(text.charAt(i - 1)))) continue;
+            if (text.regionMatches(true, i, prefix, 0, len) && allLetterOrDigit(text, i, len)) return true;
+        }
+        return false;
+    }
+
+    private static boolean allLetterOrDigit(String text, int from, int len) {
+        for (int i = from; i < from + len; i++) {
+            if (!Character.isLetterOrDigit(text.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /** Lowercase runs of letters and digits, in order. */
+    static List<String> tokens(String text) {
+        if (text == null || text.isEmpty()) return List.of();
+        List<String> out = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                out.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,66 @@
+package com.todolist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A group of changes applied to a {@link TodoStore} in one step via {@link TodoStore#batch}.
+ * Nothing happens until the batch is applied; then every change lands together, the date
+ * index is updated once and the journal records the batch as a single all-or-nothing unit.
+ * Remove, completion and title changes act on whichever version of the item's id is current.
+ */
+public final class TodoBatch {
+    enum Kind { ADD, REMOVE, SET_COMPLETED, SET_TITLE }
+
+    static final class Op {
+        final Kind kind;
+        final TodoItem item;
+        final boolean completed;
+        final String title;
+
+        Op(Kind kind, TodoItem item, boolean completed, String title) {
+            this.kind = kind;
+            this.item = item;
+            this.completed = completed;
+            this.title = title;
+        }
+    }
+
+    private final List<Op> ops = new ArrayList<>();
+
+    TodoBatch() {
+    }
+
+    public TodoBatch add(TodoItem item) {
+        ops.add(new Op(Kind.ADD, item, false, null));
+        return this;
+    }
+
+    public TodoBatch remove(TodoItem item) {
+        ops.add(new Op(Kind.REMOVE, item, false, null));
+        return this;
+    }
+
+    public TodoBatch setCompleted(TodoItem item, boolean completed) {
+        ops.add(new Op(Kind.SET_COMPLETED, item, completed, null));
+        return this;
+    }
+
+    public TodoBatch setTitle(TodoItem item, String title) {
+        ops.add(new Op(Kind.SET_TITLE, item, false, title));
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return ops.isEmpty();
+    }
+
+    public int size() {
+        return ops.size();
+    }
+
+    List<Op> ops() {
+        return Collections.unmodifiableList(ops);
+    }
+}
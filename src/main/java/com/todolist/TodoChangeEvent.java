@@ -0,0 +1,59 @@
+package com.todolist;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes one change to a {@link TodoStore}: what kind it was, which items it touched and
+ * the date range those items cover (before and after the change), so views can refresh only
+ * the affected days. A {@link Type#RELOADED} event has no range: everything may have changed.
+ */
+public final class TodoChangeEvent {
+    public enum Type { ADDED, UPDATED, REMOVED, BATCH, RELOADED }
+
+    private final TodoStore source;
+    private final Type type;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final List<TodoItem> items;
+    private final boolean recurring;
+
+    TodoChangeEvent(TodoStore source, Type type, LocalDate from, LocalDate to, List<TodoItem> items) {
+        this(source, type, from, to, items, false);
+    }
+
+    TodoChangeEvent(TodoStore source, Type type, LocalDate from, LocalDate to, List<TodoItem> items, boolean recurring) {
+        this.source = source;
+        this.type = type;
+        this.from = from;
+        this.to = to;
+        this.items = Collections.unmodifiableList(items);
+        this.recurring = recurring;
+    }
+
+    public TodoStore getSource() { return source; }
+    public Type getType() { return type; }
+    /** First affected day, or null for {@link Type#RELOADED}. */
+    public LocalDate getFrom() { return from; }
+    /** Last affected day (inclusive), or null for {@link Type#RELOADED}. */
+    public LocalDate getTo() { return to; }
+    /** Items added or updated (new versions) and removed (last versions). Empty for a reload. */
+    public List<TodoItem> getItems() { return items; }
+    /**
+     * True if a whole {@link Recurrence} series was added, changed or removed. Its occurrences
+     * are not in {@link #getItems()}; the range runs to {@link LocalDate#MAX} for a series
+     * without end.
+     */
+    public boolean isRecurringChange() { return recurring; }
+
+    /** True if the change may affect the given day. */
+    public boolean affects(LocalDate date) {
+        return from == null || (!date.isBefore(from) && !date.isAfter(to));
+    }
+
+    /** True if the change may affect any day in [start, end]. */
+    public boolean affects(LocalDate start, LocalDate end) {
+        return from == null || (!end.isBefore(from) && !start.isAfter(to));
+    }
+}
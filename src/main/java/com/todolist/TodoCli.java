@@ -0,0 +1,173 @@
+package com.todolist;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Headless import and export of .ics (VTODO) and .csv files, without starting the UI:
+ * <pre>
+ * TodoCli import todos.ics [--data todos.txt] [--batch 5000]
+ * TodoCli export todos.csv [--data todos.txt] [--from 2024-01-01] [--to 2024-12-31]
+ * </pre>
+ * Without --data the app's own store is used, with the same -Dtodolist.* settings. Import
+ * streams the file, applies items in batches of --batch and persists once at the end; items
+ * with an id already in the store replace it. An export with --from or --to from a store kept
+ * by a {@link TodoRepository} asks the repository for just that range instead of loading the
+ * store. Progress and throughput go to stderr.
+ */
+public final class TodoCli {
+    private static final int DEFAULT_BATCH = 5000;
+
+    private TodoCli() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2 || !(args[0].equals("import") || args[0].equals("export"))) usage();
+        Path file = Paths.get(args[1]);
+        Path data = null;
+        int batchSize = DEFAULT_BATCH;
+        LocalDate from = null, to = null;
+        try {
+            for (int i = 2; i < args.length; i++) {
+                if (i + 1 >= args.length) usage();
+                switch (args[i]) {
+                    case "--data": data = Paths.get(args[++i]); break;
+                    case "--batch": batchSize = Math.max(1, Integer.parseInt(args[++i])); break;
+                    case "--from": from = LocalDate.parse(args[++i]); break;
+                    case "--to": to = LocalDate.parse(args[++i]); break;
+                    default: usage();
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Bad argument: " + e.getMessage());
+            usage();
+        }
+        TodoStore store = data == null ? new TodoStore() : new TodoStore(data);
+        try {
+            TodoFormat format = TodoFormat.forFile(file);
+            if (args[0].equals("import")) importFile(store, format, file, batchSize);
+            else exportFile(store, format, file, from, to);
+            store.close();
+        } catch (Exception e) {
+            System.err.println(args[0] + " failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: TodoCli import <file.ics|file.csv> [--data <todos.txt>] [--batch <n>]");
+        System.err.println("       TodoCli export <file.ics|file.csv> [--data <todos.txt>] [--from <yyyy-MM-dd>] [--to <yyyy-MM-dd>]");
+        System.exit(2);
+    }
+
+    static void importFile(TodoStore store, TodoFormat format, Path file, int batchSize) throws IOException {
+        store.load();
+        Progress progress = new Progress("imported");
+        TodoBatch[] batch = { new TodoBatch() };
+        long skipped;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            skipped = format.read(in, item -> {
+                batch[0].add(item);
+                if (batch[0].size() >= batchSize) {
+                    store.apply(batch[0]);
+                    batch[0] = new TodoBatch();
+                }
+                progress.step();
+            });
+        }
+        store.apply(batch[0]);
+        long parsed = System.nanoTime();
+        store.save();
+        progress.done(skipped == 0 ? "" : ", " + skipped + " skipped",
+                String.format(", save %.2f s", (System.nanoTime() - parsed) / 1e9));
+    }
+
+    /** Exports the store, or the items overlapping [from, to] when either is given; loads the store if needed. */
+    static void exportFile(TodoStore store, TodoFormat format, Path file, LocalDate from, LocalDate to) throws IOException {
+        List<TodoItem> items;
+        LocalDate first = from != null ? from : LocalDate.of(1, 1, 1);
+        LocalDate last = to != null ? to : LocalDate.of(9999, 12, 31);
+        if (from == null && to == null) {
+            store.load();
+            store.pageInAll();
+            items = store.getAllItems();
+        } else if (store.repository() != null) {
+            items = findInRange(store.repository(), first, last);
+        } else {
+            store.load();
+            if (from == null || to == null) store.pageInAll();
+            else store.pageIn(YearMonth.from(first), YearMonth.from(last));
+            items = store.getItemsInRange(first, last);
+        }
+        Progress progress = new Progress("exported");
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            format.write(out, () -> new Iterator<>() {
+                private final Iterator<TodoItem> it = items.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public TodoItem next() {
+                    progress.step();
+                    return it.next();
+                }
+            });
+        }
+        progress.done("", "");
+    }
+
+    /**
+     * Stored items overlapping [from, to] as the repository finds them, followed by the
+     * occurrences of its series in that range, like {@link TodoStore#getItemsInRange}.
+     */
+    private static List<TodoItem> findInRange(TodoRepository repository, LocalDate from, LocalDate to) throws IOException {
+        List<TodoItem> items = new ArrayList<>(repository.findInRange(from, to));
+        for (Recurrence rule : repository.loadRecurring()) {
+            rule.forEachDay(from.toEpochDay(), to.toEpochDay(), day -> items.add(rule.occurrence(LocalDate.ofEpochDay(day))));
+        }
+        return items;
+    }
+
+    /** Counts items and prints the count and rate to stderr about once a second. */
+    private static final class Progress {
+        private final String verb;
+        private final long start = System.nanoTime();
+        private long lastReport = start;
+        private long count;
+
+        Progress(String verb) {
+            this.verb = verb;
+        }
+
+        void step() {
+            if ((++count & 1023) != 0) return;
+            long now = System.nanoTime();
+            if (now - lastReport < 1_000_000_000L) return;
+            lastReport = now;
+            System.err.printf("%s %,d items (%,.0f items/s)%n", verb, count, rate(now));
+        }
+
+        void done(String detail, String timing) {
+            long now = System.nanoTime();
+            System.err.printf("%s %,d items%s in %.2f s (%,.0f items/s%s)%n",
+                    verb, count, detail, (now - start) / 1e9, rate(now), timing);
+        }
+
+        private double rate(long now) {
+            return count * 1e9 / Math.max(1, now - start);
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package com.todolist;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable column-wise copy of a list of items, or of the rows a loader fed a {@link Builder}:
+ * the base of a columnar {@link DateIndex}.
+ * <p>
+ * Rows are sorted by start day. Per row there are int start and end epoch days, the insertion
+ * sequence, an index into a pool of distinct titles and the id's {@link TodoIds} key; completion
+ * is one bit. That is about 30 bytes per item plus each distinct title once, against several
+ * objects per item otherwise. Columns read from a {@link BinaryTodoFile} leave the titles in
+ * the file and refer to them by record instead of pooling them. {@link TodoItem}s are only made, as views, for the rows a query
+ * returns; summaries and counts read the columns directly.
+ * <p>
+ * Range queries binary-search the start column and walk a max-end tree over blocks of 16 rows,
+ * skipping blocks whose items all end before the range. Ids are found by binary search over
+ * the rows ordered by key; ids that are not in a standard form are kept in a small map.
+ */
+final class TodoColumns implements TodoItem.Source {
+    private static final int BLOCK_SHIFT = 4;
+    private static final int BLOCK = 1 << BLOCK_SHIFT;
+
+    private final int size;
+    private final int[] start;
+    private final int[] end;
+    private final int[] seq;
+    private final int[] rowOfSeq;
+    private final int[] titleRef;
+    private final String[] titles;
+    /** File the titles are read from by record, or null when they are pooled in titles. */
+    private final BinaryTodoFile file;
+    private final BitSet completed;
+    private final long[] idKey;
+    /** Rows with a standard id, ordered by key. */
+    private final int[] byKey;
+    private final Map<String, Integer> otherIdRows = new HashMap<>();
+    private final Map<Integer, String> otherIds = new HashMap<>();
+    /** Max end day per block, as a binary tree in heap order; leaves start at index leaves. */
+    private final int[] maxEnd;
+    private final int leaves;
+
+    /** Columns for items (distinct ids); item i gets insertion sequence i. */
+    static TodoColumns build(List<TodoItem> items) {
+        Builder rows = new Builder(items.size());
+        for (TodoItem item : items) rows.add(item);
+        return new TodoColumns(rows);
+    }
+
+    /**
+     * Columns for the records of file, built from its date, flag and id-key columns; no id or
+     * title is decoded unless the id is not a standard one. Duplicate ids fold as in
+     * {@link #build(Collection)}.
+     */
+    static TodoColumns of(BinaryTodoFile file) {
+        Builder rows = new Builder(file.size());
+        rows.file = file;
+        for (int record = 0; record < file.size(); record++) {
+            long key = file.idKey(record);
+            rows.put(record, file.startDay(record), file.endDay(record), record, file.isCompleted(record), key);
+            if (key == 0) rows.otherIds.put(record, file.id(record));
+            rows.size++;
+        }
+        return new TodoColumns(rows);
+    }
+
+    /**
+     * Columns for the rows of chunks, taken in order; each chunk is emptied as it is copied. When
+     * an id occurs more than once, its first row keeps its place and takes the last row's fields.
+     */
+    static TodoColumns build(Collection<Builder> chunks) {
+        if (chunks.size() == 1) return new TodoColumns(chunks.iterator().next());
+        int total = 0;
+        for (Builder chunk : chunks) total += chunk.size;
+        Builder rows = new Builder(total);
+        for (Builder chunk : chunks) rows.append(chunk);
+        return new TodoColumns(rows);
+    }
+
+    /**
+     * Rows appended one at a time into growable primitive arrays, with titles pooled as they
+     * come; the loaders fill one per parsed chunk so a file becomes columns without item objects.
+     */
+    static final class Builder implements TextTodoLoader.LineSink {
+        private int size;
+        private int[] start;
+        private int[] end;
+        private int[] titleRef;
+        private long[] idKey;
+        private BitSet completed = new BitSet();
+        /** Ids that are not in a standard form, by row. */
+        private Map<Integer, String> otherIds = new HashMap<>();
+        private Map<String, Integer> pool = new HashMap<>();
+        private String[] titles = new String[16];
+        /** Set by {@link #of}: titleRef then holds a record of this file rather than a pool index. */
+        private BinaryTodoFile file;
+
+        Builder(int expected) {
+            int capacity = Math.max(16, expected);
+            start = new int[capacity];
+            end = new int[capacity];
+            titleRef = new int[capacity];
+            idKey = new long[capacity];
+        }
+
+        void add(TodoItem item) {
+            add(item.getId(), (int) item.getDate().toEpochDay(), (int) item.getEndDate().toEpochDay(),
+                    item.getTitle(), item.isCompleted());
+        }
+
+        @Override
+        public void line(String id, LocalDate start, LocalDate end, String title, boolean completed) {
+            add(id, (int) start.toEpochDay(), (int) end.toEpochDay(), title, completed);
+        }
+
+        void add(String id, int startDay, int endDay, String title, boolean done) {
+            if (size == start.length) grow(size * 2);
+            long key = TodoIds.key(id);
+            put(size, startDay, endDay, intern(title), done, key);
+            if (key == 0) otherIds.put(size, id);
+            size++;
+        }
+
+        private void put(int row, int startDay, int endDay, int ref, boolean done, long key) {
+            start[row] = startDay;
+            end[row] = endDay;
+            titleRef[row] = ref;
+            completed.set(row, done);
+            idKey[row] = key;
+        }
+
+        private int intern(String title) {
+            Integer ref = pool.get(title);
+            if (ref != null) return ref;
+            ref = pool.size();
+            pool.put(title, ref);
+            if (ref == titles.length) titles = Arrays.copyOf(titles, ref * 2);
+            titles[ref] = title;
+            return ref;
+        }
+
+        private void grow(int capacity) {
+            start = Arrays.copyOf(start, capacity);
+            end = Arrays.copyOf(end, capacity);
+            titleRef = Arrays.copyOf(titleRef, capacity);
+            idKey = Arrays.copyOf(idKey, capacity);
+        }
+
+        /** Appends chunk's rows, then drops chunk's arrays. */
+        private void append(Builder chunk) {
+            if (size + chunk.size > start.length) grow(size + chunk.size);
+            int[] refs = new int[chunk.pool.size()];
+            for (int ref = 0; ref < refs.length; ref++) refs[ref] = intern(chunk.titles[ref]);
+            System.arraycopy(chunk.start, 0, start, size, chunk.size);
+            System.arraycopy(chunk.end, 0, end, size, chunk.size);
+            System.arraycopy(chunk.idKey, 0, idKey, size, chunk.size);
+            for (int row = 0; row < chunk.size; row++) titleRef[size + row] = refs[chunk.titleRef[row]];
+            for (int row = chunk.completed.nextSetBit(0); row >= 0; row = chunk.completed.nextSetBit(row + 1)) {
+                completed.set(size + row);
+            }
+            for (Map.Entry<Integer, String> e : chunk.otherIds.entrySet()) otherIds.put(size + e.getKey(), e.getValue());
+            size += chunk.size;
+            chunk.size = 0;
+            chunk.start = chunk.end = chunk.titleRef = null;
+            chunk.idKey = null;
+            chunk.completed = null;
+            chunk.otherIds = null;
+            chunk.pool = null;
+            chunk.titles = null;
+        }
+
+        /**
+         * Folds rows whose id occurred before into the first row with that id, then closes the
+         * gaps. keyedRows holds the rows with a standard id ordered by key, stably; it is
+         * renumbered to match and returned without the dropped rows.
+         */
+        private int[] dedupe(int[] keyedRows) {
+            BitSet dropped = new BitSet();
+            for (int i = 0, j; i < keyedRows.length; i = j) {
+                j = i + 1;
+                while (j < keyedRows.length && idKey[keyedRows[j]] == idKey[keyedRows[i]]) j++;
+                if (j - i > 1) {
+                    copyRow(keyedRows[j - 1], keyedRows[i]);
+                    for (int k = i + 1; k < j; k++) dropped.set(keyedRows[k]);
+                }
+            }
+            Map<String, Integer> firstRow = new HashMap<>();
+            for (Map.Entry<Integer, String> e : new TreeMap<>(otherIds).entrySet()) {
+                Integer first = firstRow.putIfAbsent(e.getValue(), e.getKey());
+                if (first != null) {
+                    copyRow(e.getKey(), first);
+                    dropped.set(e.getKey());
+                }
+            }
+            if (dropped.isEmpty()) return keyedRows;
+            int[] renumbered = new int[size];
+            int n = 0;
+            Map<Integer, String> others = new HashMap<>();
+            for (int row = 0; row < size; row++) {
+                if (dropped.get(row)) continue;
+                renumbered[row] = n;
+                put(n, start[row], end[row], titleRef[row], completed.get(row), idKey[row]);
+                String other = otherIds.get(row);
+                if (other != null) others.put(n, other);
+                n++;
+            }
+            size = n;
+            completed.clear(n, completed.length());
+            otherIds = others;
+            int[] kept = new int[keyedRows.length];
+            int k = 0;
+            for (int row : keyedRows) {
+                if (!dropped.get(row)) kept[k++] = renumbered[row];
+            }
+            return Arrays.copyOf(kept, k);
+        }
+
+        private void copyRow(int from, int to) {
+            put(to, start[from], end[from], titleRef[from], completed.get(from), idKey[from]);
+        }
+    }
+
+    private TodoColumns(Builder rows) {
+        int keyed = rows.size - rows.otherIds.size();
+        int[] keyedRows = new int[keyed];
+        int n = 0;
+        for (int i = 0; i < rows.size; i++) {
+            if (rows.idKey[i] != 0) keyedRows[n++] = i;
+        }
+        mergeSort(keyedRows, new int[keyed], rows.idKey, 0, keyed); // stable: duplicates stay in file order
+        keyedRows = rows.dedupe(keyedRows);
+
+        size = rows.size;
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) order[i] = ((long) rows.start[i] << 32) | i;
+        Arrays.sort(order); // by start day, then insertion order
+        start = new int[size];
+        end = new int[size];
+        seq = new int[size];
+        rowOfSeq = new int[size];
+        titleRef = new int[size];
+        completed = new BitSet(size);
+        idKey = new long[size];
+        for (int row = 0; row < size; row++) {
+            int i = (int) order[row];
+            start[row] = rows.start[i];
+            end[row] = rows.end[i];
+            seq[row] = i;
+            rowOfSeq[i] = row;
+            titleRef[row] = rows.titleRef[i];
+            if (rows.completed.get(i)) completed.set(row);
+            idKey[row] = rows.idKey[i];
+        }
+        for (Map.Entry<Integer, String> e : rows.otherIds.entrySet()) {
+            int row = rowOfSeq[e.getKey()];
+            otherIdRows.put(e.getValue(), row);
+            otherIds.put(row, e.getValue());
+        }
+        titles = Arrays.copyOf(rows.titles, rows.pool.size());
+        file = rows.file;
+
+        for (int k = 0; k < keyedRows.length; k++) keyedRows[k] = rowOfSeq[keyedRows[k]];
+        byKey = keyedRows;
+
+        int blocks = (size + BLOCK - 1) >>> BLOCK_SHIFT;
+        int l = 1;
+        while (l < blocks) l <<= 1;
+        leaves = l;
+        maxEnd = new int[2 * leaves];
+        Arrays.fill(maxEnd, Integer.MIN_VALUE);
+        for (int row = 0; row < size; row++) {
+            int leaf = leaves + (row >>> BLOCK_SHIFT);
+            if (end[row] > maxEnd[leaf]) maxEnd[leaf] = end[row];
+        }
+        for (int node = leaves - 1; node >= 1; node--) maxEnd[node] = Math.max(maxEnd[2 * node], maxEnd[2 * node + 1]);
+    }
+
+    /** Sorts a[from, to) by keys[a[i]]. */
+    private static void mergeSort(int[] a, int[] tmp, long[] keys, int from, int to) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        mergeSort(a, tmp, keys, from, mid);
+        mergeSort(a, tmp, keys, mid, to);
+        if (keys[a[mid - 1]] <= keys[a[mid]]) return;
+        System.arraycopy(a, from, tmp, from, to - from);
+        for (int i = from, j = mid, k = from; k < to; k++) {
+            if (j >= to || (i < mid && keys[tmp[i]] <= keys[tmp[j]])) a[k] = tmp[i++];
+            else a[k] = tmp[j++];
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int start(int row) {
+        return start[row];
+    }
+
+    int end(int row) {
+        return end[row];
+    }
+
+    int seq(int row) {
+        return seq[row];
+    }
+
+    int rowOfSeq(int seq) {
+        return rowOfSeq[seq];
+    }
+
+    boolean isCompleted(int row) {
+        return completed.get(row);
+    }
+
+    @Override
+    public String id(int row) {
+        long key = idKey[row];
+        return key != 0 ? TodoIds.id(key) : otherIds.get(row);
+    }
+
+    @Override
+    public String title(int row) {
+        return file != null ? file.title(titleRef[row]) : titles[titleRef[row]];
+    }
+
+    /** A new view of row. */
+    TodoItem item(int row) {
+        LocalDate s = LocalDate.ofEpochDay(start[row]);
+        LocalDate e = end[row] == start[row] ? s : LocalDate.ofEpochDay(end[row]);
+        return new TodoItem(this, row, s, e, completed.get(row));
+    }
+
+    /** Row holding id, or -1. */
+    int rowOf(String id) {
+        long key = TodoIds.key(id);
+        if (key == 0) {
+            Integer row = otherIdRows.get(id);
+            return row == null ? -1 : row;
+        }
+        int lo = 0;
+        int hi = byKey.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long k = idKey[byKey[mid]];
+            if (k < key) lo = mid + 1;
+            else if (k > key) hi = mid - 1;
+            else return byKey[mid];
+        }
+        return -1;
+    }
+
+    /** Calls visitor with every row whose range overlaps [from, to] (epoch days), in row order. */
+    void forEachOverlapping(long from, long to, IntConsumer visitor) {
+        if (size == 0 || to < start[0]) return;
+        int limit = upperBound(to); // rows [0, limit) start on or before to
+        int lastBlock = (limit - 1) >>> BLOCK_SHIFT;
+        visit(1, 0, leaves - 1, lastBlock, limit, from, visitor);
+    }
+
+    private void visit(int node, int lo, int hi, int lastBlock, int limit, long from, IntConsumer visitor) {
+        if (lo > lastBlock || maxEnd[node] < from) return;
+        if (node >= leaves) {
+            int first = lo << BLOCK_SHIFT;
+            int last = Math.min(first + BLOCK, limit);
+            for (int row = first; row < last; row++) {
+                if (end[row] >= from) visitor.accept(row);
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        visit(2 * node, lo, mid, lastBlock, limit, from, visitor);
+        visit(2 * node + 1, mid + 1, hi, lastBlock, limit, from, visitor);
+    }
+
+    /** First row whose start is after day. */
+    private int upperBound(long day) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (start[mid] <= day) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
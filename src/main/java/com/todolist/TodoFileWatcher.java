@@ -0,0 +1,81 @@
+package com.todolist;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches the directory of a store's files with a {@link WatchService} and runs a reload when
+ * one of them is created or modified, e.g. by another instance, a sync tool or a restore.
+ * Bursts of events (a temp file written and moved into place, a journal appended twice) are
+ * coalesced: the reload runs once the files have been quiet for the debounce window. Failures
+ * go to an error callback on the watcher thread.
+ */
+final class TodoFileWatcher implements AutoCloseable {
+    interface ReloadAction {
+        void reload() throws Exception;
+    }
+
+    private final WatchService watcher;
+    private final Set<Path> names;
+    private final ReloadAction action;
+    private final long debounceMillis;
+    private final Consumer<Exception> onError;
+    private final Thread thread;
+
+    /** Watches dir for changes to the files called names (file names only, no directories). */
+    TodoFileWatcher(Path dir, Set<Path> names, ReloadAction action, long debounceMillis,
+                    Consumer<Exception> onError) throws IOException {
+        this.names = names;
+        this.action = action;
+        this.debounceMillis = debounceMillis;
+        this.onError = onError;
+        this.watcher = FileSystems.getDefault().newWatchService();
+        dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        thread = new Thread(this::run, "todo-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                if (!relevant(watcher.take())) continue;
+                // Wait until the directory has been quiet for the debounce window.
+                WatchKey key;
+                while ((key = watcher.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) relevant(key);
+                try {
+                    action.reload();
+                } catch (Exception e) {
+                    onError.accept(e);
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // closed
+        }
+    }
+
+    /** Drains key's events and re-arms it; true if any concerned a watched file. */
+    private boolean relevant(WatchKey key) {
+        boolean hit = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            hit |= event.kind() == StandardWatchEventKinds.OVERFLOW || (context instanceof Path && names.contains(context));
+        }
+        key.reset();
+        return hit;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watcher.close();
+    }
+}
@@ -0,0 +1,42 @@
+package com.todolist;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * A streaming interchange format for todos. Readers hand each item to a sink as soon as it is
+ * parsed and keep no more than the current entry in memory; writers emit one item at a time.
+ */
+interface TodoFormat {
+    /** Parses in and passes every usable entry to sink. Returns the number of entries skipped. */
+    long read(Reader in, Consumer<TodoItem> sink) throws IOException;
+
+    void write(Writer out, Iterable<TodoItem> items) throws IOException;
+
+    /** Picks the format from the file extension: .ics or .csv. */
+    static TodoFormat forFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".ics") || name.endsWith(".ical")) return new IcsTodoFormat();
+        if (name.endsWith(".csv")) return new CsvTodoFormat();
+        throw new IllegalArgumentException("Unknown file type (expected .ics or .csv): " + file);
+    }
+
+    /**
+     * A store id for a foreign identifier: kept if it already is a store id (a file exported by
+     * this app), otherwise a stable 63-bit hash of it in the standard id form, so importing the
+     * same file twice updates rather than duplicates items.
+     */
+    static String importId(String foreignId) {
+        if (foreignId == null || foreignId.isBlank()) return TodoStore.generateId();
+        String id = foreignId.trim();
+        if (TodoIds.key(id) != 0) return id;
+        long hash = UUID.nameUUIDFromBytes(id.getBytes(StandardCharsets.UTF_8)).getMostSignificantBits() & Long.MAX_VALUE;
+        return TodoIds.format(hash == 0 ? 1 : hash);
+    }
+}
@@ -0,0 +1,117 @@
+package com.todolist;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Item ids and the long keys the store indexes them by.
+ * <p>
+ * New ids are time-ordered 63-bit values: milliseconds since 2024-01-01 (41 bits) and a
+ * 22-bit sequence that starts at a random value below 2^21 in each new millisecond and counts
+ * up from there. Two processes taking ids in the same millisecond only collide if their runs
+ * overlap, one chance in 2^21 for one id each. The generator is a single CAS and never repeats
+ * within a process; when the sequence is used up it runs ahead of the clock instead of
+ * wrapping. The string form is the value in base 32, zero-padded to 13 characters, so string
+ * order is creation order.
+ * <p>
+ * Older files use 12 hex digits; those map to the negative range {@code Long.MIN_VALUE + value}
+ * so they can never meet a new id. Any other string is not a standard id ({@link #key} returns 0)
+ * and the store assigns it a key of its own.
+ */
+final class TodoIds {
+    static final int LENGTH = 13;
+    private static final int LEGACY_LENGTH = 12;
+    private static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    private static final int SEQUENCE_BITS = 22;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    /** Bound of a millisecond's random first sequence; leaves at least 2^21 ids before running ahead. */
+    private static final long START_BOUND = 1L << (SEQUENCE_BITS - 1);
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private TodoIds() {
+    }
+
+    /** A new id's key; always positive and greater than every key returned before. */
+    static long nextKey() {
+        while (true) {
+            long prev = LAST.get();
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long prevMillis = prev >>> SEQUENCE_BITS;
+            long next;
+            if (now > prevMillis) next = firstOf(now);
+            else if ((prev & SEQUENCE_MASK) < SEQUENCE_MASK) next = prev + 1;
+            else next = firstOf(prevMillis + 1);
+            if (LAST.compareAndSet(prev, next)) return next;
+        }
+    }
+
+    private static long firstOf(long millis) {
+        return (millis << SEQUENCE_BITS) | ThreadLocalRandom.current().nextLong(START_BOUND);
+    }
+
+    static String next() {
+        return format(nextKey());
+    }
+
+    /** The 13-character form of a non-negative key. */
+    static String format(long key) {
+        char[] out = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            out[i] = Character.forDigit((int) (key & 31), 32);
+            key >>>= 5;
+        }
+        return new String(out);
+    }
+
+    /** String form of a key from {@link #key}: 13 base-32 digits, or 12 hex digits for a legacy id. */
+    static String id(long key) {
+        if (key >= 0) return format(key);
+        String hex = Long.toHexString(key - Long.MIN_VALUE);
+        return "000000000000".substring(hex.length()) + hex;
+    }
+
+    /** Key of a standard id (13 base-32 or 12 hex digits, lower case), or 0 for any other string. */
+    static long key(String id) {
+        return key(id.length(), id::charAt);
+    }
+
+    /** {@link #key(String)} of the id whose UTF-8 bytes are buf[pos, pos + len), without decoding it. */
+    static long key(ByteBuffer buf, int pos, int len) {
+        return key(len, i -> buf.get(pos + i));
+    }
+
+    /** Key of the n characters charAt gives; a standard id is ASCII, so bytes serve as well. */
+    private static long key(int n, IntUnaryOperator charAt) {
+        if (n == LENGTH) {
+            if (charAt.applyAsInt(0) > '7') return 0; // would not fit in 63 bits
+            long v = 0;
+            for (int i = 0; i < n; i++) {
+                int d = digit(charAt.applyAsInt(i), 32);
+                if (d < 0) return 0;
+                v = (v << 5) | d;
+            }
+            return v;
+        }
+        if (n == LEGACY_LENGTH) {
+            long v = 0;
+            for (int i = 0; i < n; i++) {
+                int d = digit(charAt.applyAsInt(i), 16);
+                if (d < 0) return 0;
+                v = (v << 4) | d;
+            }
+            return Long.MIN_VALUE + v;
+        }
+        return 0;
+    }
+
+    /** Lower-case digits only, so every key has exactly one string form. */
+    private static int digit(int c, int radix) {
+        int d;
+        if (c >= '0' && c <= '9') d = c - '0';
+        else if (c >= 'a' && c <= 'z') d = c - 'a' + 10;
+        else return -1;
+        return d < radix ? d : -1;
+    }
+}
@@ -7,14 +7,30 @@ import java.util.Objects;
  * A single todo item with a date (and optional end date for multi-day tasks),
  * title, and completion status. For multi-day tasks, completing the item marks
  * the whole range as completed.
+ * <p>
+ * Items are immutable versions: {@link #withCompleted} and {@link #withTitle} return a new
+ * version with the same id, which {@link TodoStore} swaps in. That lets store snapshots be read
+ * from other threads while the UI keeps editing.
  */
 public class TodoItem {
-    private final String id;
+    /** Null until first read when the item is a view of a {@link Source} record. */
+    private volatile String id;
     private final LocalDate date;
     /** End date (inclusive). If null or equals date, single-day task. */
     private final LocalDate endDate;
-    private String title;
-    private boolean completed;
+    /** Null until first read when the item is a view of a {@link Source} record. */
+    private volatile String title;
+    private final boolean completed;
+    /** Record the id and title are read from on demand; null for regular items. */
+    private final Source source;
+    private final int record;
+
+    /** Storage that items can be views of: a binary file read on load or {@link TodoColumns}. */
+    interface Source {
+        String id(int record);
+
+        String title(int record);
+    }
 
     /** Single-day task. */
     public TodoItem(String id, LocalDate date, String title, boolean completed) {
@@ -29,16 +45,47 @@ public class TodoItem {
         if (this.endDate.isBefore(this.date)) throw new IllegalArgumentException("endDate must be >= date");
         this.title = title != null ? title : "";
         this.completed = completed;
+        this.source = null;
+        this.record = -1;
     }
 
-    public String getId() { return id; }
+    /** View of a record of source; the id and title are read when first asked for. */
+    TodoItem(Source source, int record, LocalDate date, LocalDate endDate, boolean completed) {
+        this.source = Objects.requireNonNull(source);
+        this.record = record;
+        this.date = date;
+        this.endDate = endDate;
+        this.completed = completed;
+    }
+
+    /** The source this item is a view of, or null. */
+    Source source() { return source; }
+    int record() { return record; }
+
+    public String getId() {
+        if (id == null) id = source.id(record);
+        return id;
+    }
     public LocalDate getDate() { return date; }
     /** End date (inclusive). Same as getDate() for single-day tasks. */
     public LocalDate getEndDate() { return endDate; }
     /** True if this task spans more than one day. */
     public boolean isMultiDay() { return !endDate.equals(date); }
-    public String getTitle() { return title; }
-    public void setTitle(String title) { this.title = title != null ? title : ""; }
+    public String getTitle() {
+        if (title == null) title = source.title(record);
+        return title;
+    }
     public boolean isCompleted() { return completed; }
-    public void setCompleted(boolean completed) { this.completed = completed; }
+
+    /** This item with a different completion state (same id and dates). */
+    public TodoItem withCompleted(boolean completed) {
+        if (completed == this.completed) return this;
+        return new TodoItem(getId(), date, endDate, getTitle(), completed);
+    }
+
+    /** This item with a different title (same id and dates). */
+    public TodoItem withTitle(String title) {
+        if ((title != null ? title : "").equals(getTitle())) return this;
+        return new TodoItem(getId(), date, endDate, title, completed);
+    }
 }
@@ -0,0 +1,281 @@
+package com.todolist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Append-only change log kept next to the todos.txt snapshot.
+ * Each record is one line: {@code A|<item line>} (add), {@code U|<item line>} (update) or
+ * {@code R|<id>} (remove). A batch is written as {@code T|<n>}, its n records and an
+ * {@code E|<n>} end marker, and is replayed only if all n made it to disk; the end marker closes
+ * the group, so records appended after it can never be counted into it. Records are
+ * last-writer-wins per id, so replaying a record that is already reflected in the snapshot is
+ * harmless; that is what makes compaction crash-safe.
+ * <p>
+ * Compaction runs on a background thread: it writes a fresh snapshot to a temp file, moves it
+ * over the old one, then rewrites the log with only the records appended after the snapshot was
+ * taken. A crash at any step leaves a snapshot plus a log that replays to the same state.
+ * <p>
+ * Several stores may share the files. Every append goes to the current end of the log, and a
+ * log that another store compacted (moved a new file over) is reopened before the next append,
+ * so nothing is written to an unlinked file. The cut of a torn tail found by replay is only
+ * made while the log still has the length replay saw; records that others appended since are
+ * never cut.
+ */
+final class TodoJournal {
+    static final char ADD = 'A';
+    static final char UPDATE = 'U';
+    static final char REMOVE = 'R';
+    static final char BATCH = 'T';
+    static final char END = 'E';
+
+    private static final long DEFAULT_MAX_BYTES = 1 << 20;
+    private static final int DEFAULT_MAX_RECORDS = 5000;
+
+    /** Writes a complete, durable snapshot of the given items over the snapshot file. */
+    interface SnapshotWriter {
+        void write(List<TodoItem> items) throws IOException;
+    }
+
+    private final SnapshotWriter snapshotWriter;
+    private final Path journalPath;
+    private final long maxBytes;
+    private final int maxRecords;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "todo-journal-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private FileChannel channel;
+    /** File key of the log the channel has open, or null where the platform has none. */
+    private Object channelKey;
+    private int records;
+    /** Length of the complete records found by the last replay; the file is cut back to it before appending. */
+    private long validLength = -1;
+    /** Length of the log when the last replay read it; validLength only applies while it still has it. */
+    private long replayedLength = -1;
+    /** Offsets of an append of ours that failed part way; cut before the next one if nothing followed it. */
+    private long tornFrom = -1;
+    private long tornTo = -1;
+    private boolean compacting;
+
+    TodoJournal(Path snapshotPath, SnapshotWriter snapshotWriter) {
+        this(snapshotPath, snapshotWriter, DEFAULT_MAX_BYTES, DEFAULT_MAX_RECORDS);
+    }
+
+    TodoJournal(Path snapshotPath, SnapshotWriter snapshotWriter, long maxBytes, int maxRecords) {
+        this.snapshotWriter = snapshotWriter;
+        this.journalPath = journalPathFor(snapshotPath);
+        this.maxBytes = maxBytes;
+        this.maxRecords = maxRecords;
+    }
+
+    static Path journalPathFor(Path snapshotPath) {
+        return snapshotPath.resolveSibling(snapshotPath.getFileName() + ".journal");
+    }
+
+    Path getJournalPath() {
+        return journalPath;
+    }
+
+    /**
+     * Feeds each complete record line to the consumer. A torn last line (crash mid-append) is
+     * skipped, and so is a batch whose records did not all reach the disk; both are cut off the
+     * file before the next append (unless it has grown since), so later records start on a line
+     * of their own and outside any group. Groups written before end markers existed are applied once all n records are in.
+     */
+    synchronized void replay(Consumer<String> consumer) throws IOException {
+        records = 0;
+        validLength = -1;
+        replayedLength = -1;
+        if (!Files.exists(journalPath)) return;
+        byte[] bytes = Files.readAllBytes(journalPath);
+        replayedLength = bytes.length;
+        List<String> batch = new ArrayList<>();
+        int batchSize = 0;
+        int batchStart = 0;
+        int start = 0;
+        for (int nl = 0; nl < bytes.length; nl++) {
+            if (bytes[nl] != '\n') continue;
+            int lineStart = start;
+            String line = new String(bytes, start, nl - start, StandardCharsets.UTF_8).trim();
+            start = nl + 1;
+            if (line.length() < 2 || line.charAt(1) != '|') continue;
+            records++;
+            char type = line.charAt(0);
+            if (batchSize > 0 && batch.size() == batchSize) {
+                batch.forEach(consumer);
+                batch.clear();
+                batchSize = 0;
+                if (type == END) continue;
+            }
+            if (type == BATCH) {
+                batch.clear();
+                batchSize = count(line);
+                batchStart = lineStart;
+            } else if (type == END) {
+                batch.clear();
+                batchSize = 0;
+            } else if (batchSize > 0) {
+                batch.add(line);
+            } else {
+                consumer.accept(line);
+            }
+        }
+        if (batchSize > 0 && batch.size() == batchSize) {
+            batch.forEach(consumer);
+        } else if (batchSize > 0) {
+            start = batchStart;
+        }
+        validLength = start;
+    }
+
+    private static int count(String line) {
+        try {
+            return Integer.parseInt(line.substring(2));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /** Group commit: appends all records with a single write and a single fsync. Returns the bytes written. */
+    synchronized long append(List<String> lines) throws IOException {
+        if (lines.isEmpty()) return 0;
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) sb.append(line).append('\n');
+        ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+        FileChannel ch = channel();
+        long start = ch.size(); // another store may have appended since our last write
+        if (tornFrom >= 0 && start == tornTo) {
+            ch.truncate(tornFrom);
+            start = tornFrom;
+        }
+        tornFrom = -1;
+        ch.position(start);
+        try {
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(false);
+        } catch (IOException e) {
+            try {
+                tornTo = ch.size();
+                tornFrom = start;
+            } catch (IOException again) {
+                e.addSuppressed(again);
+            }
+            throw e;
+        }
+        records += lines.size();
+        return buf.limit();
+    }
+
+    synchronized boolean needsCompaction() throws IOException {
+        return !compacting && (records >= maxRecords || channel().size() >= maxBytes);
+    }
+
+    /**
+     * Compacts in the background. The snapshot supplier is called while appends are blocked,
+     * so everything logged up to that point is covered by the snapshot.
+     */
+    synchronized void compactAsync(Supplier<List<TodoItem>> snapshot, Consumer<IOException> onError) {
+        if (compacting) return;
+        compacting = true;
+        final long mark;
+        final List<TodoItem> items;
+        try {
+            mark = channel().size();
+            items = snapshot.get();
+        } catch (IOException e) {
+            compacting = false;
+            onError.accept(e);
+            return;
+        }
+        compactor.execute(() -> {
+            try {
+                compact(items, mark);
+            } catch (IOException e) {
+                onError.accept(e);
+            } finally {
+                synchronized (this) {
+                    compacting = false;
+                }
+            }
+        });
+    }
+
+    private void compact(List<TodoItem> items, long mark) throws IOException {
+        snapshotWriter.write(items);
+
+        synchronized (this) {
+            FileChannel ch = channel();
+            long size = ch.size();
+            ByteBuffer tail = ByteBuffer.allocate((int) (size - mark));
+            while (tail.hasRemaining() && ch.read(tail, mark + tail.position()) >= 0) { }
+            tail.flip();
+            Path journalTmp = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(journalTmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (tail.hasRemaining()) out.write(tail);
+                out.force(true);
+            }
+            ch.close();
+            channel = null;
+            TodoStore.replaceFile(journalTmp, journalPath);
+            records = 0;
+        }
+    }
+
+    synchronized void close() throws IOException {
+        compactor.shutdown();
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel != null && replaced()) {
+            channel.close();
+            channel = null;
+            tornFrom = -1;
+        }
+        if (channel == null) {
+            Path dir = journalPath.getParent();
+            if (dir != null && !Files.exists(dir)) Files.createDirectories(dir);
+            channel = FileChannel.open(journalPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.READ);
+            channelKey = Files.readAttributes(journalPath, BasicFileAttributes.class).fileKey();
+            long size = channel.size();
+            if (validLength >= 0 && size == replayedLength && size > validLength) {
+                channel.truncate(validLength);
+                channel.force(false);
+            }
+            validLength = -1;
+            replayedLength = -1;
+            channel.position(channel.size());
+        }
+        return channel;
+    }
+
+    /** True if the path no longer names the open log: another store compacted or removed it. */
+    private boolean replaced() throws IOException {
+        BasicFileAttributes a;
+        try {
+            a = Files.readAttributes(journalPath, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return true;
+        }
+        Object key = a.fileKey();
+        return key != null ? !key.equals(channelKey) : a.size() != channel.size();
+    }
+}
@@ -0,0 +1,128 @@
+package com.todolist;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Operation timers, byte and item counts, and EDT stalls for one {@link TodoStore}. Callers
+ * keep the {@link LatencyTimer} they record into, so recording costs two clock reads and a few
+ * atomic increments. Exposed through JMX with {@link #register()} and, optionally, written to
+ * stderr every few seconds with {@link #startLogging(long)}.
+ */
+public final class TodoMetrics implements TodoMetricsMXBean {
+    static final String OBJECT_NAME = "com.todolist:type=TodoMetrics";
+    private static final int MAX_STALLS = 20;
+
+    private final Map<String, LatencyTimer> timers = new ConcurrentSkipListMap<>();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder stallCount = new LongAdder();
+    /** Newest first; guarded by itself. */
+    private final Deque<String> stalls = new ArrayDeque<>();
+    private final LongSupplier itemCount;
+    private ScheduledExecutorService logger;
+
+    TodoMetrics(LongSupplier itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    /** The timer with this name, created on first use. */
+    LatencyTimer timer(String name) {
+        return timers.computeIfAbsent(name, LatencyTimer::new);
+    }
+
+    void addBytesWritten(long bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    void recordStall(String description) {
+        stallCount.increment();
+        synchronized (stalls) {
+            stalls.addFirst(description);
+            while (stalls.size() > MAX_STALLS) stalls.removeLast();
+        }
+    }
+
+    /** Registers this as the platform MBean {@code com.todolist:type=TodoMetrics}, replacing an earlier one. */
+    public void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (server.isRegistered(name)) server.unregisterMBean(name);
+        server.registerMBean(this, name);
+    }
+
+    /** Writes {@link #summary()} to stderr every periodSeconds on a daemon thread. */
+    public synchronized void startLogging(long periodSeconds) {
+        if (logger != null || periodSeconds <= 0) return;
+        logger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "todo-metrics-log");
+            t.setDaemon(true);
+            return t;
+        });
+        logger.scheduleAtFixedRate(() -> System.err.print(summary()), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public long getItemCount() {
+        return itemCount.getAsLong();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public List<TimerStats> getTimers() {
+        List<TimerStats> out = new ArrayList<>(timers.size());
+        for (LatencyTimer t : timers.values()) out.add(t.stats());
+        return out;
+    }
+
+    @Override
+    public long getEdtStallCount() {
+        return stallCount.sum();
+    }
+
+    @Override
+    public List<String> getRecentEdtStalls() {
+        synchronized (stalls) {
+            return new ArrayList<>(stalls);
+        }
+    }
+
+    @Override
+    public String summary() {
+        StringBuilder sb = new StringBuilder("todo metrics: items=").append(getItemCount())
+                .append(" bytesWritten=").append(getBytesWritten())
+                .append(" edtStalls=").append(getEdtStallCount()).append('\n');
+        for (TimerStats s : getTimers()) {
+            if (s.getCount() > 0) sb.append("  ").append(s).append('\n');
+        }
+        List<String> recent = getRecentEdtStalls();
+        if (!recent.isEmpty()) sb.append("  last stall: ").append(recent.get(0).replace("\n", "\n    ")).append('\n');
+        return sb.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyTimer t : timers.values()) t.reset();
+        bytesWritten.reset();
+        stallCount.reset();
+        synchronized (stalls) {
+            stalls.clear();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.todolist;
+
+import java.util.List;
+
+/**
+ * Management interface of {@link TodoMetrics}, registered as
+ * {@code com.todolist:type=TodoMetrics} in the platform MBean server.
+ */
+public interface TodoMetricsMXBean {
+    /** Items currently in memory. */
+    long getItemCount();
+
+    /** Bytes written by saves, journal appends and compactions since start or the last reset. */
+    long getBytesWritten();
+
+    /** Store operations and UI paths, one entry per timer. */
+    List<TimerStats> getTimers();
+
+    /** Event-dispatch stalls longer than the watchdog threshold since start or the last reset. */
+    long getEdtStallCount();
+
+    /** The most recent stalls, newest first, each with its duration, event and stack samples. */
+    List<String> getRecentEdtStalls();
+
+    /** Text dump of everything above, as written by the periodic log. */
+    String summary();
+
+    void reset();
+}
@@ -0,0 +1,54 @@
+package com.todolist;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Where a {@link TodoStore} created with {@link TodoStore#TodoStore(TodoRepository)} keeps its
+ * items and recurring series. The store still answers queries from memory; a repository is read
+ * once by {@link TodoStore#load()} and then handed the ids that changed on every save, so a
+ * backend can write just those rows or rewrite everything, whichever suits it.
+ * <p>
+ * Backends are found by name through {@link TodoRepositoryProvider}s on the class path (see
+ * {@link #open}); "memory", "file" and "jdbc" are built in. Methods may be called from any
+ * thread; the store never runs two saves at once.
+ */
+public interface TodoRepository extends AutoCloseable {
+    /** Every stored item, in the order they were first saved. */
+    List<TodoItem> loadItems() throws IOException;
+
+    /** Every stored recurring series. */
+    List<Recurrence> loadRecurring() throws IOException;
+
+    /** Stored items overlapping [from, to] (inclusive), ordered by start day; as of the last save. */
+    List<TodoItem> findInRange(LocalDate from, LocalDate to) throws IOException;
+
+    /**
+     * Persists the store as of current: changed holds the current version of every item added or
+     * changed since the last save, removedIds the ids removed since then, and the series are
+     * {@code current.getRecurring()} when recurringChanged. When this throws, the same changes
+     * (merged with later ones) are passed again on the next save, so storing them twice must be
+     * harmless.
+     */
+    void save(TodoSnapshot current, Collection<TodoItem> changed, Collection<String> removedIds,
+              boolean recurringChanged) throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    /**
+     * The repository of the provider called name, for location (a path, URL or whatever that
+     * backend takes; null for its default under dir). Throws IllegalArgumentException if
+     * no provider on the class path has that name.
+     */
+    static TodoRepository open(String name, String location, Path dir) {
+        for (TodoRepositoryProvider provider : ServiceLoader.load(TodoRepositoryProvider.class)) {
+            if (provider.name().equals(name)) return provider.create(location, dir);
+        }
+        throw new IllegalArgumentException("No todo repository called " + name);
+    }
+}
@@ -0,0 +1,19 @@
+package com.todolist;
+
+import java.nio.file.Path;
+
+/**
+ * A named kind of {@link TodoRepository}, registered in
+ * {@code META-INF/services/com.todolist.TodoRepositoryProvider} so {@link TodoRepository#open}
+ * finds it; implementations need a public no-argument constructor.
+ */
+public interface TodoRepositoryProvider {
+    /** The name it is selected by, e.g. with -Dtodolist.repository. */
+    String name();
+
+    /**
+     * A repository for location, or for this backend's default under dir when location is null.
+     * Should not touch storage yet; that happens on the first load or save.
+     */
+    TodoRepository create(String location, Path dir);
+}
@@ -0,0 +1,132 @@
+package com.todolist;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Search-as-you-type field for todo titles. Matches from {@link TodoStore#search} are listed in
+ * a popup under the field with their dates; Up/Down move through them, Enter or a click picks
+ * one and Escape closes the list. Over a segmented store, whose search only covers the months
+ * in memory, the placeholder, tooltip and a line under the results say so.
+ */
+public class TodoSearchField extends JTextField {
+    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("MMM d, yyyy");
+    private static final int MAX_RESULTS = 50;
+
+    private final TodoStore store;
+    private final DefaultListModel<TodoItem> results = new DefaultListModel<>();
+    private final JList<TodoItem> list = new JList<>(results);
+    private final JPopupMenu popup = new JPopupMenu();
+    private Consumer<TodoItem> onSelect;
+
+    public TodoSearchField(TodoStore store) {
+        super(18);
+        this.store = store;
+        boolean partial = store.searchesLoadedMonthsOnly();
+        putClientProperty("JTextField.placeholderText", partial ? "Search nearby months" : "Search todos");
+        setToolTipText(partial ? "Search todo titles in the months loaded around the one shown" : "Search todo titles");
+
+        list.setFocusable(false);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> l, Object value, int index,
+                                                          boolean selected, boolean focus) {
+                TodoItem item = (TodoItem) value;
+                String dates = item.isMultiDay()
+                        ? item.getDate().format(DATE_FMT) + " – " + item.getEndDate().format(DATE_FMT)
+                        : item.getDate().format(DATE_FMT);
+                String text = (item.isCompleted() ? "✓ " : "") + item.getTitle() + "   (" + dates + ")";
+                return super.getListCellRendererComponent(l, text, index, selected, focus);
+            }
+        });
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int i = list.locationToIndex(e.getPoint());
+                if (i >= 0) pick(results.get(i));
+            }
+        });
+        JScrollPane scroll = new JScrollPane(list);
+        scroll.setBorder(null);
+        popup.setFocusable(false);
+        popup.setLayout(new BorderLayout());
+        popup.add(scroll, BorderLayout.CENTER);
+        if (partial) {
+            JLabel scope = new JLabel("Only months near the one shown are searched");
+            scope.setFont(scope.getFont().deriveFont(Font.ITALIC, scope.getFont().getSize2D() - 1f));
+            scope.setForeground(Color.GRAY);
+            scope.setBorder(BorderFactory.createEmptyBorder(3, 6, 3, 6));
+            popup.add(scope, BorderLayout.SOUTH);
+        }
+
+        getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { updateResults(); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { updateResults(); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { updateResults(); }
+        });
+        bind(KeyEvent.VK_DOWN, "searchNext", () -> moveSelection(1));
+        bind(KeyEvent.VK_UP, "searchPrevious", () -> moveSelection(-1));
+        bind(KeyEvent.VK_ESCAPE, "searchClose", () -> popup.setVisible(false));
+        addActionListener(e -> {
+            TodoItem item = list.getSelectedValue();
+            if (item == null && !results.isEmpty()) item = results.get(0);
+            if (item != null) pick(item);
+        });
+    }
+
+    /** Called with the item the user picked. */
+    public void setOnSelect(Consumer<TodoItem> onSelect) {
+        this.onSelect = onSelect;
+    }
+
+    private void bind(int key, String name, Runnable action) {
+        getInputMap().put(KeyStroke.getKeyStroke(key, 0), name);
+        getActionMap().put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                action.run();
+            }
+        });
+    }
+
+    private void updateResults() {
+        List<TodoItem> found = store.search(getText(), MAX_RESULTS);
+        results.clear();
+        results.addAll(found);
+        if (found.isEmpty()) {
+            popup.setVisible(false);
+            return;
+        }
+        list.setSelectedIndex(0);
+        list.setVisibleRowCount(Math.min(found.size(), 10));
+        popup.pack();
+        popup.setPopupSize(Math.max(getWidth(), popup.getPreferredSize().width), popup.getPreferredSize().height);
+        if (isShowing()) popup.show(this, 0, getHeight());
+    }
+
+    private void moveSelection(int delta) {
+        if (results.isEmpty()) return;
+        if (!popup.isVisible() && isShowing()) popup.show(this, 0, getHeight());
+        int i = Math.max(0, Math.min(results.size() - 1, list.getSelectedIndex() + delta));
+        list.setSelectedIndex(i);
+        list.ensureIndexIsVisible(i);
+    }
+
+    private void pick(TodoItem item) {
+        popup.setVisible(false);
+        if (onSelect != null) onSelect.accept(item);
+    }
+}
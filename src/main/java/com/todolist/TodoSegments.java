@@ -0,0 +1,202 @@
+package com.todolist;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Month-partitioned storage directory. An item whose start and end fall in the same month lives
+ * in that month's segment, {@code yyyy-MM.txt}; items crossing a month boundary live in
+ * {@code spanning.txt}, which is small and always loaded. Segments use the todos.txt line format;
+ * cold segments (ending more than compressAfterMonths months ago) are written gzipped as
+ * {@code yyyy-MM.txt.gz}.
+ * <p>
+ * {@code manifest.txt} lists one {@code yyyy-MM|count} line per segment so the store knows
+ * which months exist without opening them. Files are written to a temp file, fsynced and moved
+ * into place, then the manifest is replaced. Segment files the manifest does not list yet (a
+ * crash before the manifest was written) are picked up when the directory is opened; when a
+ * month has both a plain and a gzipped file, the newer one wins.
+ */
+final class TodoSegments {
+    private static final String MANIFEST = "manifest.txt";
+    private static final String SPANNING = "spanning.txt";
+    private static final String PLAIN = ".txt";
+    private static final String GZIP = ".txt.gz";
+
+    private final Path dir;
+    /** 0 disables compression. */
+    private final int compressAfterMonths;
+    /** Item count per segment month as last written; -1 for a file not yet in the manifest. */
+    private final NavigableMap<YearMonth, Integer> months = new TreeMap<>();
+    private boolean opened;
+
+    TodoSegments(Path dir, int compressAfterMonths) {
+        this.dir = dir;
+        this.compressAfterMonths = compressAfterMonths;
+    }
+
+    Path getDirectory() {
+        return dir;
+    }
+
+    /** The segment an item is stored in, or null for an item spanning months. */
+    static YearMonth homeOf(TodoItem item) {
+        YearMonth start = YearMonth.from(item.getDate());
+        return item.getEndDate().getYear() == start.getYear()
+                && item.getEndDate().getMonthValue() == start.getMonthValue() ? start : null;
+    }
+
+    /** True if the directory has been written as segments before. */
+    boolean exists() {
+        return Files.exists(dir.resolve(MANIFEST));
+    }
+
+    /** Reads the manifest and picks up any segment files it is missing. */
+    synchronized void open() throws IOException {
+        months.clear();
+        opened = true;
+        Path manifest = dir.resolve(MANIFEST);
+        if (Files.exists(manifest)) {
+            for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                int bar = line.indexOf('|');
+                if (bar < 0) continue;
+                try {
+                    months.put(YearMonth.parse(line.substring(0, bar)), Integer.parseInt(line.substring(bar + 1).trim()));
+                } catch (DateTimeParseException | NumberFormatException e) {
+                    // ignore a damaged line; the directory scan below still finds the file
+                }
+            }
+        }
+        if (!Files.isDirectory(dir)) return;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "????-??.txt*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(PLAIN) && !name.endsWith(GZIP)) continue;
+                try {
+                    months.putIfAbsent(YearMonth.parse(name.substring(0, 7)), -1);
+                } catch (DateTimeParseException e) {
+                    // not a segment
+                }
+            }
+        }
+    }
+
+    /** Months that have a segment, in order. */
+    synchronized NavigableSet<YearMonth> months() throws IOException {
+        if (!opened) open();
+        return new TreeSet<>(months.keySet());
+    }
+
+    synchronized List<TodoItem> readSegment(YearMonth month) throws IOException {
+        Path file = current(month);
+        return file == null ? List.of() : read(file);
+    }
+
+    synchronized List<TodoItem> readSpanning() throws IOException {
+        Path file = dir.resolve(SPANNING);
+        return Files.exists(file) ? read(file) : List.of();
+    }
+
+    /**
+     * Rewrites the given segments (an empty list deletes the segment) and, if spanning is not
+     * null, the spanning file; then compresses any plain segment that has gone cold and
+     * replaces the manifest. Returns the bytes written.
+     */
+    synchronized long write(Map<YearMonth, List<TodoItem>> segments, List<TodoItem> spanning) throws IOException {
+        if (!opened) open();
+        long bytes = 0;
+        Files.createDirectories(dir);
+        List<Path> obsolete = new ArrayList<>();
+        for (Map.Entry<YearMonth, List<TodoItem>> e : segments.entrySet()) {
+            YearMonth month = e.getKey();
+            Path plain = dir.resolve(month + PLAIN);
+            Path gzip = dir.resolve(month + GZIP);
+            if (e.getValue().isEmpty()) {
+                months.remove(month);
+                obsolete.add(plain);
+                obsolete.add(gzip);
+                continue;
+            }
+            boolean compress = isCold(month);
+            bytes += writeFile(compress ? gzip : plain, e.getValue(), compress);
+            obsolete.add(compress ? plain : gzip);
+            months.put(month, e.getValue().size());
+        }
+        if (spanning != null) bytes += writeFile(dir.resolve(SPANNING), spanning, false);
+        for (YearMonth month : months.keySet()) {
+            Path plain = dir.resolve(month + PLAIN);
+            if (segments.containsKey(month) || !isCold(month) || !Files.exists(plain)) continue;
+            List<TodoItem> items = read(current(month));
+            bytes += writeFile(dir.resolve(month + GZIP), items, true);
+            months.put(month, items.size());
+            obsolete.add(plain);
+        }
+        bytes += writeManifest();
+        for (Path file : obsolete) Files.deleteIfExists(file);
+        return bytes;
+    }
+
+    private boolean isCold(YearMonth month) {
+        return compressAfterMonths > 0 && month.isBefore(YearMonth.now().minusMonths(compressAfterMonths));
+    }
+
+    /** The file holding a month: whichever of the plain and gzipped file is newer. */
+    private Path current(YearMonth month) throws IOException {
+        Path plain = dir.resolve(month + PLAIN);
+        Path gzip = dir.resolve(month + GZIP);
+        boolean hasPlain = Files.exists(plain);
+        boolean hasGzip = Files.exists(gzip);
+        if (hasPlain && hasGzip) {
+            return Files.getLastModifiedTime(gzip).compareTo(Files.getLastModifiedTime(plain)) > 0 ? gzip : plain;
+        }
+        return hasPlain ? plain : hasGzip ? gzip : null;
+    }
+
+    private static List<TodoItem> read(Path file) throws IOException {
+        if (!file.getFileName().toString().endsWith(GZIP)) return TextTodoLoader.load(file);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 64 * 1024)) {
+            return TextTodoLoader.load(ByteBuffer.wrap(in.readAllBytes()));
+        }
+    }
+
+    private static long writeFile(Path target, List<TodoItem> items, boolean compress) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        long size;
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream out = Channels.newOutputStream(ch);
+            GZIPOutputStream gz = compress ? new GZIPOutputStream(out, 64 * 1024) : null;
+            Writer w = new BufferedWriter(new OutputStreamWriter(gz != null ? gz : out, StandardCharsets.UTF_8), 64 * 1024);
+            for (TodoItem item : items) w.write(TodoStore.formatLine(item) + "\n");
+            w.flush();
+            if (gz != null) gz.finish();
+            ch.force(true);
+            size = ch.size();
+        }
+        TodoStore.replaceFile(tmp, target);
+        return size;
+    }
+
+    private long writeManifest() throws IOException {
+        Path manifest = dir.resolve(MANIFEST);
+        Path tmp = dir.resolve(MANIFEST + ".tmp");
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<YearMonth, Integer> e : months.entrySet()) sb.append(e.getKey()).append('|').append(e.getValue()).append('\n');
+        ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(true);
+        }
+        TodoStore.replaceFile(tmp, manifest);
+        return buf.limit();
+    }
+}
@@ -0,0 +1,436 @@
+package com.todolist;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless local HTTP/JSON service over a {@link TodoStore}, for scripts and other tools:
+ * <pre>
+ * TodoServer [--port 8077] [--bind 127.0.0.1] [--data todos.txt] [--threads n]
+ * </pre>
+ * Dates are yyyy-MM-dd; items are {@code {"id", "title", "date", "endDate", "completed"}}.
+ * <pre>
+ * GET    /todos?date=D             items on day D
+ * GET    /todos?from=D&amp;to=D        items overlapping [from, to]
+ * GET    /todos/{id}               one item
+ * GET    /summary?month=yyyy-MM    per-day total, completed and percent (or from=&amp;to=)
+ * POST   /todos                    add {title, date, endDate?, completed?}; 201 with the item
+ * PUT    /todos/{id}               change any of title, date, endDate, completed (not the
+ *                                  dates of a recurring series' occurrence: 400)
+ * POST   /todos/{id}/complete      mark completed; {"completed": false} reopens
+ * DELETE /todos/{id}               remove; 204
+ * </pre>
+ * Reads run on store snapshots and never wait for writers. Writes go through the store's
+ * synchronized mutators (edits via {@link TodoStore#modify}, so two clients changing different
+ * fields of one item both land) and are persisted by write-behind, so a burst of requests costs
+ * one save. Requests run on a virtual thread each when the runtime has them (Java 21+), otherwise
+ * on a fixed pool of --threads platform threads. Without --data the app's own store is used,
+ * with the same -Dtodolist.* settings.
+ */
+public final class TodoServer implements AutoCloseable {
+    private static final int DEFAULT_PORT = 8077;
+    private static final int BACKLOG = 4096;
+    private static final int MAX_BODY = 64 * 1024;
+
+    private final TodoStore store;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, LatencyTimer> timers = new HashMap<>();
+
+    private TodoServer(TodoStore store, InetSocketAddress address, int threads) throws IOException {
+        this.store = store;
+        for (String route : new String[] {"day", "range", "get", "summary", "add", "update", "complete", "delete"}) {
+            timers.put(route, store.getMetrics().timer("http." + route));
+        }
+        executor = requestExecutor(threads);
+        server = HttpServer.create(address, BACKLOG);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    /** Serves store (already loaded) on address until {@link #close()}; port 0 picks a free port. */
+    public static TodoServer start(TodoStore store, InetSocketAddress address, int threads) throws IOException {
+        TodoServer s = new TodoServer(store, address, threads);
+        s.server.start();
+        return s;
+    }
+
+    /** The port actually bound. */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /** Stops accepting requests, waits briefly for those in flight and releases the threads; the store stays open. */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** One virtual thread per request where available, else a fixed pool of daemon threads. */
+    static ExecutorService requestExecutor(int threads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger n = new AtomicInteger();
+            return Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "todo-http-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        String bind = "127.0.0.1";
+        String data = null;
+        int threads = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (i + 1 >= args.length) usage();
+                switch (args[i]) {
+                    case "--port": port = Integer.parseInt(args[++i]); break;
+                    case "--bind": bind = args[++i]; break;
+                    case "--data": data = args[++i]; break;
+                    case "--threads": threads = Math.max(1, Integer.parseInt(args[++i])); break;
+                    default: usage();
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Bad argument: " + e.getMessage());
+            usage();
+        }
+        // The JDK server closes idle keep-alive connections beyond this (default 200), which makes
+        // many concurrent clients reconnect on every request.
+        if (System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+            System.setProperty("sun.net.httpserver.maxIdleConnections", Integer.toString(BACKLOG));
+        }
+        TodoStore store = data == null ? new TodoStore() : new TodoStore(Paths.get(data), true);
+        try {
+            store.load();
+            store.enableWriteBehind(Long.getLong("todolist.saveDebounceMs", 250L),
+                    e -> System.err.println("Could not save todos: " + e.getMessage()));
+            store.getMetrics().startLogging(Long.getLong("todolist.metricsLogSeconds", 0L));
+            TodoServer server = start(store, new InetSocketAddress(bind, port), threads);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                try {
+                    store.close();
+                } catch (Exception e) {
+                    System.err.println("Could not close store: " + e.getMessage());
+                }
+            }, "todo-server-shutdown"));
+            System.err.println("Serving " + store.getAllItems().size() + " items on http://" + bind + ":" + server.getPort() + "/");
+        } catch (Exception e) {
+            System.err.println("Could not start server: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: TodoServer [--port <n>] [--bind <address>] [--data <todos.txt>] [--threads <n>]");
+        System.exit(2);
+    }
+
+    /** A response other than 200, with a message for the error body. */
+    private static final class HttpError extends Exception {
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getRawPath();
+            String method = exchange.getRequestMethod();
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            if (path.equals("/summary")) {
+                requireMethod(method, "GET");
+                timed(exchange, "summary", () -> summary(query));
+            } else if (path.equals("/todos")) {
+                if (method.equals("GET")) {
+                    boolean day = query.containsKey("date");
+                    timed(exchange, day ? "day" : "range", () -> day ? list(query) : range(query));
+                } else {
+                    requireMethod(method, "POST");
+                    timed(exchange, "add", () -> add(body(exchange)), 201);
+                }
+            } else if (path.startsWith("/todos/")) {
+                String rest = path.substring("/todos/".length());
+                boolean complete = rest.endsWith("/complete");
+                String id = decode(complete ? rest.substring(0, rest.length() - "/complete".length()) : rest);
+                if (id.isEmpty() || id.indexOf('/') >= 0) throw new HttpError(404, "Not found");
+                if (complete) {
+                    requireMethod(method, "POST");
+                    timed(exchange, "complete", () -> complete(id, body(exchange)));
+                } else if (method.equals("GET")) {
+                    timed(exchange, "get", () -> itemJson(new StringBuilder(), found(store.getById(id), id)).toString());
+                } else if (method.equals("PUT")) {
+                    timed(exchange, "update", () -> update(id, body(exchange)));
+                } else {
+                    requireMethod(method, "DELETE");
+                    timed(exchange, "delete", () -> delete(id), 204);
+                }
+            } else {
+                throw new HttpError(404, "Not found");
+            }
+        } catch (HttpError e) {
+            send(exchange, e.status, error(e.getMessage()));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Request failed: " + exchange.getRequestMethod() + " " + exchange.getRequestURI());
+            e.printStackTrace();
+            send(exchange, 500, error("Internal server error"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private interface Route {
+        String run() throws HttpError, IOException;
+    }
+
+    private void timed(HttpExchange exchange, String route, Route body) throws HttpError, IOException {
+        timed(exchange, route, body, 200);
+    }
+
+    private void timed(HttpExchange exchange, String route, Route body, int status) throws HttpError, IOException {
+        long start = System.nanoTime();
+        String json = body.run();
+        timers.get(route).recordSince(start);
+        send(exchange, status, json);
+    }
+
+    private String list(Map<String, String> query) throws HttpError {
+        return itemsJson(store.getItemsFor(dateParam(query, "date")));
+    }
+
+    private String range(Map<String, String> query) throws HttpError {
+        LocalDate from = dateParam(query, "from");
+        LocalDate to = dateParam(query, "to");
+        if (to.isBefore(from)) throw new HttpError(400, "to must not be before from");
+        return itemsJson(store.getItemsInRange(from, to));
+    }
+
+    private String summary(Map<String, String> query) throws HttpError {
+        LocalDate from;
+        LocalDate to;
+        if (query.containsKey("month")) {
+            YearMonth month;
+            try {
+                month = YearMonth.parse(query.get("month"));
+            } catch (RuntimeException e) {
+                throw new HttpError(400, "month must be yyyy-MM");
+            }
+            from = month.atDay(1);
+            to = month.atEndOfMonth();
+        } else {
+            from = dateParam(query, "from");
+            to = dateParam(query, "to");
+            if (to.isBefore(from) || to.toEpochDay() - from.toEpochDay() > 3660) {
+                throw new HttpError(400, "from..to must be a range of at most ten years");
+            }
+        }
+        RangeSummary summary = store.summarize(from, to);
+        StringBuilder out = new StringBuilder("[");
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            if (out.length() > 1) out.append(',');
+            out.append("{\"date\":\"").append(d)
+                    .append("\",\"total\":").append(summary.totalCount(d))
+                    .append(",\"completed\":").append(summary.completedCount(d))
+                    .append(",\"percent\":").append(summary.percentCompleted(d)).append('}');
+        }
+        return out.append(']').toString();
+    }
+
+    private String add(Map<String, Object> body) throws HttpError, IOException {
+        String title = string(body, "title");
+        if (title == null || title.isBlank()) throw new HttpError(400, "title is required");
+        LocalDate date = dateField(body, "date");
+        if (date == null) throw new HttpError(400, "date is required");
+        LocalDate end = dateField(body, "endDate");
+        Boolean completed = bool(body, "completed");
+        TodoItem item = newItem(TodoStore.generateId(), date, end, title, completed != null && completed);
+        store.add(item);
+        store.requestSave();
+        return itemJson(new StringBuilder(), item).toString();
+    }
+
+    private String update(String id, Map<String, Object> body) throws HttpError, IOException {
+        String title = string(body, "title");
+        LocalDate date = dateField(body, "date");
+        LocalDate end = dateField(body, "endDate");
+        Boolean completed = bool(body, "completed");
+        HttpError[] invalid = new HttpError[1];
+        Optional<TodoItem> next = store.modify(id, current -> {
+            LocalDate start = date != null ? date : current.getDate();
+            LocalDate last = end != null ? end : current.isMultiDay() ? current.getEndDate() : start;
+            if (Recurrence.isOccurrence(current) && (!start.equals(current.getDate()) || !last.equals(current.getEndDate()))) {
+                // the store keeps only title and completion of an occurrence; its dates are the series'
+                invalid[0] = new HttpError(400, "The dates of an occurrence of a recurring series cannot be changed");
+                return current;
+            }
+            try {
+                return newItem(id, start, last, title != null ? title : current.getTitle(),
+                        completed != null ? completed : current.isCompleted());
+            } catch (HttpError e) {
+                invalid[0] = e;
+                return current;
+            }
+        });
+        if (invalid[0] != null) throw invalid[0];
+        TodoItem item = found(next, id);
+        store.requestSave();
+        return itemJson(new StringBuilder(), item).toString();
+    }
+
+    private String complete(String id, Map<String, Object> body) throws HttpError, IOException {
+        Boolean completed = bool(body, "completed");
+        TodoItem item = found(store.setCompleted(id, completed == null || completed), id);
+        store.requestSave();
+        return itemJson(new StringBuilder(), item).toString();
+    }
+
+    private String delete(String id) throws HttpError, IOException {
+        found(store.removeById(id), id);
+        store.requestSave();
+        return null;
+    }
+
+    private static TodoItem newItem(String id, LocalDate date, LocalDate end, String title, boolean completed) throws HttpError {
+        if (end != null && end.isBefore(date)) throw new HttpError(400, "endDate must not be before date");
+        return new TodoItem(id, date, end != null ? end : date, title.trim(), completed);
+    }
+
+    private static TodoItem found(Optional<TodoItem> item, String id) throws HttpError {
+        return item.orElseThrow(() -> new HttpError(404, "No todo with id " + id));
+    }
+
+    private static void requireMethod(String method, String allowed) throws HttpError {
+        if (!method.equals(allowed)) throw new HttpError(405, method + " not allowed here");
+    }
+
+    private static Map<String, Object> body(HttpExchange exchange) throws HttpError, IOException {
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readNBytes(MAX_BODY + 1);
+        }
+        if (bytes.length > MAX_BODY) throw new HttpError(413, "Request body too large");
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        if (text.isBlank()) return Map.of();
+        try {
+            return Json.parseObject(text);
+        } catch (IllegalArgumentException e) {
+            throw new HttpError(400, e.getMessage());
+        }
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null || raw.isEmpty()) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) params.put(decode(pair.substring(0, eq)), decode(pair.substring(eq + 1)));
+        }
+        return params;
+    }
+
+    private static String decode(String s) {
+        return URLDecoder.decode(s, StandardCharsets.UTF_8);
+    }
+
+    /** Required date parameter. */
+    private static LocalDate dateParam(Map<String, String> query, String name) throws HttpError {
+        String value = query.get(name);
+        if (value == null) throw new HttpError(400, name + " is required");
+        return parseDate(name, value);
+    }
+
+    /** Optional date field; null if absent or null. */
+    private static LocalDate dateField(Map<String, Object> body, String name) throws HttpError {
+        String value = string(body, name);
+        return value == null ? null : parseDate(name, value);
+    }
+
+    private static LocalDate parseDate(String name, String value) throws HttpError {
+        try {
+            return LocalDate.parse(value);
+        } catch (RuntimeException e) {
+            throw new HttpError(400, name + " must be yyyy-MM-dd");
+        }
+    }
+
+    private static String string(Map<String, Object> body, String name) throws HttpError {
+        Object value = body.get(name);
+        if (value != null && !(value instanceof String)) throw new HttpError(400, name + " must be a string");
+        return (String) value;
+    }
+
+    private static Boolean bool(Map<String, Object> body, String name) throws HttpError {
+        Object value = body.get(name);
+        if (value != null && !(value instanceof Boolean)) throw new HttpError(400, name + " must be true or false");
+        return (Boolean) value;
+    }
+
+    private static String itemsJson(List<TodoItem> items) {
+        StringBuilder out = new StringBuilder(64 + items.size() * 96).append('[');
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) out.append(',');
+            itemJson(out, items.get(i));
+        }
+        return out.append(']').toString();
+    }
+
+    private static StringBuilder itemJson(StringBuilder out, TodoItem item) {
+        out.append("{\"id\":");
+        Json.quote(out, item.getId()).append(",\"title\":");
+        Json.quote(out, item.getTitle());
+        return out.append(",\"date\":\"").append(item.getDate())
+                .append("\",\"endDate\":\"").append(item.getEndDate())
+                .append("\",\"completed\":").append(item.isCompleted()).append('}');
+    }
+
+    private static String error(String message) {
+        return Json.quote(new StringBuilder("{\"error\":"), message).append('}').toString();
+    }
+
+    /** Sends json (null: no body) with status. */
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        if (json == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
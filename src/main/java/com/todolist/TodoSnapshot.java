@@ -0,0 +1,84 @@
+package com.todolist;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable point-in-time view of a {@link TodoStore}, from {@link TodoStore#snapshot()}.
+ * Taking one is O(1): it holds on to the store's persistent {@link DateIndex} of that moment,
+ * so later edits never show through and nothing is copied. Safe to read from any thread.
+ * <p>
+ * Day and range queries include the occurrences of {@link Recurrence recurring series} on
+ * those days, after the stored items; {@link #getAllItems()} and {@link #size()} cover stored
+ * items only, since a series may never end.
+ */
+public final class TodoSnapshot {
+    private final DateIndex index;
+
+    TodoSnapshot(DateIndex index) {
+        this.index = index;
+    }
+
+    /** Number of stored items. */
+    public int size() {
+        return index.size();
+    }
+
+    /** All stored items, in insertion order. */
+    public List<TodoItem> getAllItems() {
+        return index.all();
+    }
+
+    /** Items that include this date (single-day or multi-day range containing date). */
+    public List<TodoItem> getItemsFor(LocalDate date) {
+        return withOccurrences(index.covering(date), date, date);
+    }
+
+    /** Items that overlap the range [from, to] (inclusive). One entry per item. */
+    public List<TodoItem> getItemsInRange(LocalDate from, LocalDate to) {
+        return withOccurrences(index.overlapping(from, to), from, to);
+    }
+
+    /** Recurring series, in the order they were added. */
+    public List<Recurrence> getRecurring() {
+        return index.rules();
+    }
+
+    private List<TodoItem> withOccurrences(List<TodoItem> items, LocalDate from, LocalDate to) {
+        List<TodoItem> occurrences = index.occurrences(from, to);
+        if (occurrences.isEmpty()) return items;
+        List<TodoItem> all = new ArrayList<>(items.size() + occurrences.size());
+        all.addAll(items);
+        all.addAll(occurrences);
+        return all;
+    }
+
+    /** Per-day total/completed counts for [from, to] (inclusive), in one pass over the overlapping items. */
+    public RangeSummary summarize(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) throw new IllegalArgumentException("to must be >= from");
+        return index.summarize(from, to);
+    }
+
+    /** Per-day counts for every day of the month. */
+    public RangeSummary summarize(YearMonth month) {
+        return summarize(month.atDay(1), month.atEndOfMonth());
+    }
+
+    public long completedCount(LocalDate date) {
+        return index.countCovering(date, true);
+    }
+
+    public long totalCount(LocalDate date) {
+        return index.countCovering(date, false);
+    }
+
+    /** Percent completed for the day (0–100). If no items, returns 0. */
+    public int percentCompleted(LocalDate date) {
+        long total = totalCount(date);
+        if (total == 0) return 0;
+        long done = completedCount(date);
+        return (int) Math.round(100.0 * done / total);
+    }
+}
@@ -1,54 +1,1063 @@
 package com.todolist;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 /**
  * In-memory store for todos with file persistence.
- * File format: one line per item: id|date|title|completed
+ * File format: one line per item: id|date|title|completed, or the binary layout of
+ * {@link BinaryTodoFile}; the format is detected on load and kept on save.
+ * <p>
+ * Concurrency: items are immutable versions held in a persistent {@link DateIndex}. Writers
+ * serialize on this store's monitor, build the next index version and publish it through a
+ * volatile field; readers never lock. {@link #snapshot()} hands out the current version as a
+ * consistent point-in-time view for background threads (saving, export, analytics).
+ * <p>
+ * In journaled mode, {@link #save()} appends only the changes since the last save to a
+ * {@link TodoJournal} instead of rewriting the file; the journal is folded back into the file
+ * in the background once it grows large.
+ * <p>
+ * With {@link #enableWriteBehind} the UI calls {@link #requestSave()}, which hands the write to a
+ * background {@link WriteBehindSaver}; {@link #close()} flushes it.
+ * <p>
+ * Every change is published to {@link TodoStoreListener}s as a {@link TodoChangeEvent} carrying
+ * the affected date range; a batch produces a single event.
+ * <p>
+ * A {@link #segmented} store keeps one file per month (see {@link TodoSegments}) and holds only
+ * the months within a window around the {@link #focus focused} month, plus items spanning months,
+ * in memory; queries and {@link #getById} see resident months only. Writing an item pages its
+ * month in first, and {@link #save()} rewrites just the months that changed.
+ * <p>
+ * {@link Recurrence Recurring series} are stored once in a small side file (todos.txt.recurring,
+ * or recurring.txt among the segments) that {@link #save()} rewrites when a series changed.
+ * Their occurrences appear in day and range queries and counts; an occurrence's id routes
+ * {@link #setCompleted}, {@link #removeById} and friends to its series.
+ * <p>
+ * {@link #enableFileWatch} makes a single-file store notice when other programs change its
+ * files and apply just the difference through {@link #reloadChanges()}.
+ * <p>
+ * With -Dtodolist.columnar=true a single-file store loads into {@link TodoColumns} instead of
+ * one object per item, and items are created as views when a query returns them. Changes go to
+ * the index's tree as usual; once they add up to half the base, they are folded into new columns.
+ * A binary file always loads as columns over the file's records, columnar or not; without the
+ * property its changes simply stay in the tree.
+ * <p>
+ * A store created with a {@link TodoRepository} (or with -Dtodolist.repository naming one) reads
+ * its items and series from it on {@link #load()} and, on {@link #save()}, hands it the ids
+ * changed since the last save instead of writing files of its own.
+ * <p>
+ * Load, save, queries and search are timed into {@link #getMetrics()}.
  */
 public class TodoStore {
+    /** Smallest tree of changes a columnar store folds into new columns. */
+    private static final int REBASE_MIN_DELTA = 1 << 16;
+    private static final Path DEFAULT_DIR = Paths.get(System.getProperty("user.home"), ".calendar-todolist");
+
+    /** Data file; for a segmented store, a flat file to import on first load (may be null). Unused with a repository. */
     private final Path filePath;
-    private final List<TodoItem> items = new CopyOnWriteArrayList<>();
+    /** Null unless items are kept by a repository rather than the store's own files. */
+    private final TodoRepository repository;
+    /** Ids changed since the last save to the repository, in order of change; guarded by this. */
+    private final Set<String> dirtyIds = new LinkedHashSet<>();
+    /** Current version of each item by the key of its id (see {@link #keyOf}), with the insertion sequence that orders it. */
+    private final LongObjectMap<Entry> byId = new LongObjectMap<>();
+    /**
+     * Columnar base of the current index, or null. byId then holds only ids changed since it was
+     * built; an entry with a null item marks a base row that was removed.
+     */
+    private volatile TodoColumns columns;
+    private final boolean columnar;
+    /** Keys of ids that are not in a standard {@link TodoIds} form: -1, -2, ... in order of first use. */
+    private final Map<String, Long> otherKeys = new ConcurrentHashMap<>();
+    /** Next key for otherKeys; guarded by this. */
+    private long nextOtherKey = -1;
+    private volatile DateIndex index = DateIndex.EMPTY;
+    /** Next insertion sequence; guarded by this. */
+    private long nextSeq;
+    /**
+     * Segmented stores: sequences of items dropped with their month, handed out again to items
+     * paged in later so that paging back and forth does not grow the sequences (and the search
+     * index's doc table) without bound. Guarded by this.
+     */
+    private final BitSet freeSeqs = new BitSet();
+    private final List<TodoStoreListener> listeners = new CopyOnWriteArrayList<>();
+    /** True while load() replays the journal; per-record events are folded into one RELOADED. */
+    private volatile boolean replaying;
+    /** Null when journaling is off; then every save rewrites the whole file. */
+    private final TodoJournal journal;
+    private final List<String> pendingRecords = new ArrayList<>();
+    private volatile WriteBehindSaver saver;
+    /** Snapshot format: detected on load, -Dtodolist.format=binary for a new file. */
+    private volatile boolean binary;
+    /** Null unless the store is month-segmented. */
+    private final TodoSegments segments;
+    /** Months kept resident on either side of the focused month. */
+    private final int windowMonths;
+    private volatile YearMonth focusMonth = YearMonth.now();
+    /** Segment months in memory, changed since the last save, and being written; guarded by this. */
+    private final Set<YearMonth> resident = new HashSet<>();
+    private final Set<YearMonth> dirtyMonths = new HashSet<>();
+    private final Set<YearMonth> savingMonths = new HashSet<>();
+    /** Items spanning months changed since the last save; guarded by this. */
+    private boolean spanningDirty;
+    /** A recurring series changed since the side file was last written; guarded by this. */
+    private boolean recurringDirty;
+    private volatile TodoFileWatcher watcher;
+    /** Ids changed here since the last save, while watching; a reload keeps their local version. Guarded by this. */
+    private final Set<String> unsavedIds = new HashSet<>();
+    /** True while reloadChanges applies changes made elsewhere; guarded by this. */
+    private boolean reloading;
+    /** {@link #diskStamp()} as of this store's last read or write of its files. */
+    private volatile String ownStamp;
+    /** Serializes saves, recurring-file writes and reloads of external changes. */
+    private final Object saveLock = new Object();
+    /** Title search index; null until the first search, then kept current by every change. */
+    private volatile TitleIndex titles;
+    /** While the title index is built: the changes made since its snapshot, to replay into it. Guarded by this. */
+    private List<Consumer<TitleIndex>> titleBacklog;
+    /** Bumped when a load or rebase renumbers the items, which voids a title index being built. Guarded by this. */
+    private long titleEpoch;
+    /** Held by the one thread building the title index; other searches wait for it, writers do not. */
+    private final Object titleBuildLock = new Object();
+    private final TodoMetrics metrics = new TodoMetrics(() -> index.size());
+    private final LatencyTimer loadTimer = metrics.timer("store.load");
+    private final LatencyTimer reloadTimer = metrics.timer("store.reloadChanges");
+    private final LatencyTimer saveTimer = metrics.timer("store.save");
+    private final LatencyTimer snapshotWriteTimer = metrics.timer("store.writeSnapshot");
+    private final LatencyTimer itemsForTimer = metrics.timer("store.getItemsFor");
+    private final LatencyTimer itemsInRangeTimer = metrics.timer("store.getItemsInRange");
+    private final LatencyTimer summarizeTimer = metrics.timer("store.summarize");
+    private final LatencyTimer percentTimer = metrics.timer("store.percentCompleted");
+    private final LatencyTimer searchTimer = metrics.timer("store.search");
 
+    /**
+     * Default file under the user's home; journaled unless -Dtodolist.journal=false. With
+     * -Dtodolist.storage=segmented, months are kept in the segments directory next to it instead
+     * (todos.txt is imported once), -Dtodolist.windowMonths (default 2) months either side of the
+     * focused month stay loaded and -Dtodolist.compressAfterMonths gzips older months. With
+     * -Dtodolist.repository=memory|file|jdbc (or another provider's name) items are kept by that
+     * {@link TodoRepository} instead, at -Dtodolist.repositoryLocation or its default location.
+     */
     public TodoStore() {
-        this.filePath = Paths.get(System.getProperty("user.home"), ".calendar-todolist", "todos.txt");
+        this(DEFAULT_DIR.resolve("todos.txt"),
+                Boolean.parseBoolean(System.getProperty("todolist.journal", "true")),
+                "segmented".equalsIgnoreCase(System.getProperty("todolist.storage"))
+                        ? new TodoSegments(DEFAULT_DIR.resolve("segments"), Integer.getInteger("todolist.compressAfterMonths", 0))
+                        : null,
+                Integer.getInteger("todolist.windowMonths", 2), configuredRepository());
+    }
+
+    /** Store whose items and series are kept by repository; nothing is read until {@link #load()}. */
+    public TodoStore(TodoRepository repository) {
+        this(null, false, null, 0, Objects.requireNonNull(repository));
     }
 
     public TodoStore(Path filePath) {
+        this(filePath, false);
+    }
+
+    public TodoStore(Path filePath, boolean journaled) {
+        this(filePath, journaled, null, 0, null);
+    }
+
+    private TodoStore(Path filePath, boolean journaled, TodoSegments segments, int windowMonths, TodoRepository repository) {
         this.filePath = filePath;
+        this.repository = repository;
+        this.segments = repository == null ? segments : null;
+        this.windowMonths = windowMonths;
+        this.journal = journaled && this.segments == null && repository == null ? new TodoJournal(filePath, this::writeSnapshot) : null;
+        this.binary = "binary".equalsIgnoreCase(System.getProperty("todolist.format"));
+        this.columnar = this.segments == null && Boolean.getBoolean("todolist.columnar");
+    }
+
+    /**
+     * Store kept as per-month segment files in dir. Months within windowMonths of the focused
+     * month stay in memory; segments of months more than compressAfterMonths in the past are
+     * gzipped (0 = never). If dir holds no segments yet, legacyFile (if not null and present)
+     * is imported on the first load.
+     */
+    public static TodoStore segmented(Path dir, Path legacyFile, int windowMonths, int compressAfterMonths) {
+        return new TodoStore(legacyFile, false, new TodoSegments(dir, compressAfterMonths), windowMonths, null);
+    }
+
+    /** The repository this store is kept by, or null when it keeps its own files. */
+    TodoRepository repository() {
+        return repository;
+    }
+
+    /** The repository -Dtodolist.repository names, or null when the store keeps its own files. */
+    private static TodoRepository configuredRepository() {
+        String name = System.getProperty("todolist.repository", "");
+        if (name.isEmpty()) return null;
+        return TodoRepository.open(name, System.getProperty("todolist.repositoryLocation"), DEFAULT_DIR);
     }
 
     public void load() throws IOException {
-        items.clear();
-        if (!Files.exists(filePath)) return;
-        try (var reader = Files.newBufferedReader(filePath)) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) continue;
-                TodoItem item = parseLine(line);
-                if (item != null) items.add(item);
+        long start = System.nanoTime();
+        String stamp = segments == null && repository == null ? diskStamp() : null;
+        List<TodoItem> loaded = List.of();
+        TodoColumns base = null;
+        List<YearMonth> window = List.of();
+        if (repository != null) {
+            loaded = repository.loadItems();
+        } else if (segments != null) {
+            if (!segments.exists() && filePath != null
+                    && (Files.exists(filePath) || Files.exists(TodoJournal.journalPathFor(filePath)))) {
+                importLegacy();
+            }
+            segments.open();
+            loaded = new ArrayList<>(segments.readSpanning());
+            window = window(focusMonth);
+            for (YearMonth month : window) loaded.addAll(segments.readSegment(month));
+        } else if (Files.exists(filePath)) {
+            binary = BinaryTodoFile.isBinary(filePath);
+            if (binary) base = TodoColumns.of(BinaryTodoFile.open(filePath));
+            else if (columnar) base = TextTodoLoader.loadColumns(filePath);
+            else loaded = TextTodoLoader.load(filePath);
+        }
+        List<Recurrence> rules = repository != null ? repository.loadRecurring() : loadRecurring(recurringPath());
+        List<TodoItem> ordered = List.of();
+        if (base == null) {
+            Map<String, TodoItem> unique = new LinkedHashMap<>();
+            for (TodoItem item : loaded) unique.put(item.getId(), item);
+            ordered = new ArrayList<>(unique.values());
+            if (columnar) base = TodoColumns.build(ordered);
+        }
+        synchronized (this) {
+            byId.clear();
+            otherKeys.clear();
+            nextOtherKey = -1;
+            titles = null;
+            titleEpoch++;
+            columns = base;
+            if (base != null) {
+                index = DateIndex.columnar(base);
+            } else {
+                for (int i = 0; i < ordered.size(); i++) putEntry(ordered.get(i).getId(), new Entry(ordered.get(i), i));
+                index = DateIndex.build(ordered);
+            }
+            DateIndex idx = index;
+            for (Recurrence rule : rules) idx = idx.withRule(rule);
+            index = idx;
+            recurringDirty = false;
+            nextSeq = base != null ? base.size() : ordered.size();
+            freeSeqs.clear();
+            resident.clear();
+            resident.addAll(window);
+            dirtyMonths.clear();
+            spanningDirty = false;
+            dirtyIds.clear();
+        }
+        if (journal != null) {
+            replaying = true;
+            try {
+                journal.replay(this::applyRecord);
+            } finally {
+                replaying = false;
             }
         }
+        synchronized (pendingRecords) {
+            pendingRecords.clear();
+        }
+        synchronized (this) {
+            unsavedIds.clear();
+        }
+        ownStamp = stamp;
+        loadTimer.recordSince(start);
+        fire(new TodoChangeEvent(this, TodoChangeEvent.Type.RELOADED, null, null, List.of()));
     }
 
+    /**
+     * Persists changes. Journaled: appends the pending records as one group commit and
+     * schedules compaction when the journal is over its threshold. With a repository: hands it
+     * the changes since the last save. Otherwise rewrites the file.
+     */
     public void save() throws IOException {
-        Path dir = filePath.getParent();
+        long start = System.nanoTime();
+        try {
+            if (repository != null) {
+                saveRepository();
+                return;
+            }
+            saveRecurring();
+            if (segments != null) {
+                saveSegments();
+            } else {
+                saveFile();
+            }
+        } finally {
+            saveTimer.recordSince(start);
+        }
+    }
+
+    /** Journaled: appends the pending records; otherwise rewrites the file. */
+    private void saveFile() throws IOException {
+        synchronized (saveLock) {
+            if (journal != null) {
+                List<String> batch;
+                synchronized (this) {
+                    synchronized (pendingRecords) {
+                        batch = new ArrayList<>(pendingRecords);
+                        pendingRecords.clear();
+                    }
+                    unsavedIds.clear();
+                }
+                metrics.addBytesWritten(journal.append(batch));
+                if (journal.needsCompaction()) {
+                    journal.compactAsync(this::getAllItems,
+                            e -> System.err.println("Journal compaction failed: " + e.getMessage()));
+                }
+            } else {
+                DateIndex snap;
+                synchronized (this) {
+                    unsavedIds.clear();
+                    snap = index;
+                }
+                writeSnapshot(snap.all());
+            }
+            if (watcher != null) ownStamp = diskStamp();
+        }
+    }
+
+    /** Passes the items changed since the last save, and the series if one changed, to the repository. */
+    private void saveRepository() throws IOException {
+        synchronized (saveLock) {
+            List<String> ids;
+            List<TodoItem> changed = new ArrayList<>();
+            List<String> removed = new ArrayList<>();
+            boolean rules;
+            DateIndex snap;
+            synchronized (this) {
+                if (dirtyIds.isEmpty() && !recurringDirty) return;
+                ids = new ArrayList<>(dirtyIds);
+                dirtyIds.clear();
+                rules = recurringDirty;
+                recurringDirty = false;
+                snap = index;
+                for (String id : ids) {
+                    Entry e = entry(id);
+                    if (e != null) changed.add(e.item);
+                    else removed.add(id);
+                }
+            }
+            try {
+                repository.save(new TodoSnapshot(snap), changed, removed, rules);
+            } catch (IOException | RuntimeException e) {
+                synchronized (this) {
+                    dirtyIds.addAll(ids);
+                    recurringDirty |= rules;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Watches the data file, its journal and its recurring side file, and calls
+     * {@link #reloadChanges()} once they have been quiet for debounceMillis after a change made
+     * by another program; failures go to onError on the watcher thread. Single-file stores only.
+     */
+    public synchronized void enableFileWatch(long debounceMillis, Consumer<Exception> onError) throws IOException {
+        if (segments != null || repository != null) {
+            throw new UnsupportedOperationException("Only a single-file store can watch its files");
+        }
+        if (watcher != null) return;
+        Path dir = filePath.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Set<Path> names = Set.of(filePath.getFileName(), TodoJournal.journalPathFor(filePath).getFileName(),
+                recurringPath().getFileName());
+        watcher = new TodoFileWatcher(dir, names, this::reloadChanges, debounceMillis, onError);
+    }
+
+    /**
+     * Re-reads the data file, journal and recurring side file and applies only what differs from
+     * memory: items and series added, changed or removed by another program since this store
+     * last read or wrote them. Items and series changed here and not saved yet keep their local
+     * version. Listeners get one {@link TodoChangeEvent.Type#BATCH} event and nothing is written
+     * back. Returns the number of items and series that changed (0 without reading anything
+     * if the files are as this store left them). Single-file stores only.
+     */
+    public int reloadChanges() throws IOException {
+        if (segments != null || repository != null) {
+            throw new UnsupportedOperationException("Only a single-file store can reload changes");
+        }
+        synchronized (saveLock) {
+            String stamp = diskStamp();
+            if (stamp.equals(ownStamp)) return 0;
+            long start = System.nanoTime();
+            TodoStore disk = new TodoStore(filePath, true);
+            disk.load();
+            disk.journal.close();
+            DateIndex onDisk = disk.index;
+            Change change = new Change();
+            int changed = 0;
+            synchronized (this) {
+                reloading = true;
+                try {
+                    DateIndex idx = index;
+                    Set<String> ids = new HashSet<>();
+                    for (TodoItem item : onDisk.all()) {
+                        String id = item.getId();
+                        ids.add(id);
+                        if (unsavedIds.contains(id)) continue;
+                        Entry e = entry(id);
+                        if (e != null && sameContent(e.item, item)) continue;
+                        idx = put(idx, item, change);
+                        changed++;
+                    }
+                    for (TodoItem item : idx.all()) {
+                        String id = item.getId();
+                        if (ids.contains(id) || unsavedIds.contains(id)) continue;
+                        idx = delete(idx, id, change);
+                        changed++;
+                    }
+                    if (!recurringDirty) {
+                        Set<String> ruleIds = new HashSet<>();
+                        for (Recurrence rule : onDisk.rules()) {
+                            ruleIds.add(rule.getId());
+                            Recurrence mine = idx.rule(rule.getId());
+                            if (mine != null && formatRule(mine).equals(formatRule(rule))) continue;
+                            if (mine != null) change.include(mine);
+                            change.include(rule);
+                            idx = idx.withRule(rule);
+                            changed++;
+                        }
+                        for (Recurrence mine : idx.rules()) {
+                            if (ruleIds.contains(mine.getId())) continue;
+                            change.include(mine);
+                            idx = idx.withoutRule(mine.getId());
+                            changed++;
+                        }
+                    }
+                    index = idx;
+                    maybeRebase();
+                } finally {
+                    reloading = false;
+                }
+            }
+            ownStamp = stamp;
+            reloadTimer.recordSince(start);
+            fire(change.toEvent(this, TodoChangeEvent.Type.BATCH));
+            return changed;
+        }
+    }
+
+    private static boolean sameContent(TodoItem a, TodoItem b) {
+        return a.getDate().equals(b.getDate()) && a.getEndDate().equals(b.getEndDate())
+                && Objects.equals(a.getTitle(), b.getTitle()) && a.isCompleted() == b.isCompleted();
+    }
+
+    /** Size and modification time of the data file, journal and recurring side file. */
+    private String diskStamp() {
+        StringBuilder sb = new StringBuilder();
+        for (Path p : List.of(filePath, TodoJournal.journalPathFor(filePath), recurringPath())) {
+            try {
+                BasicFileAttributes a = Files.readAttributes(p, BasicFileAttributes.class);
+                sb.append(a.size()).append('@').append(a.lastModifiedTime().toMillis()).append(';');
+            } catch (IOException e) {
+                sb.append("-;");
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Timers and counters for this store; see {@link TodoMetrics#register()}. */
+    public TodoMetrics getMetrics() {
+        return metrics;
+    }
+
+    /** Rewrites only the months (and spanning items) changed since the last save. */
+    private void saveSegments() throws IOException {
+        synchronized (saveLock) {
+            Set<YearMonth> months;
+            boolean spanning;
+            DateIndex snap;
+            synchronized (this) {
+                if (dirtyMonths.isEmpty() && !spanningDirty) return;
+                months = new TreeSet<>(dirtyMonths);
+                spanning = spanningDirty;
+                dirtyMonths.clear();
+                spanningDirty = false;
+                savingMonths.addAll(months);
+                snap = index;
+            }
+            try {
+                Map<YearMonth, List<TodoItem>> content = new TreeMap<>();
+                for (YearMonth month : months) {
+                    List<TodoItem> items = new ArrayList<>();
+                    for (TodoItem item : snap.overlapping(month.atDay(1), month.atEndOfMonth())) {
+                        if (month.equals(TodoSegments.homeOf(item))) items.add(item);
+                    }
+                    content.put(month, items);
+                }
+                List<TodoItem> spanningItems = null;
+                if (spanning) {
+                    spanningItems = new ArrayList<>();
+                    for (TodoItem item : snap.all()) {
+                        if (TodoSegments.homeOf(item) == null) spanningItems.add(item);
+                    }
+                }
+                metrics.addBytesWritten(segments.write(content, spanningItems));
+            } catch (IOException | RuntimeException e) {
+                synchronized (this) {
+                    dirtyMonths.addAll(months);
+                    spanningDirty |= spanning;
+                }
+                throw e;
+            } finally {
+                synchronized (this) {
+                    savingMonths.removeAll(months);
+                }
+            }
+        }
+    }
+
+    /** One-time move of a flat file (and its journal) into month segments. */
+    private void importLegacy() throws IOException {
+        TodoStore legacy = new TodoStore(filePath, true);
+        legacy.load();
+        legacy.journal.close();
+        Map<YearMonth, List<TodoItem>> months = new TreeMap<>();
+        List<TodoItem> spanning = new ArrayList<>();
+        for (TodoItem item : legacy.getAllItems()) {
+            YearMonth home = TodoSegments.homeOf(item);
+            if (home == null) spanning.add(item);
+            else months.computeIfAbsent(home, m -> new ArrayList<>()).add(item);
+        }
+        segments.write(months, spanning);
+        Path rules = recurringPathFor(filePath);
+        if (Files.exists(rules)) Files.copy(rules, recurringPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** Side file for the recurring series of the flat file at file. */
+    static Path recurringPathFor(Path file) {
+        return file.resolveSibling(file.getFileName() + ".recurring");
+    }
+
+    private Path recurringPath() {
+        return segments != null ? segments.getDirectory().resolve("recurring.txt") : recurringPathFor(filePath);
+    }
+
+    static List<Recurrence> loadRecurring(Path file) throws IOException {
+        if (!Files.exists(file)) return List.of();
+        List<Recurrence> rules = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            Recurrence rule = parseRule(line);
+            if (rule != null) rules.add(rule);
+        }
+        return rules;
+    }
+
+    /** Rewrites the recurring side file if a series changed; the file is small, one line per series. */
+    private void saveRecurring() throws IOException {
+        synchronized (saveLock) {
+            List<Recurrence> rules;
+            synchronized (this) {
+                if (!recurringDirty) return;
+                recurringDirty = false;
+                rules = index.rules();
+            }
+            try {
+                metrics.addBytesWritten(writeRecurring(recurringPath(), rules));
+            } catch (IOException | RuntimeException e) {
+                synchronized (this) {
+                    recurringDirty = true;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /** Replaces file with one line per series; returns the bytes written. */
+    static long writeRecurring(Path file, List<Recurrence> rules) throws IOException {
+        Path dir = file.getParent();
+        if (dir != null && !Files.exists(dir)) Files.createDirectories(dir);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        StringBuilder sb = new StringBuilder();
+        for (Recurrence rule : rules) sb.append(formatRule(rule)).append(System.lineSeparator());
+        long size;
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(out, sb);
+            out.force(true);
+            size = out.size();
+        }
+        replaceFile(tmp, file);
+        return size;
+    }
+
+    private List<YearMonth> window(YearMonth center) {
+        List<YearMonth> window = new ArrayList<>(2 * windowMonths + 1);
+        for (YearMonth m = center.minusMonths(windowMonths); !m.isAfter(center.plusMonths(windowMonths)); m = m.plusMonths(1)) {
+            window.add(m);
+        }
+        return window;
+    }
+
+    /**
+     * Segmented stores: makes the months within the window around month resident and drops
+     * resident months outside it that have no unsaved changes. No-op for a single-file store.
+     */
+    public void focus(YearMonth month) throws IOException {
+        if (segments == null) return;
+        focusMonth = month;
+        synchronized (this) {
+            DateIndex idx = index;
+            try {
+                for (YearMonth m : window(month)) idx = pageIn(idx, m);
+                YearMonth first = month.minusMonths(windowMonths);
+                YearMonth last = month.plusMonths(windowMonths);
+                for (Iterator<YearMonth> it = resident.iterator(); it.hasNext(); ) {
+                    YearMonth m = it.next();
+                    if ((!m.isBefore(first) && !m.isAfter(last)) || dirtyMonths.contains(m) || savingMonths.contains(m)) continue;
+                    for (TodoItem item : idx.overlappingUnordered(m.atDay(1), m.atEndOfMonth())) {
+                        if (!m.equals(TodoSegments.homeOf(item))) continue;
+                        Entry e = removeEntry(item.getId());
+                        idx = idx.without(e.item, e.seq);
+                        unindex(e);
+                        freeSeqs.set((int) e.seq);
+                    }
+                    it.remove();
+                }
+            } finally {
+                index = idx;
+            }
+        }
+    }
+
+    /**
+     * Segmented stores: makes every month in [from, to] resident, e.g. for a view spanning
+     * years; they stay until a later {@link #focus} drops them. No-op for a single-file store.
+     */
+    public void pageIn(YearMonth from, YearMonth to) throws IOException {
+        if (segments == null) return;
+        synchronized (this) {
+            DateIndex idx = index;
+            try {
+                for (YearMonth m = from; !m.isAfter(to); m = m.plusMonths(1)) idx = pageIn(idx, m);
+            } finally {
+                index = idx;
+            }
+        }
+    }
+
+    /**
+     * Segmented stores: makes every stored month resident, for whole-store scans such as an
+     * export. No-op for a single-file store.
+     */
+    public void pageInAll() throws IOException {
+        if (segments == null) return;
+        synchronized (this) {
+            DateIndex idx = index;
+            try {
+                for (YearMonth m : segments.months()) idx = pageIn(idx, m);
+            } finally {
+                index = idx;
+            }
+        }
+    }
+
+    /**
+     * Reads a segment that is not resident and merges its items into idx; on failure nothing
+     * changes. Call with the monitor held.
+     */
+    private DateIndex pageIn(DateIndex idx, YearMonth month) throws IOException {
+        if (month == null || resident.contains(month)) return idx;
+        List<TodoItem> items = segments.readSegment(month);
+        resident.add(month);
+        for (TodoItem item : items) {
+            if (entry(item.getId()) != null) continue;
+            int free = freeSeqs.nextSetBit(0);
+            long seq = free >= 0 ? free : nextSeq++;
+            if (free >= 0) freeSeqs.clear(free);
+            putEntry(item.getId(), new Entry(item, seq));
+            idx = idx.with(item, seq);
+            index(seq, null, item);
+        }
+        return idx;
+    }
+
+    /** Pages in the segment item will be stored in, so saving it keeps the month's other items. */
+    private DateIndex requireResident(DateIndex idx, TodoItem item) {
+        if (segments == null) return idx;
+        try {
+            return pageIn(idx, TodoSegments.homeOf(item));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load todos for " + item.getDate(), e);
+        }
+    }
+
+    private void markDirty(TodoItem item) {
+        if (watcher != null && !replaying && !reloading) unsavedIds.add(item.getId());
+        if (repository != null) dirtyIds.add(item.getId());
+        if (segments == null) return;
+        YearMonth home = TodoSegments.homeOf(item);
+        if (home == null) spanningDirty = true;
+        else dirtyMonths.add(home);
+    }
+
+    /** Reads file as item views (for a repository); ids and titles decode when first read. */
+    static List<TodoItem> loadBinary(Path path) throws IOException {
+        BinaryTodoFile file = BinaryTodoFile.open(path);
+        List<TodoItem> loaded = new ArrayList<>(file.size());
+        for (int i = 0; i < file.size(); i++) loaded.add(file.item(i));
+        return loaded;
+    }
+
+    /** Map key of id: its {@link TodoIds#key} if standard, else the key it was given, else 0. */
+    private long keyOf(String id) {
+        long key = TodoIds.key(id);
+        if (key != 0) return key;
+        Long other = otherKeys.get(id);
+        return other == null ? 0 : other;
+    }
+
+    private Entry entry(String id) {
+        Entry e = byId.get(keyOf(id));
+        if (e != null) return e.item == null ? null : e;
+        TodoColumns base = columns;
+        if (base == null) return null;
+        int row = base.rowOf(id);
+        return row < 0 ? null : new Entry(base.item(row), base.seq(row));
+    }
+
+    /** Call with the monitor held. */
+    private void putEntry(String id, Entry entry) {
+        long key = keyOf(id);
+        if (key == 0) {
+            key = nextOtherKey--;
+            otherKeys.put(id, key);
+        }
+        byId.put(key, entry);
+    }
+
+    /** Call with the monitor held. */
+    private Entry removeEntry(String id) {
+        Entry removed = entry(id);
+        if (removed == null) return null;
+        TodoColumns base = columns;
+        if (base != null && base.rowOf(id) >= 0) {
+            putEntry(id, new Entry(null, removed.seq)); // keeps the base row hidden
+        } else {
+            byId.remove(keyOf(id));
+            if (TodoIds.key(id) == 0) otherKeys.remove(id);
+        }
+        return removed;
+    }
+
+    /**
+     * Columnar stores: once the changes held in the index's tree reach half the base, builds
+     * new columns from the current items (renumbering their sequences) so bulk edits and imports
+     * do not stay as one object per item. A built search index is renumbered along with them.
+     * Call with the monitor held, after publishing index.
+     */
+    private void maybeRebase() {
+        DateIndex idx = index;
+        if (!columnar || idx.deltaSize() < REBASE_MIN_DELTA || idx.deltaSize() < idx.baseSize() / 2) return;
+        List<TodoItem> items = idx.all();
+        TodoColumns base = TodoColumns.build(items);
+        TitleIndex t = titles;
+        if (t != null) titles = t.renumbered(idx.seqs(), seq -> base.item(base.rowOfSeq(seq)));
+        titleEpoch++;
+        columns = base; // before clearing byId, so lock-free lookups never miss an item
+        index = DateIndex.columnar(base).withRulesOf(idx);
+        byId.clear();
+        otherKeys.clear();
+        nextOtherKey = -1;
+        nextSeq = items.size();
+    }
+
+    private static final class Entry {
+        final TodoItem item;
+        final long seq;
+
+        Entry(TodoItem item, long seq) {
+            this.item = item;
+            this.seq = seq;
+        }
+    }
+
+    /** Items and date span touched by one mutation, for the change event. */
+    private static final class Change {
+        final List<TodoItem> items = new ArrayList<>();
+        LocalDate from;
+        LocalDate to;
+        boolean recurring;
+
+        void include(TodoItem item, boolean listItem) {
+            if (listItem) items.add(item);
+            span(item.getDate(), item.getEndDate());
+        }
+
+        /** A whole series changed; its occurrences are not listed. */
+        void include(Recurrence rule) {
+            recurring = true;
+            span(rule.getStart(), rule.getUntil() == null ? LocalDate.MAX : rule.getUntil());
+        }
+
+        private void span(LocalDate first, LocalDate last) {
+            if (from == null || first.isBefore(from)) from = first;
+            if (to == null || last.isAfter(to)) to = last;
+        }
+
+        TodoChangeEvent toEvent(TodoStore source, TodoChangeEvent.Type type) {
+            return from == null ? null : new TodoChangeEvent(source, type, from, to, items, recurring);
+        }
+    }
+
+    /**
+     * Stores item as the current version of its id (keeping the old version's position) and
+     * returns the next index version; the caller publishes it. Call with the monitor held.
+     */
+    private DateIndex put(DateIndex idx, TodoItem item, Change change) {
+        idx = requireResident(idx, item);
+        Entry previous = entry(item.getId());
+        long seq;
+        if (previous != null) {
+            seq = previous.seq;
+            idx = idx.without(previous.item, seq);
+            change.include(previous.item, false);
+            markDirty(previous.item);
+        } else {
+            seq = nextSeq++;
+        }
+        putEntry(item.getId(), new Entry(item, seq));
+        index(seq, previous == null ? null : previous.item, item);
+        change.include(item, true);
+        markDirty(item);
+        return idx.with(item, seq);
+    }
+
+    /** Drops the current version of id; returns the next index version. Call with the monitor held. */
+    private DateIndex delete(DateIndex idx, String id, Change change) {
+        Entry previous = removeEntry(id);
+        if (previous == null) return idx;
+        unindex(previous);
+        change.include(previous.item, true);
+        markDirty(previous.item);
+        return idx.without(previous.item, previous.seq);
+    }
+
+    private void index(long seq, TodoItem previous, TodoItem item) {
+        TitleIndex t = titles;
+        if (t != null) t.put((int) seq, previous, item);
+        else if (titleBacklog != null) titleBacklog.add(b -> b.put((int) seq, previous, item));
+    }
+
+    private void unindex(Entry entry) {
+        TitleIndex t = titles;
+        if (t != null) t.remove((int) entry.seq, entry.item);
+        else if (titleBacklog != null) titleBacklog.add(b -> b.remove((int) entry.seq, entry.item));
+    }
+
+    /**
+     * True for a segmented store: {@link #search} then only sees the months in memory around the
+     * focused month and items spanning months, not every stored item.
+     */
+    public boolean searchesLoadedMonthsOnly() {
+        return segments != null;
+    }
+
+    /**
+     * Items whose title has, for every word of query, a word starting with it (ignoring case):
+     * the limit earliest by date, in date order. The index behind it is built on the first call.
+     * A segmented store only searches its resident months (see {@link #searchesLoadedMonthsOnly}).
+     */
+    public List<TodoItem> search(String query, int limit) {
+        long start = System.nanoTime();
+        TitleIndex t = titles;
+        if (t == null) t = buildTitles();
+        List<TodoItem> found = new ArrayList<>(t.search(query, limit));
+        List<String> words = TitleIndex.tokens(query);
+        LocalDate today = LocalDate.now();
+        for (Recurrence rule : index.rules()) {
+            if (words.isEmpty()) break;
+            if (!TitleIndex.matches(rule.getTitle(), words)) continue;
+            TodoItem next = rule.nextOccurrence(today); // a series is found through its next occurrence
+            if (next != null) found.add(next);
+        }
+        found.sort(Comparator.comparing(TodoItem::getDate)); // stable: index hits keep their order
+        if (found.size() > limit) found.subList(limit, found.size()).clear();
+        searchTimer.recordSince(start);
+        return found;
+    }
+
+    /**
+     * Builds the title index from a snapshot of the date index without holding the monitor, so
+     * writers carry on meanwhile; their changes queue up in titleBacklog and are replayed into
+     * the index before it is published. Starts over if a load or rebase renumbered the items.
+     */
+    private TitleIndex buildTitles() {
+        synchronized (titleBuildLock) {
+            while (true) {
+                DateIndex idx;
+                TodoColumns base;
+                long epoch;
+                synchronized (this) {
+                    if (titles != null) return titles;
+                    idx = index;
+                    base = columns;
+                    epoch = titleEpoch;
+                    titleBacklog = new ArrayList<>();
+                }
+                TitleIndex built = base == null ? new TitleIndex()
+                        : new TitleIndex(base.size(), seq -> base.item(base.rowOfSeq(seq)));
+                idx.forEachChange((item, seq) -> built.preload((int) seq, item));
+                built.rebuild();
+                synchronized (this) {
+                    List<Consumer<TitleIndex>> backlog = titleBacklog;
+                    titleBacklog = null;
+                    if (epoch != titleEpoch) continue;
+                    for (Consumer<TitleIndex> change : backlog) change.accept(built);
+                    titles = built;
+                    return built;
+                }
+            }
+        }
+    }
+
+    public void addListener(TodoStoreListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TodoStoreListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fire(TodoChangeEvent event) {
+        if (event == null || replaying) return;
+        for (TodoStoreListener l : listeners) l.todosChanged(event);
+    }
+
+    /**
+     * Writes items to a temp file in the current format, fsyncs it and moves it over the
+     * data file, so a crash mid-write leaves the previous snapshot intact.
+     */
+    private void writeSnapshot(List<TodoItem> snapshot) throws IOException {
+        long start = System.nanoTime();
+        metrics.addBytesWritten(writeItems(filePath, snapshot, binary));
+        snapshotWriteTimer.recordSince(start);
+    }
+
+    /** Writes items to file as {@link #writeSnapshot} does, in text or binary form; returns the bytes written. */
+    static long writeItems(Path file, List<TodoItem> items, boolean binary) throws IOException {
+        Path dir = file.getParent();
         if (dir != null && !Files.exists(dir)) Files.createDirectories(dir);
-        try (var writer = Files.newBufferedWriter(filePath)) {
-            for (TodoItem item : items) {
-                writer.write(formatLine(item));
-                writer.newLine();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long size;
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            if (binary) BinaryTodoFile.write(out, items);
+            else writeText(out, items);
+            out.force(true);
+            size = out.size();
+        }
+        replaceFile(tmp, file);
+        return size;
+    }
+
+    private static void writeText(FileChannel out, List<TodoItem> snapshot) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (TodoItem item : snapshot) {
+            sb.append(formatLine(item)).append(System.lineSeparator());
+            if (sb.length() >= 64 * 1024) {
+                writeFully(out, sb);
+                sb.setLength(0);
+            }
+        }
+        writeFully(out, sb);
+    }
+
+    private static void writeFully(FileChannel out, CharSequence cs) throws IOException {
+        ByteBuffer buf = StandardCharsets.UTF_8.encode(CharBuffer.wrap(cs));
+        while (buf.hasRemaining()) out.write(buf);
+    }
+
+    static void replaceFile(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Moves saving onto a background writer thread. Saves requested within debounceMillis of
+     * each other are coalesced into one write, made once requests pause for debounceMillis (at
+     * the latest ten windows after the first); failures are passed to onError on the writer thread.
+     * Pending changes are also flushed from a JVM shutdown hook.
+     */
+    public synchronized void enableWriteBehind(long debounceMillis, Consumer<Exception> onError) {
+        if (saver != null) return;
+        WriteBehindSaver s = new WriteBehindSaver(this::save, debounceMillis, onError);
+        saver = s;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                s.flush();
+            } catch (Exception e) {
+                System.err.println("Could not save todos on exit: " + e.getMessage());
             }
+        }, "todo-shutdown-flush"));
+    }
+
+    /** Saves in the background when write-behind is enabled, otherwise saves now. */
+    public void requestSave() throws IOException {
+        WriteBehindSaver s = saver;
+        if (s != null) s.request();
+        else save();
+    }
+
+    /** Blocks until all requested saves are on disk. */
+    public void flush() throws Exception {
+        WriteBehindSaver s = saver;
+        if (s != null) s.flush();
+    }
+
+    /** Stops watching, flushes pending saves and releases the writer thread, journal and repository. */
+    public void close() throws Exception {
+        try {
+            TodoFileWatcher w = watcher;
+            if (w != null) w.close();
+            WriteBehindSaver s = saver;
+            if (s != null) s.close();
+        } finally {
+            if (journal != null) journal.close();
+            if (repository != null) repository.close();
         }
     }
 
-    private static String formatLine(TodoItem item) {
+    /** Applies one journal record (see {@link TodoJournal}) during replay. */
+    private void applyRecord(String record) {
+        String payload = record.substring(2);
+        if (record.charAt(0) == TodoJournal.REMOVE) {
+            removeById(payload);
+            return;
+        }
+        TodoItem item = parseLine(payload);
+        if (item != null) add(item);
+    }
+
+    private void record(char op, String payload) {
+        if (journal == null) return;
+        synchronized (pendingRecords) {
+            pendingRecords.add(op + "|" + payload);
+        }
+    }
+
+    static String formatLine(TodoItem item) {
         return item.getId() + "|" + item.getDate() + "|" + item.getEndDate() + "|" + escape(item.getTitle()) + "|" + item.isCompleted();
     }
 
@@ -62,6 +1071,52 @@ public class TodoStore {
         return s.replace("\u2016", "|");
     }
 
+    /** id|start|until|frequency|weekdays|title|completed days|deleted days; until may be empty. */
+    static String formatRule(Recurrence rule) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(rule.getId()).append('|').append(rule.getStart()).append('|');
+        if (rule.getUntil() != null) sb.append(rule.getUntil());
+        sb.append('|').append(rule.getFrequency()).append('|');
+        StringJoiner days = new StringJoiner(",");
+        for (DayOfWeek d : rule.getDays()) days.add(String.valueOf(d.getValue()));
+        sb.append(days).append('|').append(escape(rule.getTitle())).append('|');
+        appendDays(sb, rule.completedDays()).append('|');
+        appendDays(sb, rule.skippedDays());
+        return sb.toString();
+    }
+
+    private static StringBuilder appendDays(StringBuilder sb, long[] days) {
+        for (int i = 0; i < days.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(LocalDate.ofEpochDay(days[i]));
+        }
+        return sb;
+    }
+
+    static Recurrence parseRule(String line) {
+        String[] f = line.split("\\|", -1);
+        if (f.length != 8) return null;
+        try {
+            Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+            for (String d : f[4].split(",")) {
+                if (!d.isEmpty()) days.add(DayOfWeek.of(Integer.parseInt(d)));
+            }
+            return Recurrence.restore(f[0], unescape(f[5]), LocalDate.parse(f[1]),
+                    f[2].isEmpty() ? null : LocalDate.parse(f[2]), Recurrence.Frequency.valueOf(f[3]), days,
+                    parseDays(f[6]), parseDays(f[7]));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static long[] parseDays(String s) {
+        if (s.isEmpty()) return new long[0];
+        String[] parts = s.split(",");
+        long[] days = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) days[i] = LocalDate.parse(parts[i]).toEpochDay();
+        return days;
+    }
+
     private static TodoItem parseLine(String line) {
         int a = line.indexOf('|');
         if (a < 0) return null;
@@ -89,68 +1144,335 @@ public class TodoStore {
         } catch (Exception e) {
             return null;
         }
+        if (endDate.isBefore(date)) return null;
         String title = unescape(line.substring(c + 1, d));
         boolean completed = "true".equalsIgnoreCase(line.substring(d + 1).trim());
         return new TodoItem(id, date, endDate, title, completed);
     }
 
+    /** Consistent, immutable view of the store as of now. O(1); safe to use from any thread. */
+    public TodoSnapshot snapshot() {
+        return new TodoSnapshot(index);
+    }
+
     /** Items that include this date (single-day or multi-day range containing date). */
     public List<TodoItem> getItemsFor(LocalDate date) {
-        return items.stream()
-                .filter(i -> !date.isBefore(i.getDate()) && !date.isAfter(i.getEndDate()))
-                .collect(Collectors.toList());
+        long start = System.nanoTime();
+        List<TodoItem> items = snapshot().getItemsFor(date);
+        itemsForTimer.recordSince(start);
+        return items;
     }
 
     /** Items that overlap the range [from, to] (inclusive). One entry per item. */
     public List<TodoItem> getItemsInRange(LocalDate from, LocalDate to) {
-        return items.stream()
-                .filter(i -> !i.getEndDate().isBefore(from) && !i.getDate().isAfter(to))
-                .collect(Collectors.toList());
+        long start = System.nanoTime();
+        List<TodoItem> items = snapshot().getItemsInRange(from, to);
+        itemsInRangeTimer.recordSince(start);
+        return items;
+    }
+
+    /** Per-day total/completed counts for [from, to] (inclusive), in one pass over the overlapping items. */
+    public RangeSummary summarize(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        RangeSummary summary = snapshot().summarize(from, to);
+        summarizeTimer.recordSince(start);
+        return summary;
+    }
+
+    /** Per-day counts for every day of the month. */
+    public RangeSummary summarize(YearMonth month) {
+        return summarize(month.atDay(1), month.atEndOfMonth());
     }
 
+    /** All items in insertion order, as of one point in time. */
     public List<TodoItem> getAllItems() {
-        return new ArrayList<>(items);
+        return snapshot().getAllItems();
     }
 
+    /** Adds an item; an existing item with the same id is replaced in place. */
     public void add(TodoItem item) {
-        items.add(item);
+        Change change = new Change();
+        synchronized (this) {
+            index = put(index, item, change);
+            record(TodoJournal.ADD, formatLine(item));
+            maybeRebase();
+        }
+        fire(change.toEvent(this, TodoChangeEvent.Type.ADDED));
+    }
+
+    /**
+     * Stores item as the new version of its id. Returns false if that id is no longer in the store.
+     * For an occurrence of a recurring series only completion and title are kept, and a new
+     * title renames the whole series.
+     */
+    public boolean update(TodoItem item) {
+        Change change = new Change();
+        synchronized (this) {
+            if (!updateLocked(item, change)) return false;
+        }
+        fire(change.toEvent(this, TodoChangeEvent.Type.UPDATED));
+        return true;
+    }
+
+    private boolean updateLocked(TodoItem item, Change change) {
+        if (entry(item.getId()) == null) {
+            TodoItem occurrence = occurrence(index, item.getId());
+            if (occurrence == null) return false;
+            index = putOccurrence(index, occurrence, item, change);
+        } else {
+            index = put(index, item, change);
+            record(TodoJournal.UPDATE, formatLine(item));
+        }
+        maybeRebase();
+        return true;
+    }
+
+    /**
+     * Replaces the current version of id with edit applied to it, as one step with respect to
+     * other writers, so concurrent edits of different fields of one item are not lost. Returns
+     * the new version, or empty if id does not exist. edit must keep the id.
+     */
+    public Optional<TodoItem> modify(String id, UnaryOperator<TodoItem> edit) {
+        Change change = new Change();
+        TodoItem next;
+        synchronized (this) {
+            TodoItem current = current(id);
+            if (current == null) return Optional.empty();
+            next = edit.apply(current);
+            if (next == current) return Optional.of(current);
+            if (!next.getId().equals(id)) throw new IllegalArgumentException("An edit must keep the id " + id);
+            updateLocked(next, change);
+        }
+        fire(change.toEvent(this, TodoChangeEvent.Type.UPDATED));
+        return Optional.of(next);
+    }
+
+    /** Sets completion on the current version of id; returns the new version if id exists. */
+    public Optional<TodoItem> setCompleted(String id, boolean completed) {
+        return modify(id, item -> item.withCompleted(completed));
     }
 
+    /** Sets the title on the current version of id; returns the new version if id exists. */
+    public Optional<TodoItem> setTitle(String id, String title) {
+        return modify(id, item -> item.withTitle(title));
+    }
+
+    /** Removes the item with the same id as item (whichever version is current). */
     public void remove(TodoItem item) {
-        items.remove(item);
+        removeById(item.getId());
     }
 
-    public void removeById(String id) {
-        items.removeIf(i -> i.getId().equals(id));
+    /**
+     * Removes the item with this id; for an occurrence of a recurring series, just that
+     * occurrence. Returns what was removed, or empty if nothing had this id.
+     */
+    public Optional<TodoItem> removeById(String id) {
+        Change change = new Change();
+        TodoItem removed;
+        synchronized (this) {
+            Entry e = entry(id);
+            if (e == null) {
+                removed = occurrence(index, id);
+                if (removed == null) return Optional.empty();
+                index = putOccurrence(index, removed, null, change);
+            } else {
+                removed = e.item;
+                index = delete(index, id, change);
+                record(TodoJournal.REMOVE, id);
+            }
+        }
+        fire(change.toEvent(this, TodoChangeEvent.Type.REMOVED));
+        return Optional.of(removed);
     }
 
+    /** Current version of the item or occurrence with this id. */
     public Optional<TodoItem> getById(String id) {
-        return items.stream().filter(i -> i.getId().equals(id)).findFirst();
+        Entry e = entry(id);
+        return Optional.ofNullable(e != null ? e.item : occurrence(index, id));
+    }
+
+    /** Current version of id, a stored item or an occurrence, or null. */
+    private TodoItem current(String id) {
+        Entry e = entry(id);
+        return e != null ? e.item : occurrence(index, id);
+    }
+
+    /** The occurrence of a series in idx that id names, or null if id is not one. */
+    private static TodoItem occurrence(DateIndex idx, String id) {
+        String series = Recurrence.seriesId(id);
+        Recurrence rule = series == null ? null : idx.rule(series);
+        if (rule == null) return null;
+        LocalDate date = Recurrence.occurrenceDate(id);
+        return rule.occursOn(date) ? rule.occurrence(date) : null;
+    }
+
+    /**
+     * Applies an edit of occurrence to its series: next == null deletes the occurrence;
+     * otherwise next's completion is kept and a changed title renames the series. Returns the
+     * next index version. Call with the monitor held.
+     */
+    private DateIndex putOccurrence(DateIndex idx, TodoItem occurrence, TodoItem next, Change change) {
+        Recurrence rule = idx.rule(Recurrence.seriesId(occurrence.getId()));
+        LocalDate date = occurrence.getDate();
+        Recurrence changed;
+        if (next == null) {
+            changed = rule.withoutOccurrence(date);
+            change.include(occurrence, true);
+        } else {
+            changed = rule.withCompleted(date, next.isCompleted());
+            if (!rule.getTitle().equals(next.getTitle())) {
+                changed = changed.withTitle(next.getTitle());
+                change.include(changed);
+            }
+            change.include(changed.occurrence(date), true);
+        }
+        recurringDirty = true;
+        return idx.withRule(changed);
+    }
+
+    /** Recurring series, in the order they were added. */
+    public List<Recurrence> getRecurring() {
+        return index.rules();
+    }
+
+    /** The recurring series with this id. */
+    public Optional<Recurrence> getRecurring(String id) {
+        return Optional.ofNullable(index.rule(id));
+    }
+
+    /**
+     * Adds a recurring series, or replaces the one with the same id (e.g. to rename it or end
+     * it with {@link Recurrence#withUntil}). Saved by the next {@link #save()}.
+     */
+    public void addRecurring(Recurrence rule) {
+        Change change = new Change();
+        TodoChangeEvent.Type type;
+        synchronized (this) {
+            Recurrence previous = index.rule(rule.getId());
+            type = previous == null ? TodoChangeEvent.Type.ADDED : TodoChangeEvent.Type.UPDATED;
+            if (previous != null) change.include(previous);
+            change.include(rule);
+            index = index.withRule(rule);
+            recurringDirty = true;
+        }
+        fire(change.toEvent(this, type));
+    }
+
+    /** Removes a recurring series and all its occurrences; false if there is no such series. */
+    public boolean removeRecurring(String id) {
+        Change change = new Change();
+        synchronized (this) {
+            Recurrence previous = index.rule(id);
+            if (previous == null) return false;
+            change.include(previous);
+            index = index.withoutRule(id);
+            recurringDirty = true;
+        }
+        fire(change.toEvent(this, TodoChangeEvent.Type.REMOVED));
+        return true;
+    }
+
+    /** Builds a batch with body and applies it; see {@link #apply(TodoBatch)}. */
+    public void batch(Consumer<TodoBatch> body) {
+        TodoBatch batch = new TodoBatch();
+        body.accept(batch);
+        apply(batch);
+    }
+
+    /**
+     * Applies all changes in the batch at once: the next index version is built from all of them
+     * and published once, so readers see none or all, listeners get one event, and the journal
+     * gets one all-or-nothing group. Completion and title changes apply to the current version
+     * of each item's id. Call {@link #requestSave()} once afterwards to persist the whole batch.
+     */
+    public void apply(TodoBatch batch) {
+        if (batch.isEmpty()) return;
+        Change change = new Change();
+        synchronized (this) {
+            if (segments != null) {
+                // Page in every month the batch adds to first, so a failure leaves no half-applied batch.
+                DateIndex paged = index;
+                try {
+                    for (TodoBatch.Op op : batch.ops()) {
+                        if (op.kind == TodoBatch.Kind.ADD) paged = requireResident(paged, op.item);
+                    }
+                } finally {
+                    index = paged;
+                }
+            }
+            DateIndex idx = index;
+            Map<String, TodoItem> updated = new LinkedHashMap<>();
+            List<String> records = new ArrayList<>();
+            for (TodoBatch.Op op : batch.ops()) {
+                String id = op.item.getId();
+                switch (op.kind) {
+                    case ADD:
+                        idx = put(idx, op.item, change);
+                        updated.remove(id);
+                        records.add(TodoJournal.ADD + "|" + formatLine(op.item));
+                        break;
+                    case REMOVE:
+                        if (entry(id) != null) {
+                            idx = delete(idx, id, change);
+                            updated.remove(id);
+                            records.add(TodoJournal.REMOVE + "|" + id);
+                        } else {
+                            TodoItem occurrence = occurrence(idx, id);
+                            if (occurrence != null) idx = putOccurrence(idx, occurrence, null, change);
+                        }
+                        break;
+                    case SET_COMPLETED:
+                    case SET_TITLE: {
+                        Entry e = entry(id);
+                        TodoItem current = e != null ? e.item : occurrence(idx, id);
+                        if (current == null) break;
+                        TodoItem next = op.kind == TodoBatch.Kind.SET_COMPLETED
+                                ? current.withCompleted(op.completed) : current.withTitle(op.title);
+                        if (next == current) break;
+                        if (e == null) {
+                            idx = putOccurrence(idx, current, next, change);
+                            break;
+                        }
+                        idx = put(idx, next, change);
+                        updated.put(id, next);
+                        break;
+                    }
+                }
+            }
+            for (TodoItem item : updated.values()) records.add(TodoJournal.UPDATE + "|" + formatLine(item));
+            index = idx;
+            if (journal != null && !records.isEmpty()) {
+                synchronized (pendingRecords) {
+                    pendingRecords.add(TodoJournal.BATCH + "|" + records.size());
+                    pendingRecords.addAll(records);
+                    pendingRecords.add(TodoJournal.END + "|" + records.size());
+                }
+            }
+            maybeRebase();
+        }
+        fire(change.toEvent(this, TodoChangeEvent.Type.BATCH));
     }
 
     /** Completed count for the given date (items spanning this date that are completed). */
     public long completedCount(LocalDate date) {
-        return items.stream()
-                .filter(i -> !date.isBefore(i.getDate()) && !date.isAfter(i.getEndDate()) && i.isCompleted())
-                .count();
+        return snapshot().completedCount(date);
     }
 
     /** Total count for the given date (items spanning this date). */
     public long totalCount(LocalDate date) {
-        return items.stream()
-                .filter(i -> !date.isBefore(i.getDate()) && !date.isAfter(i.getEndDate()))
-                .count();
+        return snapshot().totalCount(date);
     }
 
     /** Percent completed for the day (0–100). If no items, returns 0. */
     public int percentCompleted(LocalDate date) {
-        long total = totalCount(date);
-        if (total == 0) return 0;
-        long done = completedCount(date);
-        return (int) Math.round(100.0 * done / total);
+        long start = System.nanoTime();
+        int percent = snapshot().percentCompleted(date);
+        percentTimer.recordSince(start);
+        return percent;
     }
 
+    /** A new time-ordered id (see {@link TodoIds}); ids from older versions remain valid. */
     public static String generateId() {
-        return UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        return TodoIds.next();
     }
 }
@@ -0,0 +1,9 @@
+package com.todolist;
+
+/**
+ * Receives {@link TodoChangeEvent}s from a {@link TodoStore}. Called on the thread that made
+ * the change, after the store has released its lock.
+ */
+public interface TodoStoreListener {
+    void todosChanged(TodoChangeEvent event);
+}
@@ -0,0 +1,120 @@
+package com.todolist;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs {@link TodoStore#save()} on a dedicated writer thread. Each save request pushes the
+ * write back to one debounce window after it, so a burst of requests becomes one write; a burst
+ * that never pauses is still written once the maximum wait has passed since its first request.
+ * Failures go to an error callback instead of the caller, so the EDT never waits on disk.
+ */
+final class WriteBehindSaver {
+    interface SaveAction {
+        void save() throws Exception;
+    }
+
+    private final SaveAction action;
+    private final long debounceNanos;
+    private final long maxWaitNanos;
+    private final Consumer<Exception> onError;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "todo-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private boolean dirty;
+    private boolean timerPending;
+    private boolean closed;
+    /** System.nanoTime() of the first and the latest request of the burst the timer is waiting on. */
+    private long burstStart;
+    private long lastRequest;
+
+    /** Waits at most ten debounce windows for a burst to pause. */
+    WriteBehindSaver(SaveAction action, long debounceMillis, Consumer<Exception> onError) {
+        this(action, debounceMillis, debounceMillis * 10, onError);
+    }
+
+    WriteBehindSaver(SaveAction action, long debounceMillis, long maxWaitMillis,
+            Consumer<Exception> onError) {
+        this.action = action;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(maxWaitMillis, debounceMillis));
+        this.onError = onError;
+    }
+
+    /** Marks the store dirty; the write happens once requests pause for the debounce window. */
+    synchronized void request() {
+        dirty = true;
+        lastRequest = System.nanoTime();
+        if (timerPending || closed) return;
+        timerPending = true;
+        burstStart = lastRequest;
+        schedule(debounceNanos);
+    }
+
+    private void schedule(long delayNanos) {
+        writer.schedule(this::timerFired, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Saves if the burst has paused or waited long enough; otherwise sleeps until it might have. */
+    private void timerFired() {
+        synchronized (this) {
+            long due = Math.min(lastRequest + debounceNanos, burstStart + maxWaitNanos);
+            long wait = due - System.nanoTime();
+            if (wait > 0 && !closed) {
+                schedule(wait);
+                return;
+            }
+            timerPending = false;
+        }
+        Exception e = saveIfDirty();
+        if (e != null) onError.accept(e);
+    }
+
+    /** Writes any pending changes now and waits for the write; rethrows its failure. */
+    void flush() throws Exception {
+        Exception failure;
+        try {
+            failure = writer.submit(this::saveIfDirty).get();
+        } catch (ExecutionException e) {
+            failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (RejectedExecutionException e) {
+            failure = saveIfDirty();
+        }
+        if (failure != null) throw failure;
+    }
+
+    /** Flushes, then stops the writer thread. Later requests are ignored. */
+    void close() throws Exception {
+        try {
+            flush();
+        } finally {
+            synchronized (this) {
+                closed = true;
+            }
+            writer.shutdown();
+        }
+    }
+
+    private Exception saveIfDirty() {
+        synchronized (this) {
+            if (!dirty) return null;
+            dirty = false;
+        }
+        try {
+            action.save();
+            return null;
+        } catch (Exception e) {
+            synchronized (this) {
+                dirty = true;
+            }
+            return e;
+        }
+    }
+}
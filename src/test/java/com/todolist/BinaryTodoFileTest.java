@@ -0,0 +1,150 @@
+package com.todolist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The TODB layout: round trips, header checks and files cut short. */
+class BinaryTodoFileTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 4, 7);
+
+    @TempDir
+    Path dir;
+
+    private final List<TodoItem> items = List.of(
+            new TodoItem("a", DAY, "Plain", false),
+            new TodoItem("b", DAY.minusDays(3), DAY.plusDays(2), "Multi-day | with bar", true),
+            new TodoItem("c", LocalDate.of(1970, 1, 1), "", false),
+            new TodoItem("d", DAY, "Ünïcödé ✓", true));
+
+    private Path write(List<TodoItem> items) throws IOException {
+        Path file = dir.resolve("todos.bin");
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            BinaryTodoFile.write(out, items);
+        }
+        return file;
+    }
+
+    @Test
+    void recordsRoundTrip() throws Exception {
+        BinaryTodoFile file = BinaryTodoFile.open(write(items));
+        assertEquals(items.size(), file.size());
+        for (int i = 0; i < items.size(); i++) {
+            TodoItem expected = items.get(i);
+            assertEquals(expected.getDate().toEpochDay(), file.startDay(i));
+            assertEquals(expected.getEndDate().toEpochDay(), file.endDay(i));
+            assertEquals(expected.isCompleted(), file.isCompleted(i));
+            assertEquals(expected.getId(), file.id(i));
+            assertEquals(expected.getTitle(), file.title(i));
+            assertEquals(TodoStore.formatLine(expected), TodoStore.formatLine(file.item(i)));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> file.startDay(items.size()));
+        assertEquals(0, BinaryTodoFile.open(write(List.of())).size());
+    }
+
+    @Test
+    void detectsTheMagicNumber() throws Exception {
+        Path text = dir.resolve("todos.txt");
+        Files.writeString(text, "a|2025-04-07|Plain|false\n");
+        assertFalse(BinaryTodoFile.isBinary(text));
+        assertFalse(BinaryTodoFile.isBinary(dir.resolve("missing")));
+        Files.write(text, new byte[] {'T', 'O'});
+        assertFalse(BinaryTodoFile.isBinary(text));
+        assertTrue(BinaryTodoFile.isBinary(write(items)));
+        assertThrows(IOException.class, () -> BinaryTodoFile.open(text));
+    }
+
+    @Test
+    void rejectsAnUnknownVersionAndAFileCutShort() throws Exception {
+        Path file = write(items);
+        byte[] bytes = Files.readAllBytes(file);
+
+        byte[] version = bytes.clone();
+        ByteBuffer.wrap(version).putInt(4, 99);
+        Files.write(file, version);
+        assertThrows(IOException.class, () -> BinaryTodoFile.open(file));
+
+        for (int length : new int[] {0, 10, 16, 16 + 17, 16 + 17 * items.size() - 1}) {
+            Files.write(file, Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> BinaryTodoFile.open(file), length + " bytes");
+        }
+    }
+
+    @Test
+    void storeKeepsTheFormatItLoaded() throws Exception {
+        Path file = dir.resolve("todos.txt");
+        Files.copy(write(items), file);
+        TodoStore store = new TodoStore(file);
+        store.load();
+        assertEquals(lines(items), lines(store.getAllItems()));
+        store.add(new TodoItem("e", DAY.plusDays(1), "Added", false));
+        store.save();
+        assertTrue(BinaryTodoFile.isBinary(file));
+
+        TodoStore reopened = new TodoStore(file);
+        reopened.load();
+        assertEquals(lines(store.getAllItems()), lines(reopened.getAllItems()));
+
+        Path text = dir.resolve("converted.txt");
+        BinaryTodoFile.convertToText(file, text);
+        TodoStore fromText = new TodoStore(text);
+        fromText.load();
+        assertEquals(lines(reopened.getAllItems()), lines(fromText.getAllItems()));
+    }
+
+    @Test
+    void idKeysAreReadFromTheRawBytes() throws Exception {
+        List<String> ids = List.of(TodoIds.next(), "00000000abcd", "a", "ÜÜÜÜÜÜ", "8zzzzzzzzzzzz", "0000000000ABC");
+        BinaryTodoFile file = BinaryTodoFile.open(write(ids.stream().map(id -> new TodoItem(id, DAY, "t", false)).toList()));
+        for (int i = 0; i < ids.size(); i++) assertEquals(TodoIds.key(ids.get(i)), file.idKey(i), ids.get(i));
+    }
+
+    @Test
+    void storeFoldsDuplicateIdsAndEditsOnTopOfTheFile() throws Exception {
+        Path file = dir.resolve("todos.txt");
+        String a = TodoIds.next();
+        String b = TodoIds.next();
+        Files.copy(write(List.of(
+                new TodoItem(a, DAY, "First", false),
+                new TodoItem("other", DAY, "Other id", false),
+                new TodoItem(b, DAY.plusDays(1), "Second", false),
+                new TodoItem(a, DAY.plusDays(2), "First again", true),
+                new TodoItem("other", DAY, "Other id again", true))), file);
+        TodoStore store = new TodoStore(file);
+        store.load();
+        assertEquals(List.of(
+                a + "|" + DAY.plusDays(2) + "|" + DAY.plusDays(2) + "|First again|true",
+                "other|" + DAY + "|" + DAY + "|Other id again|true",
+                b + "|" + DAY.plusDays(1) + "|" + DAY.plusDays(1) + "|Second|false"), lines(store.getAllItems()));
+        assertEquals("Second", store.getById(b).orElseThrow().getTitle());
+        assertEquals(List.of("First again"), store.search("again first", 10).stream().map(TodoItem::getTitle).toList());
+
+        store.setTitle(b, "Second, renamed");
+        store.removeById(a);
+        store.add(new TodoItem("c", DAY, "Added", false));
+        assertTrue(store.getById(a).isEmpty());
+        assertEquals(List.of("Second, renamed"), store.search("renamed", 10).stream().map(TodoItem::getTitle).toList());
+        store.save();
+
+        TodoStore reopened = new TodoStore(file);
+        reopened.load();
+        assertEquals(lines(store.getAllItems()), lines(reopened.getAllItems()));
+        assertEquals(List.of("other", b, "c"), reopened.getAllItems().stream().map(TodoItem::getId).toList());
+    }
+
+    private static List<String> lines(List<TodoItem> items) {
+        return items.stream().map(TodoStore::formatLine).toList();
+    }
+}
@@ -0,0 +1,116 @@
+package com.todolist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** RFC 4180 parsing edge cases, export round trips and repeated imports. */
+class CsvTodoFormatTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 1);
+
+    @TempDir
+    Path dir;
+
+    private final CsvTodoFormat format = new CsvTodoFormat();
+
+    private List<TodoItem> read(String csv, long expectedSkipped) throws IOException {
+        List<TodoItem> items = new ArrayList<>();
+        assertEquals(expectedSkipped, format.read(new StringReader(csv), items::add));
+        return items;
+    }
+
+    @Test
+    void exportReadsBackUnchanged() throws Exception {
+        List<TodoItem> items = List.of(
+                new TodoItem(TodoStore.generateId(), DAY, "Plain", false),
+                new TodoItem(TodoStore.generateId(), DAY, DAY.plusDays(4), "Comma, inside", true),
+                new TodoItem(TodoStore.generateId(), DAY, "She said \"hi\"", false),
+                new TodoItem(TodoStore.generateId(), DAY, "", true),
+                new TodoItem(TodoStore.generateId(), DAY, "Ünïcödé ✓ | bar", false));
+        StringWriter out = new StringWriter();
+        format.write(out, items);
+        assertTrue(out.toString().startsWith("id,start,end,title,completed\r\n"));
+        assertTrue(out.toString().contains(",\"She said \"\"hi\"\"\","));
+        assertEquals(lines(items), lines(read(out.toString(), 0)));
+    }
+
+    @Test
+    void quotedFieldsMayHoldSeparatorsQuotesAndLineBreaks() throws Exception {
+        String csv = "\uFEFFTitle,Due Date,Done,UID\r\n"
+                + "\"Line one\r\nline two\",2025-09-01,yes,a\r\n"
+                + "\"He said \"\"no\"\", then left\",2025-09-02T10:30:00,0,b\n"
+                + "\r\n"
+                + "Trailing row without newline,2025-09-03,x,c";
+        List<TodoItem> items = read(csv, 0);
+        assertEquals(List.of(
+                id("a") + "|2025-09-01|2025-09-01|Line one  line two|true",
+                id("b") + "|2025-09-02|2025-09-02|He said \"no\", then left|false",
+                id("c") + "|2025-09-03|2025-09-03|Trailing row without newline|true"), lines(items));
+    }
+
+    @Test
+    void eitherDateAloneMakesASingleDayTodo() throws Exception {
+        String csv = "id,start,end,title,status\n"
+                + "a,2025-09-01,,Start only,done\n"
+                + "b,,2025-09-05,Due only,open\n"
+                + "c,,,No dates,done\n"
+                + "d,2025-09-05,2025-09-01,Ends before it starts,done\n"
+                + "e,not a date,2025-09-06,Bad start,completed\n"
+                + "f,2025-09-07\n";
+        assertEquals(List.of(
+                id("a") + "|2025-09-01|2025-09-01|Start only|true",
+                id("b") + "|2025-09-05|2025-09-05|Due only|false",
+                id("e") + "|2025-09-06|2025-09-06|Bad start|true",
+                id("f") + "|2025-09-07|2025-09-07||false"), lines(read(csv, 2)));
+    }
+
+    @Test
+    void malformedInputIsRejected() throws Exception {
+        assertTrue(read("", 0).isEmpty());
+        assertThrows(IOException.class, () -> read("id,title\na,Task\n", 0));
+        assertThrows(IOException.class, () -> read("start,title\n2025-09-01,\"Never closed\n", 0));
+    }
+
+    @Test
+    void importingTheSameFileTwiceUpdatesInsteadOfDuplicating() throws Exception {
+        String foreign = "{3F2504E0-4F89-11D3-9A0C-0305E82C3301} / exported";
+        assertEquals(TodoFormat.importId(foreign), TodoFormat.importId(" " + foreign + " "));
+        assertNotEquals(TodoFormat.importId(foreign), TodoFormat.importId(foreign + "2"));
+        assertNotEquals(TodoFormat.importId(""), TodoFormat.importId(""));
+
+        Path file = dir.resolve("todos.csv");
+        Files.writeString(file, "uid,date,title,completed\n"
+                + "\"" + foreign + "\",2025-09-01,First,false\n"
+                + "outlook-42@example.com,2025-09-02,Second,false\n", StandardCharsets.UTF_8);
+        TodoStore store = new TodoStore(dir.resolve("todos.txt"));
+        store.load();
+        TodoCli.importFile(store, format, file, 1);
+        List<String> ids = store.getAllItems().stream().map(TodoItem::getId).toList();
+        assertEquals(2, ids.size());
+        assertEquals(TodoFormat.importId(foreign), ids.get(0));
+
+        Files.writeString(file, Files.readString(file).replace("Second,false", "Second,true"), StandardCharsets.UTF_8);
+        TodoCli.importFile(store, format, file, 1);
+        assertEquals(ids, store.getAllItems().stream().map(TodoItem::getId).toList());
+        assertTrue(store.getById(ids.get(1)).orElseThrow().isCompleted());
+    }
+
+    private static String id(String uid) {
+        return TodoFormat.importId(uid);
+    }
+
+    private static List<String> lines(List<TodoItem> items) {
+        return items.stream().map(TodoStore::formatLine).toList();
+    }
+}
@@ -0,0 +1,107 @@
+package com.todolist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DateIndexTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 1);
+
+    @TempDir
+    Path dir;
+
+    /** Day and range queries against a linear scan, while items are added and removed. */
+    @Test
+    void queriesMatchALinearScan() {
+        Random rnd = new Random(9);
+        List<TodoItem> items = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) items.add(item(rnd, i));
+        DateIndex index = DateIndex.build(items);
+        List<TodoItem> live = new ArrayList<>(items);
+        List<Long> seqs = new ArrayList<>();
+        for (long i = 0; i < items.size(); i++) seqs.add(i);
+        for (int i = 0; i < 3000; i++) {
+            if (rnd.nextBoolean() && !live.isEmpty()) {
+                int at = rnd.nextInt(live.size());
+                index = index.without(live.remove(at), seqs.remove(at));
+            } else {
+                TodoItem item = item(rnd, 10_000 + i);
+                index = index.with(item, 10_000L + i);
+                live.add(item);
+                seqs.add(10_000L + i);
+            }
+        }
+        assertEquals(live.size(), index.size());
+        assertEquals(ids(live), ids(index.all()));
+        for (int q = 0; q < 300; q++) {
+            LocalDate from = DAY.plusDays(rnd.nextInt(400) - 20);
+            LocalDate to = from.plusDays(rnd.nextInt(20));
+            List<TodoItem> expected = live.stream()
+                    .filter(it -> !it.getDate().isAfter(to) && !it.getEndDate().isBefore(from)).toList();
+            assertEquals(ids(expected), ids(index.overlapping(from, to)), from + ".." + to);
+            long done = live.stream()
+                    .filter(it -> it.isCompleted() && !it.getDate().isAfter(from) && !it.getEndDate().isBefore(from)).count();
+            assertEquals(done, index.countCovering(from, true), from.toString());
+        }
+    }
+
+    /**
+     * Readers take snapshots while a writer keeps moving items between two days; every snapshot
+     * must hold each item exactly once, on one of the days.
+     */
+    @Test
+    void snapshotsAreConsistentUnderConcurrentWrites() throws Exception {
+        TodoStore store = new TodoStore(dir.resolve("todos.txt"));
+        LocalDate a = DAY;
+        LocalDate b = DAY.plusDays(1);
+        int n = 200;
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            TodoItem item = new TodoItem(TodoStore.generateId(), a, "Item " + i, false);
+            ids.add(item.getId());
+            store.add(item);
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                while (!done.get() && failure.get() == null) {
+                    TodoSnapshot snap = store.snapshot();
+                    int onA = snap.getItemsFor(a).size();
+                    int onB = snap.getItemsFor(b).size();
+                    if (onA + onB != n || snap.size() != n) failure.set(onA + " + " + onB + " items, size " + snap.size());
+                    if (snap.summarize(a, b).totalCount(a) != onA) failure.set("summary disagrees with the day query");
+                }
+            });
+            readers[r].start();
+        }
+        Random rnd = new Random(1);
+        for (int i = 0; i < 20_000; i++) {
+            String id = ids.get(rnd.nextInt(n));
+            TodoItem item = store.getById(id).orElseThrow();
+            store.update(new TodoItem(id, item.getDate().equals(a) ? b : a, item.getTitle(), !item.isCompleted()));
+        }
+        done.set(true);
+        for (Thread t : readers) t.join();
+        assertNull(failure.get());
+    }
+
+    private static TodoItem item(Random rnd, int i) {
+        LocalDate start = DAY.plusDays(rnd.nextInt(365));
+        return new TodoItem("id" + i, start, start.plusDays(rnd.nextInt(5) == 0 ? rnd.nextInt(30) : 0), "Item " + i, i % 3 == 0);
+    }
+
+    private static List<String> ids(List<TodoItem> items) {
+        return items.stream().map(TodoItem::getId).toList();
+    }
+}
@@ -0,0 +1,128 @@
+package com.todolist;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** RFC 5545 VTODO parsing edge cases and export round trips. */
+class IcsTodoFormatTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 1);
+
+    private final IcsTodoFormat format = new IcsTodoFormat();
+
+    private List<TodoItem> read(String ics, long expectedSkipped) throws Exception {
+        List<TodoItem> items = new ArrayList<>();
+        assertEquals(expectedSkipped, format.read(new StringReader(ics), items::add));
+        return items;
+    }
+
+    private static String calendar(String... lines) {
+        return "BEGIN:VCALENDAR\r\nVERSION:2.0\r\n" + String.join("\r\n", lines) + "\r\nEND:VCALENDAR\r\n";
+    }
+
+    @Test
+    void exportReadsBackUnchangedAndIsFolded() throws Exception {
+        List<TodoItem> items = List.of(
+                new TodoItem(TodoStore.generateId(), DAY, "Plain", false),
+                new TodoItem(TodoStore.generateId(), DAY, DAY.plusDays(2), "Semi; comma, back\\slash", true),
+                new TodoItem(TodoStore.generateId(), DAY, "Ünïcödé ✓ ".repeat(20), false),
+                new TodoItem(TodoStore.generateId(), DAY, "", false));
+        StringWriter out = new StringWriter();
+        format.write(out, items);
+        String text = out.toString();
+        for (String line : text.split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+        }
+        assertTrue(text.contains("\r\n "), "long summary is folded");
+        assertFalse(text.replace("\r\n", "").contains("\n"));
+        assertEquals(lines(items), lines(read(text, 0)));
+    }
+
+    @Test
+    void foldedLinesAreUnfolded() throws Exception {
+        List<TodoItem> items = read(calendar(
+                "BEGIN:VTODO",
+                "UID:a",
+                "SUMMARY:Call the",
+                "  dentist about",
+                "\t the bill\\, again",
+                "DTSTART;VALUE=DATE:2025",
+                " 0901",
+                "END:VTODO"), 0);
+        assertEquals(List.of(id("a") + "|2025-09-01|2025-09-01|Call the dentist about the bill, again|false"), lines(items));
+    }
+
+    @Test
+    void nestedComponentsDoNotLeakIntoTheTodo() throws Exception {
+        List<TodoItem> items = read(calendar(
+                "BEGIN:VEVENT",
+                "UID:event",
+                "SUMMARY:Not a todo",
+                "DTSTART:20250901T100000Z",
+                "END:VEVENT",
+                "BEGIN:VTODO",
+                "UID:a",
+                "SUMMARY:Outer",
+                "BEGIN:VALARM",
+                "SUMMARY:Alarm text",
+                "DTSTART:20300101",
+                "BEGIN:X-NESTED",
+                "SUMMARY:Deeper",
+                "END:X-NESTED",
+                "STATUS:COMPLETED",
+                "END:VALARM",
+                "DUE;VALUE=DATE:20250905",
+                "END:VTODO",
+                "BEGIN:VTODO",
+                "UID:b",
+                "SUMMARY:Next",
+                "DTSTART:20250902",
+                "END:VTODO"), 0);
+        assertEquals(List.of(
+                id("a") + "|2025-09-05|2025-09-05|Outer|false",
+                id("b") + "|2025-09-02|2025-09-02|Next|false"), lines(items));
+    }
+
+    @Test
+    void datesCompletionAndSkippedTodos() throws Exception {
+        List<TodoItem> items = read(calendar(
+                "BEGIN:VTODO", "UID:start-only", "DTSTART:20250901T090000", "STATUS:COMPLETED", "END:VTODO",
+                "BEGIN:VTODO", "UID:due-only", "DUE;TZID=\"Europe/Berlin: CET\":20250903T170000", "COMPLETED:20250902T100000Z", "END:VTODO",
+                "BEGIN:VTODO", "UID:both", "DTSTART;VALUE=DATE:20250901", "DUE;VALUE=DATE:20250904", "PERCENT-COMPLETE:100", "END:VTODO",
+                "BEGIN:VTODO", "UID:half", "dtstart:20250905", "percent-complete:50", "status:IN-PROCESS", "END:VTODO",
+                "BEGIN:VTODO", "UID:no-dates", "SUMMARY:Someday", "END:VTODO",
+                "BEGIN:VTODO", "UID:backwards", "DTSTART:20250910", "DUE:20250901", "END:VTODO",
+                "BEGIN:VTODO", "UID:bad-date", "DTSTART:soon", "END:VTODO"), 3);
+        assertEquals(List.of(
+                id("start-only") + "|2025-09-01|2025-09-01||true",
+                id("due-only") + "|2025-09-03|2025-09-03||true",
+                id("both") + "|2025-09-01|2025-09-04||true",
+                id("half") + "|2025-09-05|2025-09-05||false"), lines(items));
+    }
+
+    @Test
+    void theSameUidImportsToTheSameId() throws Exception {
+        String uid = "040000008200E00074C5B7101A82E008000000@outlook.example.com/with spaces";
+        String ics = calendar("BEGIN:VTODO", "UID:" + uid, "DTSTART:20250901", "END:VTODO");
+        String first = read(ics, 0).get(0).getId();
+        assertEquals(first, read(ics, 0).get(0).getId());
+        assertEquals(TodoFormat.importId(uid), first);
+        String noUid = calendar("BEGIN:VTODO", "DTSTART:20250901", "END:VTODO");
+        assertNotEquals(read(noUid, 0).get(0).getId(), read(noUid, 0).get(0).getId());
+    }
+
+    private static String id(String uid) {
+        return TodoFormat.importId(uid);
+    }
+
+    private static List<String> lines(List<TodoItem> items) {
+        return items.stream().map(TodoStore::formatLine).toList();
+    }
+}
@@ -0,0 +1,70 @@
+package com.todolist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectMapTest {
+    @Test
+    void behavesLikeAHashMap() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        Random rnd = new Random(3);
+        for (int i = 0; i < 200_000; i++) {
+            long key = rnd.nextInt(5000) - 2500L; // negative keys and probe runs across the wrap-around
+            if (key == 0) continue;
+            if (rnd.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = "v" + i;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+            if (i % 10_000 == 0) {
+                for (long k = -2500; k < 2500; k++) assertEquals(expected.get(k), map.get(k), "key " + k);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(17));
+        assertThrows(IllegalArgumentException.class, () -> map.put(0, "x"));
+    }
+
+    /** Lock-free readers during puts, removes and resizes see a key's value or nothing, never another key's. */
+    @Test
+    void readersNeverSeeAnotherKeysValue() throws Exception {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        long stable = 1L << 40;
+        for (long k = 1; k <= 1000; k++) map.put(stable + k, stable + k);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                Random rnd = new Random();
+                while (!done.get() && failure.get() == null) {
+                    long k = stable + 1 + rnd.nextInt(1000);
+                    if (!Long.valueOf(k).equals(map.get(k))) failure.set("stable key " + k + " missing");
+                    long churn = 1 + rnd.nextInt(100_000);
+                    Long v = map.get(churn);
+                    if (v != null && v != churn) failure.set("key " + churn + " read " + v);
+                }
+            });
+            readers[r].start();
+        }
+        for (int round = 0; round < 20; round++) {
+            for (long k = 1; k <= 100_000; k++) map.put(k, k);
+            for (long k = 1; k <= 100_000; k++) map.remove(k);
+        }
+        done.set(true);
+        for (Thread t : readers) t.join();
+        assertNull(failure.get());
+        assertEquals(1000, map.size());
+    }
+}
@@ -0,0 +1,100 @@
+package com.todolist;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceTest {
+    private static final LocalDate MONDAY = LocalDate.of(2025, 3, 3);
+
+    @Test
+    void dailyAndWeekdays() {
+        Recurrence daily = new Recurrence("d", "Daily", MONDAY, null, Recurrence.Frequency.DAILY, Set.of());
+        assertEquals(10, days(daily, MONDAY.minusDays(5), MONDAY.plusDays(9)).size());
+        Recurrence weekdays = new Recurrence("w", "Weekdays", MONDAY, null, Recurrence.Frequency.WEEKDAYS, Set.of());
+        List<LocalDate> found = days(weekdays, MONDAY, MONDAY.plusDays(13));
+        assertEquals(10, found.size());
+        assertTrue(found.stream().noneMatch(d -> d.getDayOfWeek().getValue() > 5));
+        assertFalse(weekdays.occursOn(MONDAY.plusDays(5)));
+    }
+
+    @Test
+    void weeklyOnChosenDaysOrTheStartDay() {
+        Recurrence chosen = new Recurrence("w", "Gym", MONDAY, null, Recurrence.Frequency.WEEKLY,
+                Set.of(DayOfWeek.TUESDAY, DayOfWeek.FRIDAY));
+        assertEquals(List.of(MONDAY.plusDays(1), MONDAY.plusDays(4), MONDAY.plusDays(8), MONDAY.plusDays(11)),
+                days(chosen, MONDAY, MONDAY.plusDays(13)));
+        Recurrence startDay = new Recurrence("s", "Review", MONDAY.plusDays(2), null, Recurrence.Frequency.WEEKLY, Set.of());
+        assertEquals(Set.of(DayOfWeek.WEDNESDAY), startDay.getDays());
+        assertEquals(List.of(MONDAY.plusDays(2), MONDAY.plusDays(9)), days(startDay, MONDAY, MONDAY.plusDays(13)));
+    }
+
+    @Test
+    void monthlyIsClampedToShortMonths() {
+        Recurrence rent = new Recurrence("m", "Rent", LocalDate.of(2025, 1, 31), null, Recurrence.Frequency.MONTHLY, Set.of());
+        assertEquals(List.of(LocalDate.of(2025, 1, 31), LocalDate.of(2025, 2, 28), LocalDate.of(2025, 3, 31),
+                LocalDate.of(2025, 4, 30)), days(rent, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 4, 30)));
+        assertTrue(rent.occursOn(LocalDate.of(2028, 2, 29)));
+        assertFalse(rent.occursOn(LocalDate.of(2028, 2, 28)));
+    }
+
+    @Test
+    void untilEndsTheSeries() {
+        Recurrence daily = new Recurrence("d", "Daily", MONDAY, MONDAY.plusDays(2), Recurrence.Frequency.DAILY, Set.of());
+        assertEquals(3, days(daily, MONDAY, MONDAY.plusDays(30)).size());
+        assertNull(daily.nextOccurrence(MONDAY.plusDays(3)));
+        assertEquals(MONDAY.plusDays(2), daily.withUntil(null).nextOccurrence(MONDAY.plusDays(2)).getDate());
+        assertThrows(IllegalArgumentException.class,
+                () -> new Recurrence("x", "Bad", MONDAY, MONDAY.minusDays(1), Recurrence.Frequency.DAILY, Set.of()));
+    }
+
+    @Test
+    void skippedAndCompletedOccurrences() {
+        Recurrence daily = new Recurrence("d", "Daily", MONDAY, null, Recurrence.Frequency.DAILY, Set.of())
+                .withCompleted(MONDAY.plusDays(1), true)
+                .withCompleted(MONDAY.plusDays(2), true)
+                .withoutOccurrence(MONDAY.plusDays(2));
+        assertEquals(List.of(MONDAY, MONDAY.plusDays(1), MONDAY.plusDays(3)), days(daily, MONDAY, MONDAY.plusDays(3)));
+        assertFalse(daily.occursOn(MONDAY.plusDays(2)));
+        assertTrue(daily.occurrence(MONDAY.plusDays(1)).isCompleted());
+        assertFalse(daily.occurrence(MONDAY).isCompleted());
+        assertFalse(daily.withCompleted(MONDAY.plusDays(1), false).occurrence(MONDAY.plusDays(1)).isCompleted());
+        assertEquals(MONDAY.plusDays(3), daily.nextOccurrence(MONDAY.plusDays(2)).getDate());
+    }
+
+    @Test
+    void nextOccurrenceOfOpenEndedSeries() {
+        Recurrence gym = new Recurrence("w", "Gym", MONDAY, null, Recurrence.Frequency.WEEKLY, Set.of(DayOfWeek.FRIDAY))
+                .withoutOccurrence(MONDAY.plusDays(4));
+        assertEquals(MONDAY.plusDays(11), gym.nextOccurrence(MONDAY).getDate());
+        Recurrence rent = new Recurrence("m", "Rent", LocalDate.of(2025, 1, 31), null, Recurrence.Frequency.MONTHLY, Set.of());
+        assertEquals(LocalDate.of(2025, 2, 28), rent.nextOccurrence(LocalDate.of(2025, 2, 1)).getDate());
+        assertEquals(LocalDate.of(2025, 1, 31), rent.nextOccurrence(LocalDate.of(2024, 6, 1)).getDate());
+    }
+
+    @Test
+    void occurrenceIds() {
+        String id = Recurrence.occurrenceId("series", MONDAY);
+        assertEquals("series", Recurrence.seriesId(id));
+        assertEquals(MONDAY, Recurrence.occurrenceDate(id));
+        assertTrue(Recurrence.isOccurrence(new TodoItem(id, MONDAY, "t", false)));
+        assertFalse(Recurrence.isOccurrence(new TodoItem("user@example.com", MONDAY, "t", false)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Recurrence("a@b", "Bad", MONDAY, null, Recurrence.Frequency.DAILY, Set.of()));
+    }
+
+    private static List<LocalDate> days(Recurrence rule, LocalDate from, LocalDate to) {
+        List<LocalDate> days = new ArrayList<>();
+        rule.forEachDay(from.toEpochDay(), to.toEpochDay(), day -> days.add(LocalDate.ofEpochDay(day)));
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            assertEquals(days.contains(d), rule.occursOn(d), "occursOn " + d);
+        }
+        return days;
+    }
+}
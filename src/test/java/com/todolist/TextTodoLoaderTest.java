@@ -0,0 +1,113 @@
+package com.todolist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The parallel byte-level parser against the line format, on files above and below the parallel threshold. */
+class TextTodoLoaderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void parsesEveryLineForm() throws Exception {
+        String text = String.join("\n",
+                "a|2025-01-02|Legacy four fields|true",
+                "b|2025-01-02|2025-01-05|Five fields|false",
+                "  c|2025-02-03|2025-02-03|Padded|TRUE  \r",
+                "",
+                "d|2025-02-03|Title with ‖ bar|false",
+                "e|2025-02-03|2025-02-04|Ünïcödé ✓|true",
+                "f|+10000-01-01|Far future|false",
+                "bad line",
+                "g|2025-13-01|Bad month|false",
+                "h|2025-02-05|2025-02-01|Ends before it starts|false",
+                "i|2025-02-05|not-a-date|Title|false",
+                "j|2025-02-06|Trailing|yes") + "\n";
+        Path file = dir.resolve("todos.txt");
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+        List<TodoItem> items = TextTodoLoader.load(file);
+        assertEquals(List.of(
+                "a|2025-01-02|2025-01-02|Legacy four fields|true",
+                "b|2025-01-02|2025-01-05|Five fields|false",
+                "c|2025-02-03|2025-02-03|Padded|true",
+                "d|2025-02-03|2025-02-03|Title with | bar|false",
+                "e|2025-02-03|2025-02-04|Ünïcödé ✓|true",
+                "f|+10000-01-01|+10000-01-01|Far future|false",
+                "j|2025-02-06|2025-02-06|Trailing|false"), lines(items));
+    }
+
+    @Test
+    void parallelLoadKeepsFileOrder() throws Exception {
+        Random rnd = new Random(11);
+        StringBuilder text = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        for (int i = 0; text.length() < 3 << 20; i++) {
+            LocalDate start = day.plusDays(rnd.nextInt(1000));
+            LocalDate end = start.plusDays(rnd.nextInt(4));
+            String title = "Task " + i + (i % 7 == 0 ? " ✓ ü" : "");
+            boolean done = rnd.nextBoolean();
+            String id = String.format("%08x", 1000 + i);
+            if (i % 5 == 0 && start.equals(end)) text.append(id).append('|').append(start).append('|').append(title);
+            else text.append(id).append('|').append(start).append('|').append(end).append('|').append(title);
+            text.append('|').append(done).append(i % 3 == 0 ? "\r\n" : "\n");
+            expected.add(id + "|" + start + "|" + end + "|" + title + "|" + done);
+            if (i % 1000 == 0) text.append("garbage\n");
+        }
+        Path file = dir.resolve("todos.txt");
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+        assertEquals(expected, lines(TextTodoLoader.load(file)));
+    }
+
+    @Test
+    void columnsMatchTheItemsWithDuplicateIdsFolded() throws Exception {
+        Random rnd = new Random(5);
+        StringBuilder text = new StringBuilder();
+        List<String> ids = new ArrayList<>();
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        for (int i = 0; text.length() < 2 << 20; i++) {
+            String id;
+            if (i > 10 && rnd.nextInt(20) == 0) {
+                id = ids.get(rnd.nextInt(ids.size()));
+            } else {
+                id = i % 50 == 0 ? "other-" + i : i % 7 == 0 ? String.format("%012x", i * 99991L) : TodoIds.format(1000 + i);
+                ids.add(id);
+            }
+            LocalDate start = day.plusDays(rnd.nextInt(700));
+            text.append(id).append('|').append(start).append('|').append(start.plusDays(rnd.nextInt(3)))
+                    .append("|Title ").append(rnd.nextInt(3000)).append('|').append(rnd.nextBoolean()).append('\n');
+        }
+        Path file = dir.resolve("todos.txt");
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+
+        Map<String, TodoItem> unique = new LinkedHashMap<>();
+        for (TodoItem item : TextTodoLoader.load(file)) unique.put(item.getId(), item);
+        TodoColumns columns = TextTodoLoader.loadColumns(file);
+        assertEquals(unique.size(), columns.size());
+        List<TodoItem> bySeq = new ArrayList<>();
+        for (int seq = 0; seq < columns.size(); seq++) bySeq.add(columns.item(columns.rowOfSeq(seq)));
+        assertEquals(lines(new ArrayList<>(unique.values())), lines(bySeq));
+        for (String id : ids) assertEquals(TodoStore.formatLine(unique.get(id)), TodoStore.formatLine(columns.item(columns.rowOf(id))));
+        assertEquals(-1, columns.rowOf("missing"));
+    }
+
+    private static List<String> lines(List<TodoItem> items) {
+        List<String> out = new ArrayList<>(items.size());
+        for (TodoItem item : items) {
+            out.add(item.getId() + "|" + item.getDate() + "|" + item.getEndDate() + "|" + item.getTitle() + "|" + item.isCompleted());
+        }
+        return out;
+    }
+}
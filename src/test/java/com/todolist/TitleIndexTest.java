@@ -0,0 +1,193 @@
+package com.todolist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Title search: tokenizing, prefix matching, and keeping the postings current as titles change. */
+class TitleIndexTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 5);
+    private static final String[] WORDS = {"buy", "butter", "milk", "mill", "call", "caller", "dentist", "tax", "2025", "x"};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void tokensAreLowercaseRunsOfLettersAndDigits() {
+        assertEquals(List.of("buy", "milk", "eggs", "2x", "ünï"), TitleIndex.tokens("Buy MILK & eggs, 2x! -- Ünï"));
+        assertEquals(List.of(), TitleIndex.tokens(" ,.! "));
+        assertEquals(List.of(), TitleIndex.tokens(null));
+    }
+
+    @Test
+    void everyQueryWordMustPrefixATitleWord() {
+        TitleIndex index = new TitleIndex();
+        index.put(0, null, item("a", "Buy butter"));
+        index.put(1, null, item("b", "Call the dentist"));
+        index.put(2, null, item("c", "Buy milk, call mum"));
+        assertEquals(List.of("a", "c"), sortedIds(index.search("bu", 10)));
+        assertEquals(List.of("c"), sortedIds(index.search("CALL bu", 10)));
+        assertEquals(List.of("a"), sortedIds(index.search("butt buy", 10)));
+        assertEquals(List.of(), sortedIds(index.search("uy", 10)));
+        assertEquals(List.of(), sortedIds(index.search("  ", 10)));
+        assertEquals(1, index.search("bu", 1).size());
+        assertEquals(List.of(), index.search("bu", 0));
+    }
+
+    @Test
+    void titleChangesAndRemovalsAreReflected() {
+        TitleIndex index = new TitleIndex();
+        TodoItem a = item("a", "Buy butter");
+        index.put(0, null, a);
+        TodoItem renamed = a.withTitle("Pay tax");
+        index.put(0, a, renamed);
+        assertEquals(List.of(), sortedIds(index.search("butter", 10)));
+        assertEquals(List.of("a"), sortedIds(index.search("tax", 10)));
+        TodoItem again = renamed.withTitle("Pay tax, buy butter");
+        index.put(0, renamed, again);
+        assertEquals(List.of("a"), sortedIds(index.search("butter tax", 10)));
+        index.remove(0, again);
+        assertEquals(List.of(), sortedIds(index.search("tax", 10)));
+        index.put(1, null, item("b", "Tax return"));
+        assertEquals(List.of("b"), sortedIds(index.search("tax", 10)));
+    }
+
+    /** Random adds, renames and removes, enough to trigger rebuilds, against a linear scan. */
+    @Test
+    void matchesALinearScanUnderChurn() {
+        Random rnd = new Random(21);
+        TitleIndex index = new TitleIndex();
+        Map<Integer, TodoItem> live = new HashMap<>();
+        int nextDoc = 0;
+        for (int i = 0; i < 60_000; i++) {
+            int op = rnd.nextInt(4);
+            if (op == 0 || live.isEmpty()) {
+                TodoItem item = item("d" + nextDoc, title(rnd));
+                index.put(nextDoc, null, item);
+                live.put(nextDoc++, item);
+            } else {
+                int doc = new ArrayList<>(live.keySet()).get(rnd.nextInt(Math.min(live.size(), 50)));
+                TodoItem previous = live.get(doc);
+                if (op == 1) {
+                    index.remove(doc, previous);
+                    live.remove(doc);
+                } else {
+                    TodoItem next = previous.withTitle(title(rnd));
+                    index.put(doc, previous, next);
+                    live.put(doc, next);
+                }
+            }
+        }
+        for (String query : List.of("bu", "buy", "mil", "call", "ca", "2025 x", "butter milk", "dentist tax", "zebra")) {
+            List<String> words = TitleIndex.tokens(query);
+            List<String> expected = live.values().stream()
+                    .filter(item -> words.stream().allMatch(w ->
+                            TitleIndex.tokens(item.getTitle()).stream().anyMatch(t -> t.startsWith(w))))
+                    .map(TodoItem::getId).sorted().toList();
+            assertEquals(expected, sortedIds(index.search(query, Integer.MAX_VALUE)), query);
+        }
+    }
+
+    /** A limit below the number of matches keeps the earliest by date, not the first indexed. */
+    @Test
+    void limitKeepsTheEarliestMatchesByDate() {
+        Random rnd = new Random(15);
+        TitleIndex index = new TitleIndex();
+        List<TodoItem> all = new ArrayList<>();
+        for (int doc = 0; doc < 500; doc++) {
+            TodoItem item = new TodoItem("d" + doc, DAY.plusDays(rnd.nextInt(60)), doc % 3 == 0 ? "Call mom" : "Buy milk", false);
+            index.put(doc, null, item);
+            all.add(item);
+        }
+        List<String> expected = all.stream().filter(item -> item.getTitle().startsWith("Buy"))
+                .sorted(Comparator.comparing(TodoItem::getDate)).limit(50).map(TodoItem::getId).toList();
+        assertEquals(expected, ids(index.search("buy mi", 50)));
+        assertEquals(expected.subList(0, 1), ids(index.search("milk", 1)));
+    }
+
+    @Test
+    void storeSearchLimitAppliesAfterOrderingByDate() throws Exception {
+        TodoStore store = new TodoStore(dir.resolve("todos.txt"));
+        for (int i = 0; i < 60; i++) store.add(new TodoItem("i" + i, DAY.plusDays(60 - i), "Water plants", false));
+        assertEquals(List.of("i59", "i58", "i57"), ids(store.search("water", 3)));
+    }
+
+    @Test
+    void storeSearchFollowsEdits() throws Exception {
+        TodoStore store = new TodoStore(dir.resolve("todos.txt"));
+        store.add(new TodoItem("late", DAY.plusDays(3), "Buy milk", false));
+        store.add(new TodoItem("early", DAY, "Buy butter", false));
+        assertEquals(List.of("early", "late"), ids(store.search("buy", 10)));
+        store.add(new TodoItem("new", DAY.plusDays(1), "Buy bread", false));
+        store.setTitle("late", "Sell milk");
+        store.removeById("early");
+        assertEquals(List.of("new"), ids(store.search("buy", 10)));
+        assertEquals(List.of("late"), ids(store.search("sell mi", 10)));
+    }
+
+    /** Edits made while the first search builds the index (outside the store's lock) are not lost. */
+    @Test
+    void editsDuringTheFirstBuildAreReplayedIntoTheIndex() throws Exception {
+        for (boolean columnar : new boolean[] {false, true}) {
+            Path file = dir.resolve("todos-" + columnar + ".txt");
+            TodoStore seed = new TodoStore(file);
+            for (int i = 0; i < 50_000; i++) seed.add(new TodoItem("s" + i, DAY.plusDays(i % 90), "Chore " + i, false));
+            seed.save();
+            System.setProperty("todolist.columnar", String.valueOf(columnar));
+            TodoStore store;
+            try {
+                store = new TodoStore(file);
+            } finally {
+                System.clearProperty("todolist.columnar");
+            }
+            store.load();
+            store.removeById("s1"); // a change before the build: a removed base row when columnar
+
+            Thread builder = new Thread(() -> store.search("", 0));
+            builder.start();
+            for (int i = 0; i < 300; i++) {
+                store.add(new TodoItem("n" + i, DAY, "Chore new " + i, false));
+                store.setTitle("s" + (2 + i), "Errand " + i);
+                store.removeById("s" + (1000 + i));
+            }
+            builder.join();
+            store.setTitle("n0", "Errand renamed");
+
+            List<String> expected = store.getAllItems().stream()
+                    .filter(item -> item.getTitle().startsWith("Errand")).map(TodoItem::getId).sorted().toList();
+            assertEquals(301, expected.size(), "columnar " + columnar);
+            assertEquals(expected, sortedIds(store.search("errand", Integer.MAX_VALUE)), "columnar " + columnar);
+            assertEquals(49_999 - 600 + 299, store.search("chore", Integer.MAX_VALUE).size(), "columnar " + columnar);
+        }
+    }
+
+    private static String title(Random rnd) {
+        StringBuilder sb = new StringBuilder();
+        for (int n = 1 + rnd.nextInt(3); n > 0; n--) {
+            sb.append(WORDS[rnd.nextInt(WORDS.length)]).append(rnd.nextBoolean() ? " " : ", ");
+        }
+        return sb.toString();
+    }
+
+    private static TodoItem item(String id, String title) {
+        return new TodoItem(id, DAY, title, false);
+    }
+
+    private static List<String> ids(List<TodoItem> items) {
+        return items.stream().map(TodoItem::getId).toList();
+    }
+
+    private static List<String> sortedIds(List<TodoItem> items) {
+        return items.stream().map(TodoItem::getId).sorted().toList();
+    }
+}
@@ -0,0 +1,125 @@
+package com.todolist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** A columnar store must answer exactly like a plain one, before and after its changes are folded into new columns. */
+class TodoColumnsTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void columnarStoreMatchesPlainStoreAcrossRebase() throws Exception {
+        Path plainFile = dir.resolve("plain.txt");
+        Path columnarFile = dir.resolve("columnar.txt");
+        TodoStore seed = new TodoStore(plainFile);
+        seed.batch(b -> generate(30_000, 3).forEach(b::add));
+        seed.save();
+        Files.copy(plainFile, columnarFile);
+
+        TodoStore plain = new TodoStore(plainFile);
+        plain.load();
+        TodoStore columnar = columnar(columnarFile);
+        columnar.load();
+        assertSameAnswers(plain, columnar);
+
+        Random rnd = new Random(17);
+        List<String> ids = new ArrayList<>(plain.getAllItems().stream().map(TodoItem::getId).toList());
+        for (int i = 0; i < 5000; i++) {
+            String id = ids.get(rnd.nextInt(ids.size()));
+            switch (rnd.nextInt(4)) {
+                case 0 -> {
+                    TodoItem item = new TodoItem(TodoStore.generateId(), DAY.plusDays(rnd.nextInt(200)), "Added " + i, false);
+                    plain.add(item);
+                    columnar.add(item);
+                    ids.add(item.getId());
+                }
+                case 1 -> {
+                    plain.removeById(id);
+                    columnar.removeById(id);
+                    ids.remove(id);
+                }
+                case 2 -> {
+                    plain.setTitle(id, "Renamed " + i);
+                    columnar.setTitle(id, "Renamed " + i);
+                }
+                default -> {
+                    boolean done = rnd.nextBoolean();
+                    plain.setCompleted(id, done);
+                    columnar.setCompleted(id, done);
+                }
+            }
+        }
+        assertSameAnswers(plain, columnar);
+        assertFalse(columnar.search("renamed", 10).isEmpty());
+
+        // Enough changes at once to fold the tree into new columns (see REBASE_MIN_DELTA).
+        List<TodoItem> bulk = generate(70_000, 4);
+        plain.batch(b -> bulk.forEach(b::add));
+        columnar.batch(b -> bulk.forEach(b::add));
+        assertSameAnswers(plain, columnar);
+        TodoItem added = new TodoItem(TodoStore.generateId(), DAY, "Zanzibar after rebase", false);
+        plain.add(added);
+        columnar.add(added);
+        assertEquals(List.of(added.getId()), ids(columnar.search("zanzibar", 10)));
+        assertSameAnswers(plain, columnar);
+
+        plain.save();
+        columnar.save();
+        TodoStore reopened = columnar(columnarFile);
+        reopened.load();
+        assertSameAnswers(plain, reopened);
+    }
+
+    /** Seeded items over the year around DAY, some spanning a few days. */
+    private static List<TodoItem> generate(int n, long seed) {
+        Random rnd = new Random(seed);
+        List<TodoItem> items = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            LocalDate start = DAY.plusDays(rnd.nextInt(365) - 180);
+            LocalDate end = rnd.nextInt(10) == 0 ? start.plusDays(1 + rnd.nextInt(14)) : start;
+            items.add(new TodoItem(TodoStore.generateId(), start, end, "Task " + rnd.nextInt(5000), rnd.nextInt(3) == 0));
+        }
+        return items;
+    }
+
+    private static TodoStore columnar(Path file) {
+        System.setProperty("todolist.columnar", "true");
+        try {
+            return new TodoStore(file);
+        } finally {
+            System.clearProperty("todolist.columnar");
+        }
+    }
+
+    private static void assertSameAnswers(TodoStore expected, TodoStore actual) {
+        assertEquals(lines(expected.getAllItems()), lines(actual.getAllItems()));
+        for (int d = -200; d < 220; d += 7) {
+            LocalDate day = DAY.plusDays(d);
+            assertEquals(lines(expected.getItemsFor(day)), lines(actual.getItemsFor(day)), day.toString());
+            assertEquals(lines(expected.getItemsInRange(day, day.plusDays(6))), lines(actual.getItemsInRange(day, day.plusDays(6))));
+        }
+        for (String query : List.of("task 12", "task 4", "renamed 1", "added")) {
+            assertEquals(lines(expected.search(query, 50)), lines(actual.search(query, 50)), query);
+        }
+    }
+
+    private static List<String> lines(List<TodoItem> items) {
+        return items.stream().map(TodoStore::formatLine).toList();
+    }
+
+    private static List<String> ids(List<TodoItem> items) {
+        return items.stream().map(TodoItem::getId).toList();
+    }
+}
@@ -0,0 +1,137 @@
+package com.todolist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Picking up changes another program made to the store's files. */
+class TodoFileWatcherTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 2);
+
+    @TempDir
+    Path dir;
+
+    private Path file() {
+        return dir.resolve("todos.txt");
+    }
+
+    private TodoStore open() throws Exception {
+        TodoStore store = new TodoStore(file(), true);
+        store.load();
+        return store;
+    }
+
+    @Test
+    void reloadAppliesOnlyTheDifference() throws Exception {
+        TodoStore other = open();
+        other.add(new TodoItem("a", DAY, "A", false));
+        other.add(new TodoItem("b", DAY, "B", false));
+        other.add(new TodoItem("c", DAY, "C", false));
+        other.save();
+
+        TodoStore mine = open();
+        mine.enableFileWatch(60_000, Throwable::printStackTrace); // tracks unsaved edits; reloads are called directly here
+        assertEquals(0, mine.reloadChanges());
+
+        other.setCompleted("a", true);
+        other.removeById("b");
+        other.setTitle("c", "C from the other program");
+        other.add(new TodoItem("d", DAY.plusDays(1), "D", false));
+        other.addRecurring(new Recurrence("s", "Series", DAY, null, Recurrence.Frequency.DAILY, Set.of()));
+        other.save();
+        mine.setTitle("c", "C edited here");
+
+        CountDownLatch events = new CountDownLatch(1);
+        mine.addListener(e -> {
+            if (e.getType() == TodoChangeEvent.Type.BATCH) events.countDown();
+        });
+        assertEquals(4, mine.reloadChanges());
+        assertEquals(0, events.getCount());
+        assertEquals(List.of("a|true", "c|C edited here", "d|D"), describe(mine));
+        assertEquals(List.of("s"), mine.getRecurring().stream().map(Recurrence::getId).toList());
+        assertEquals(0, mine.reloadChanges());
+        other.close();
+        mine.close();
+    }
+
+    @Test
+    void watchReloadsAfterAnotherProgramSaves() throws Exception {
+        TodoStore mine = open();
+        mine.add(new TodoItem("a", DAY, "A", false));
+        mine.save();
+        CountDownLatch reloaded = new CountDownLatch(1);
+        mine.addListener(e -> {
+            if (e.getType() == TodoChangeEvent.Type.BATCH && mine.getById("b").isPresent()) reloaded.countDown();
+        });
+        mine.enableFileWatch(50, Throwable::printStackTrace);
+
+        TodoStore other = open();
+        other.add(new TodoItem("b", DAY, "B", false));
+        other.save();
+        other.close();
+        assertTrue(reloaded.await(10, TimeUnit.SECONDS), "file change not picked up");
+        mine.close();
+    }
+
+    /** Records another store appended after this one loaded survive this store's first append. */
+    @Test
+    void saveAfterReloadKeepsTheOtherStoresRecords() throws Exception {
+        TodoStore seed = open();
+        seed.add(new TodoItem("seed", DAY, "Seed", false));
+        seed.save();
+        seed.close();
+
+        TodoStore a = open();
+        a.enableFileWatch(60_000, Throwable::printStackTrace);
+        TodoStore b = open();
+        b.add(new TodoItem("b", DAY, "From B", false));
+        b.save();
+        assertEquals(1, a.reloadChanges());
+        a.add(new TodoItem("a", DAY, "From A", false));
+        a.save();
+        b.close();
+        a.close();
+
+        assertEquals(List.of("seed", "b", "a"), open().getAllItems().stream().map(TodoItem::getId).toList());
+    }
+
+    /** After another store compacts the journal, appends go to the new journal, not the unlinked one. */
+    @Test
+    void appendAfterAnotherStoreCompactedReachesTheNewJournal() throws Exception {
+        TodoStore a = open();
+        a.add(new TodoItem("early", DAY, "Before the compaction", false));
+        a.save(); // opens a's journal channel
+
+        TodoStore b = open();
+        b.batch(batch -> {
+            for (int i = 0; i < 5000; i++) batch.add(new TodoItem("b" + i, DAY, "Bulk " + i, false));
+        });
+        b.save(); // over the record threshold: compacts in the background
+        Path journal = TodoJournal.journalPathFor(file());
+        for (int i = 0; i < 500 && Files.size(journal) > 0; i++) Thread.sleep(10);
+        assertEquals(0, Files.size(journal), "compaction did not finish");
+        b.close();
+
+        a.add(new TodoItem("late", DAY, "After the compaction", false));
+        a.save();
+        a.close();
+        TodoStore reopened = open();
+        assertEquals(5002, reopened.getAllItems().size());
+        assertTrue(reopened.getById("late").isPresent());
+    }
+
+    private static List<String> describe(TodoStore store) {
+        return store.getAllItems().stream()
+                .map(i -> i.getId() + "|" + (i.getId().equals("a") ? String.valueOf(i.isCompleted()) : i.getTitle()))
+                .toList();
+    }
+}
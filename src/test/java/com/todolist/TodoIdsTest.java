@@ -0,0 +1,37 @@
+package com.todolist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoIdsTest {
+    @Test
+    void newIdsAreUniqueAndInCreationOrder() {
+        Set<String> seen = new HashSet<>();
+        String prev = "";
+        long prevKey = 0;
+        for (int i = 0; i < 500_000; i++) {
+            long key = TodoIds.nextKey();
+            String id = TodoIds.format(key);
+            assertTrue(key > prevKey);
+            assertTrue(id.compareTo(prev) > 0, id + " after " + prev);
+            assertEquals(TodoIds.LENGTH, id.length());
+            assertEquals(key, TodoIds.key(id));
+            assertTrue(seen.add(id));
+            prev = id;
+            prevKey = key;
+        }
+    }
+
+    @Test
+    void keysOfLegacyAndOtherIds() {
+        assertEquals("0000000001ff", TodoIds.id(TodoIds.key("0000000001ff")));
+        assertTrue(TodoIds.key("0000000001ff") < 0);
+        assertEquals(0, TodoIds.key("not-an-id"));
+        assertEquals(0, TodoIds.key("00000000001FF"));
+        assertEquals(0, TodoIds.key("8000000000000"));
+    }
+}
@@ -0,0 +1,201 @@
+package com.todolist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Replaying the journal, and crash recovery: torn records and batches cut short at the end of the file. */
+class TodoJournalTest {
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 3);
+
+    @TempDir
+    Path dir;
+
+    private Path file() {
+        return dir.resolve("todos.txt");
+    }
+
+    private TodoJournal journal() {
+        return new TodoJournal(file(), items -> { });
+    }
+
+    private List<String> replay(TodoJournal journal) throws Exception {
+        List<String> records = new ArrayList<>();
+        journal.replay(records::add);
+        return records;
+    }
+
+    private void appendRaw(String text) throws Exception {
+        Files.writeString(journal().getJournalPath(), text, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static String add(String id) {
+        return TodoJournal.ADD + "|" + TodoStore.formatLine(new TodoItem(id, DAY, "Title " + id, false));
+    }
+
+    @Test
+    void appendedRecordsAreReplayedInOrder() throws Exception {
+        TodoJournal journal = journal();
+        journal.append(List.of(add("a"), add("b")));
+        journal.append(List.of());
+        journal.append(List.of(TodoJournal.REMOVE + "|a"));
+        journal.close();
+        assertEquals(List.of(add("a"), add("b"), TodoJournal.REMOVE + "|a"), replay(journal()));
+    }
+
+    @Test
+    void tornLastRecordIsSkippedAndCutBeforeTheNextAppend() throws Exception {
+        appendRaw(add("a") + "\n" + add("b").substring(0, 12));
+        TodoJournal journal = journal();
+        assertEquals(List.of(add("a")), replay(journal));
+        journal.append(List.of(add("c")));
+        journal.close();
+
+        assertEquals(List.of(add("a"), add("c")), replay(journal()));
+        assertEquals(add("a") + "\n" + add("c") + "\n",
+                Files.readString(journal().getJournalPath(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void batchCutShortIsDroppedAndDoesNotAbsorbLaterRecords() throws Exception {
+        appendRaw(add("a") + "\nT|3\n" + add("p") + "\n" + add("q") + "\n");
+        TodoJournal journal = journal();
+        assertEquals(List.of(add("a")), replay(journal));
+        journal.append(List.of(add("c"), add("d"), add("e")));
+        journal.close();
+
+        assertEquals(List.of(add("a"), add("c"), add("d"), add("e")), replay(journal()));
+    }
+
+    @Test
+    void batchIsReplayedOnlyWithAllItsRecords() throws Exception {
+        appendRaw("T|2\n" + add("a") + "\n" + add("b") + "\nE|2\n" + add("c") + "\n");
+        assertEquals(List.of(add("a"), add("b"), add("c")), replay(journal()));
+    }
+
+    @Test
+    void endMarkerWithoutAllRecordsDropsTheBatch() throws Exception {
+        appendRaw("T|3\n" + add("a") + "\nE|3\n" + add("c") + "\n");
+        assertEquals(List.of(add("c")), replay(journal()));
+    }
+
+    @Test
+    void batchWrittenWithoutEndMarkerIsStillApplied() throws Exception {
+        appendRaw("T|1\n" + add("a") + "\n" + add("b") + "\n");
+        assertEquals(List.of(add("a"), add("b")), replay(journal()));
+    }
+
+    @Test
+    void storeBatchIsJournaledAsOneGroup() throws Exception {
+        TodoStore store = new TodoStore(file(), true);
+        store.load();
+        store.add(new TodoItem("a", DAY, "A", false));
+        store.batch(b -> b.add(new TodoItem("x", DAY, "X", false)).add(new TodoItem("y", DAY, "Y", false))
+                .setCompleted(store.getById("a").orElseThrow(), true));
+        store.save();
+        store.close();
+        List<String> lines = Files.readAllLines(journal().getJournalPath(), StandardCharsets.UTF_8);
+        assertEquals(6, lines.size());
+        assertEquals(TodoJournal.BATCH + "|3", lines.get(1));
+        assertEquals("E|3", lines.get(5));
+
+        TodoStore reopened = new TodoStore(file(), true);
+        reopened.load();
+        assertEquals(List.of("a|true", "x|false", "y|false"), describe(reopened));
+        reopened.close();
+    }
+
+    @Test
+    void storeRecoversFromABatchCutShortByACrash() throws Exception {
+        TodoStore store = new TodoStore(file(), true);
+        store.load();
+        store.batch(b -> b.add(new TodoItem("x", DAY, "X", false)).add(new TodoItem("y", DAY, "Y", false)));
+        store.save();
+        store.close();
+        appendRaw("T|3\n" + add("p") + "\n" + add("q").substring(0, 5));
+
+        store = new TodoStore(file(), true);
+        store.load();
+        assertEquals(List.of("x", "y"), ids(store));
+        store.add(new TodoItem("z", DAY, "Z", false));
+        store.save();
+        store.close();
+
+        store = new TodoStore(file(), true);
+        store.load();
+        assertEquals(List.of("x", "y", "z"), ids(store));
+        store.close();
+    }
+
+    @Test
+    void storeSavesChangesToTheJournalOnly() throws Exception {
+        TodoStore seed = new TodoStore(file());
+        seed.add(new TodoItem("a", DAY, "A", false));
+        seed.add(new TodoItem("b", DAY, "B", false));
+        seed.save();
+        String snapshot = Files.readString(file(), StandardCharsets.UTF_8);
+
+        TodoStore store = new TodoStore(file(), true);
+        store.load();
+        store.setCompleted("a", true);
+        store.removeById("b");
+        store.add(new TodoItem("c", DAY.plusDays(1), "C", false));
+        store.save();
+        assertEquals(snapshot, Files.readString(file(), StandardCharsets.UTF_8));
+
+        TodoStore reopened = new TodoStore(file(), true);
+        reopened.load();
+        assertEquals(List.of("a|true", "c|false"), describe(reopened));
+    }
+
+    @Test
+    void unchangedTitleIsNeitherJournaledNorAnnounced() throws Exception {
+        TodoStore store = new TodoStore(file(), true);
+        store.load();
+        store.add(new TodoItem("a", DAY, "A", false));
+        store.save();
+        long length = Files.size(journal().getJournalPath());
+        List<TodoChangeEvent> events = new ArrayList<>();
+        store.addListener(events::add);
+
+        TodoItem before = store.getById("a").orElseThrow();
+        assertSame(before, store.setTitle("a", "A").orElseThrow());
+        store.save();
+        assertTrue(events.isEmpty());
+        assertEquals(length, Files.size(journal().getJournalPath()));
+        store.close();
+    }
+
+    @Test
+    void journalIsReplayedBeforeTheFirstSnapshot() throws Exception {
+        TodoStore store = new TodoStore(file(), true);
+        store.load();
+        store.add(new TodoItem("a", DAY, "A", false));
+        store.save();
+        store.close();
+        assertFalse(Files.exists(file()));
+
+        TodoStore reopened = new TodoStore(file(), true);
+        reopened.load();
+        assertEquals(List.of("a|false"), describe(reopened));
+        reopened.close();
+    }
+
+    private static List<String> ids(TodoStore store) {
+        return store.getAllItems().stream().map(TodoItem::getId).toList();
+    }
+
+    private static List<String> describe(TodoStore store) {
+        return store.getAllItems().stream().map(i -> i.getId() + "|" + i.isCompleted()).toList();
+    }
+}
@@ -0,0 +1,203 @@
+package com.todolist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The same checks for every built-in {@link TodoRepository} (jdbc on H2): what a store saves
+ * comes back unchanged and in order after reopening, edits and removals are saved
+ * incrementally, series survive, and range queries agree with the store's own index.
+ */
+class TodoRepositoryTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    @TempDir
+    Path dir;
+    /** The memory backend forgets on close, so it is "reopened" by handing out the same instance. */
+    private TodoRepository memory;
+
+    private TodoRepository open(String backend) {
+        if (!backend.equals("memory")) return TodoRepository.open(backend, null, dir);
+        if (memory == null) memory = TodoRepository.open(backend, null, dir);
+        return memory;
+    }
+
+    /** A store over a freshly opened repository, loaded. */
+    private TodoStore reopen(String backend) throws Exception {
+        TodoStore store = new TodoStore(open(backend));
+        store.load();
+        return store;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"memory", "file", "jdbc"})
+    void emptyRepositoryLoadsEmpty(String backend) throws Exception {
+        TodoStore store = reopen(backend);
+        assertTrue(store.getAllItems().isEmpty());
+        assertTrue(store.getRecurring().isEmpty());
+        store.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"memory", "file", "jdbc"})
+    void itemsAndSeriesSurviveReopening(String backend) throws Exception {
+        TodoStore store = seeded(backend);
+        assertSame(store, reopen(backend));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"memory", "file", "jdbc"})
+    void editsRemovalsAndAppendsAreSaved(String backend) throws Exception {
+        seeded(backend);
+        TodoStore store = reopen(backend);
+        store.setCompleted("a", true);
+        store.setTitle("d", "Later, renamed");
+        assertEquals("Multi-day | with bar", store.removeById("b").map(TodoItem::getTitle).orElse(null));
+        assertTrue(store.removeById("b").isEmpty());
+        store.add(new TodoItem("e", DAY.plusDays(5), "Added after reopen", false));
+        String occurrence = Recurrence.occurrenceId("s", DAY.plusDays(3));
+        assertEquals(occurrence, store.removeById(occurrence).map(TodoItem::getId).orElse(null));
+        assertTrue(store.removeById(occurrence).isEmpty());
+        store.save();
+        store.close();
+        TodoStore reopened = reopen(backend);
+        assertEquals(describe(store), describe(reopened));
+        List<String> ids = reopened.getAllItems().stream().map(TodoItem::getId).toList();
+        assertTrue(ids.indexOf("d") < ids.indexOf("e"), "edited item keeps its position");
+        reopened.close();
+
+        store = reopen(backend);
+        store.removeRecurring("s");
+        store.save();
+        store.close();
+        assertSame(store, reopen(backend));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"memory", "file", "jdbc"})
+    void bulkBatchAndRangeQueries(String backend) throws Exception {
+        TodoStore store = seeded(backend);
+        store = reopen(backend);
+        List<TodoItem> generated = generate(20_000, 7);
+        store.batch(b -> generated.forEach(b::add));
+        store.save();
+        store.save(); // nothing changed: must be a no-op
+        store.close();
+        TodoStore reopened = reopen(backend);
+        assertEquals(describe(store), describe(reopened));
+
+        TodoRepository repository = open(backend);
+        LocalDate[][] ranges = {
+                {DAY, DAY}, {DAY.minusDays(10), DAY.plusDays(10)}, {DAY.plusDays(399), DAY.plusDays(420)},
+                {DAY.plusDays(100), DAY.plusDays(106)}, {DAY.minusDays(5), DAY.minusDays(1)},
+                {LocalDate.of(1990, 1, 1), LocalDate.of(1990, 12, 31)},
+        };
+        for (LocalDate[] r : ranges) {
+            List<String> expected = sortedIds(reopened.snapshot().getItemsInRange(r[0], r[1]).stream()
+                    .filter(item -> !Recurrence.isOccurrence(item)).toList());
+            List<TodoItem> found = repository.findInRange(r[0], r[1]);
+            assertEquals(expected, sortedIds(found), "findInRange " + r[0] + ".." + r[1]);
+            for (int i = 1; i < found.size(); i++) {
+                assertFalse(found.get(i).getDate().isBefore(found.get(i - 1).getDate()), "ordered by start day");
+            }
+        }
+        if (!backend.equals("memory")) repository.close();
+        reopened.close();
+    }
+
+    /**
+     * A range query over the file backend must not adopt a journal another writer left after the
+     * store loaded: the store's next save would otherwise write items without the journal's
+     * records and then delete it.
+     */
+    @Test
+    void fileRangeQueryLeavesAJournalLeftByAnotherWriter() throws Exception {
+        seeded("file");
+        TodoStore store = reopen("file");
+        Path file = dir.resolve("todos.txt");
+        TodoStore other = new TodoStore(file, true);
+        other.load();
+        other.add(new TodoItem("x", DAY, "Written by another program", false));
+        other.save();
+        other.close();
+        assertTrue(Files.exists(TodoJournal.journalPathFor(file)));
+
+        assertEquals(List.of("a", "b", "c", "x"), sortedIds(store.repository().findInRange(DAY, DAY).stream()
+                .filter(item -> item.getId().length() == 1).toList()));
+        store.setTitle("a", "Renamed here");
+        store.save();
+        assertTrue(Files.exists(TodoJournal.journalPathFor(file)));
+        TodoStore reopened = reopen("file");
+        assertTrue(reopened.getById("x").isPresent());
+        reopened.close();
+        store.close();
+    }
+
+    /** Saves a small fixed data set with a series and returns the (closed) store that wrote it. */
+    private TodoStore seeded(String backend) throws Exception {
+        TodoStore store = reopen(backend);
+        store.add(new TodoItem("a", DAY, "Plain", false));
+        store.add(new TodoItem("b", DAY.minusDays(3), DAY.plusDays(2), "Multi-day | with bar", true));
+        store.add(new TodoItem("c", DAY.minusDays(400), DAY.plusDays(400), "Long span, ünïcödé ✓", false));
+        store.add(new TodoItem("d", DAY.plusDays(30), "Later", false));
+        store.add(new TodoItem(TodoStore.generateId(), DAY.plusDays(1), "Generated id", false));
+        store.addRecurring(new Recurrence("s", "Stand-up", DAY, DAY.plusDays(60), Recurrence.Frequency.WEEKLY,
+                Set.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY)));
+        store.setCompleted(Recurrence.occurrenceId("s", DAY), true);
+        store.save();
+        store.close();
+        return store;
+    }
+
+    private static void assertSame(TodoStore expected, TodoStore actual) throws Exception {
+        assertEquals(describe(expected), describe(actual));
+        actual.close();
+    }
+
+    /** Every item in order, and every series with its occurrences over its first months. */
+    private static List<String> describe(TodoStore store) {
+        List<String> lines = new ArrayList<>();
+        for (TodoItem item : store.getAllItems()) lines.add(line(item));
+        for (Recurrence rule : store.getRecurring()) {
+            lines.add(rule.getId() + " " + rule.getTitle() + " " + rule.getStart() + " " + rule.getUntil()
+                    + " " + rule.getFrequency() + " " + rule.getDays());
+            for (TodoItem item : store.snapshot().getItemsInRange(rule.getStart(), rule.getStart().plusDays(90))) {
+                if (Recurrence.isOccurrence(item)) lines.add(line(item));
+            }
+        }
+        return lines;
+    }
+
+    private static String line(TodoItem item) {
+        return item.getId() + " " + item.getDate() + ".." + item.getEndDate() + " " + item.isCompleted() + " " + item.getTitle();
+    }
+
+    private static List<String> sortedIds(List<TodoItem> items) {
+        return items.stream().map(TodoItem::getId).sorted().toList();
+    }
+
+    /** Seeded items over the year around DAY, some spanning a few days. */
+    static List<TodoItem> generate(int n, long seed) {
+        Random rnd = new Random(seed);
+        List<TodoItem> items = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            LocalDate start = DAY.plusDays(rnd.nextInt(365) - 180);
+            LocalDate end = rnd.nextInt(10) == 0 ? start.plusDays(1 + rnd.nextInt(14)) : start;
+            items.add(new TodoItem(TodoStore.generateId(), start, end, "Task " + rnd.nextInt(5000), rnd.nextInt(3) == 0));
+        }
+        return items;
+    }
+}
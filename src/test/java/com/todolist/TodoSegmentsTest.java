@@ -0,0 +1,161 @@
+package com.todolist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Month segment files, their manifest, and a segmented store's resident window. */
+class TodoSegmentsTest {
+    private static final YearMonth NOW = YearMonth.now();
+
+    @TempDir
+    Path dir;
+
+    private Path segmentsDir() {
+        return dir.resolve("segments");
+    }
+
+    @Test
+    void segmentsRoundTripThroughTheManifestAndGzip() throws Exception {
+        YearMonth old = NOW.minusMonths(6);
+        Map<YearMonth, List<TodoItem>> months = new TreeMap<>();
+        months.put(old, List.of(item("o1", old.atDay(3)), item("o2", old.atEndOfMonth())));
+        months.put(NOW, List.of(item("n1", NOW.atDay(1))));
+        List<TodoItem> spanning = List.of(new TodoItem("s", old.atEndOfMonth(), NOW.atDay(1), "Spanning ✓", true));
+        new TodoSegments(segmentsDir(), 3).write(months, spanning);
+
+        assertTrue(Files.exists(segmentsDir().resolve(old + ".txt.gz")));
+        assertFalse(Files.exists(segmentsDir().resolve(old + ".txt")));
+        assertTrue(Files.exists(segmentsDir().resolve(NOW + ".txt")));
+        assertEquals(List.of(old + "|2", NOW + "|1"), Files.readAllLines(segmentsDir().resolve("manifest.txt")));
+
+        TodoSegments reopened = new TodoSegments(segmentsDir(), 3);
+        assertTrue(reopened.exists());
+        assertEquals(List.of(old, NOW), new ArrayList<>(reopened.months()));
+        assertEquals(lines(months.get(old)), lines(reopened.readSegment(old)));
+        assertEquals(lines(months.get(NOW)), lines(reopened.readSegment(NOW)));
+        assertEquals(lines(spanning), lines(reopened.readSpanning()));
+        assertTrue(reopened.readSegment(NOW.plusMonths(1)).isEmpty());
+
+        reopened.write(Map.of(NOW, List.of()), null);
+        assertFalse(Files.exists(segmentsDir().resolve(NOW + ".txt")));
+        assertEquals(List.of(old), new ArrayList<>(new TodoSegments(segmentsDir(), 3).months()));
+        assertEquals(lines(spanning), lines(reopened.readSpanning()));
+    }
+
+    @Test
+    void segmentMissingFromTheManifestIsPickedUp() throws Exception {
+        new TodoSegments(segmentsDir(), 0).write(Map.of(NOW, List.of(item("a", NOW.atDay(2)))), List.of());
+        // A crash after the segment was moved into place but before the manifest was replaced.
+        YearMonth next = NOW.plusMonths(1);
+        Files.writeString(segmentsDir().resolve(next + ".txt"), TodoStore.formatLine(item("b", next.atDay(2))) + "\n");
+        Files.writeString(segmentsDir().resolve("notes.txt"), "not a segment\n");
+
+        TodoSegments reopened = new TodoSegments(segmentsDir(), 0);
+        assertEquals(List.of(NOW, next), new ArrayList<>(reopened.months()));
+        assertEquals(List.of("b"), ids(reopened.readSegment(next)));
+    }
+
+    @Test
+    void storeKeepsOnlyTheWindowResident() throws Exception {
+        TodoStore store = TodoStore.segmented(segmentsDir(), null, 1, 0);
+        store.load();
+        for (int m = -12; m <= 12; m++) {
+            YearMonth month = NOW.plusMonths(m);
+            store.pageIn(month, month);
+            store.add(item("m" + m, month.atDay(10)));
+        }
+        store.add(new TodoItem("span", NOW.minusMonths(12).atDay(20), NOW.plusMonths(12).atDay(1), "Long", false));
+        store.save();
+
+        TodoStore reopened = TodoStore.segmented(segmentsDir(), null, 1, 0);
+        reopened.load();
+        assertEquals(List.of("m-1", "m0", "m1", "span"), sortedIds(reopened.getAllItems()));
+        assertTrue(reopened.getById("m-6").isEmpty());
+
+        reopened.focus(NOW.minusMonths(6));
+        assertEquals(List.of("m-5", "m-6", "m-7", "span"), sortedIds(reopened.getAllItems()));
+        assertEquals(List.of("m-6", "span"), sortedIds(reopened.getItemsFor(NOW.minusMonths(6).atDay(10))));
+
+        // An unsaved month stays resident when the window moves away from it.
+        reopened.setTitle("m-6", "Edited");
+        reopened.focus(NOW);
+        assertEquals(List.of("m-1", "m-6", "m0", "m1", "span"), sortedIds(reopened.getAllItems()));
+        reopened.save();
+        reopened.focus(NOW);
+        assertEquals(List.of("m-1", "m0", "m1", "span"), sortedIds(reopened.getAllItems()));
+
+        // Adding to a month outside the window pages it in, so the save keeps its other items.
+        reopened.add(item("late", NOW.minusMonths(6).atDay(11)));
+        reopened.save();
+        TodoSegments segments = new TodoSegments(segmentsDir(), 0);
+        assertEquals(List.of("m-6", "late"), ids(segments.readSegment(NOW.minusMonths(6))));
+        assertEquals("Edited", segments.readSegment(NOW.minusMonths(6)).get(0).getTitle());
+    }
+
+    /** Moving the window back and forth reuses the evicted items' sequences; search must stay exact. */
+    @Test
+    void searchStaysExactAsMonthsArePagedOutAndBackIn() throws Exception {
+        TodoStore store = TodoStore.segmented(segmentsDir(), null, 1, 0);
+        store.load();
+        for (int m = -12; m <= 12; m++) {
+            YearMonth month = NOW.plusMonths(m);
+            store.pageIn(month, month);
+            for (int i = 0; i < 5; i++) store.add(new TodoItem("m" + m + "-" + i, month.atDay(1 + i), "Chore t" + (m + 12) + "n" + i, false));
+        }
+        store.save();
+        store.focus(NOW);
+        assertEquals(15, store.search("chore", 100).size());
+        for (int round = 0; round < 40; round++) {
+            int m = round % 2 == 0 ? -10 + round % 20 : 10 - round % 20;
+            store.focus(NOW.plusMonths(m));
+            List<String> expected = store.getAllItems().stream().map(TodoItem::getId).sorted().toList();
+            assertEquals(15, expected.size());
+            assertEquals(expected, sortedIds(store.search("chore", 100)), "window at " + m);
+            assertEquals(List.of("m" + m + "-3"), ids(store.search("chore t" + (m + 12) + "n3", 100)));
+        }
+    }
+
+    @Test
+    void flatFileIsImportedOnFirstLoad() throws Exception {
+        Path flat = dir.resolve("todos.txt");
+        TodoStore legacy = new TodoStore(flat);
+        legacy.add(item("a", NOW.atDay(1)));
+        legacy.add(item("b", NOW.minusMonths(1).atDay(1)));
+        legacy.add(new TodoItem("c", NOW.minusMonths(1).atDay(28), NOW.atDay(2), "Spanning", false));
+        legacy.save();
+
+        TodoStore store = TodoStore.segmented(segmentsDir(), flat, 1, 0);
+        store.load();
+        assertEquals(List.of("a", "b", "c"), sortedIds(store.getAllItems()));
+        TodoSegments segments = new TodoSegments(segmentsDir(), 0);
+        assertEquals(List.of(NOW.minusMonths(1), NOW), new ArrayList<>(segments.months()));
+        assertEquals(List.of("c"), ids(segments.readSpanning()));
+    }
+
+    private static TodoItem item(String id, LocalDate day) {
+        return new TodoItem(id, day, "Title " + id, false);
+    }
+
+    private static List<String> lines(List<TodoItem> items) {
+        return items.stream().map(TodoStore::formatLine).toList();
+    }
+
+    private static List<String> ids(List<TodoItem> items) {
+        return items.stream().map(TodoItem::getId).toList();
+    }
+
+    private static List<String> sortedIds(List<TodoItem> items) {
+        return items.stream().map(TodoItem::getId).sorted().toList();
+    }
+}
@@ -0,0 +1,159 @@
+package com.todolist;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The HTTP routes end to end over a loopback port: reads, writes, and the error responses. */
+class TodoServerTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 2); // a Monday
+
+    @TempDir
+    Path dir;
+    private final HttpClient client = HttpClient.newHttpClient();
+    private TodoServer server;
+
+    @AfterEach
+    void stop() {
+        if (server != null) server.close();
+    }
+
+    private TodoStore serve(Path file) throws Exception {
+        TodoStore store = new TodoStore(file);
+        store.load();
+        server = TodoServer.start(store, new InetSocketAddress("127.0.0.1", 0), 2);
+        return store;
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest.BodyPublisher publisher = body == null ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(body);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+                .method(method, publisher).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String json(String id, String title, LocalDate date, LocalDate end, boolean completed) {
+        return "{\"id\":\"" + id + "\",\"title\":\"" + title + "\",\"date\":\"" + date + "\",\"endDate\":\"" + end
+                + "\",\"completed\":" + completed + "}";
+    }
+
+    @Test
+    void getPostPutAndDelete() throws Exception {
+        Path file = dir.resolve("todos.txt");
+        TodoStore store = serve(file);
+        store.add(new TodoItem("a", DAY, "Plain", false));
+        store.add(new TodoItem("b", DAY.minusDays(1), DAY.plusDays(1), "Multi \"day\"", true));
+
+        HttpResponse<String> r = send("GET", "/todos?date=" + DAY, null);
+        assertEquals(200, r.statusCode());
+        assertEquals("[" + json("a", "Plain", DAY, DAY, false) + ","
+                + json("b", "Multi \\\"day\\\"", DAY.minusDays(1), DAY.plusDays(1), true) + "]", r.body());
+        assertEquals("[" + json("b", "Multi \\\"day\\\"", DAY.minusDays(1), DAY.plusDays(1), true) + "]",
+                send("GET", "/todos?from=" + DAY.plusDays(1) + "&to=" + DAY.plusDays(9), null).body());
+        assertEquals(json("a", "Plain", DAY, DAY, false), send("GET", "/todos/a", null).body());
+        String summary = send("GET", "/summary?month=" + DAY.getYear() + "-06", null).body();
+        assertTrue(summary.contains("{\"date\":\"" + DAY + "\",\"total\":2,\"completed\":1,\"percent\":50}"), summary);
+
+        r = send("POST", "/todos", "{\"title\":\" Added \",\"date\":\"" + DAY + "\",\"endDate\":\"" + DAY.plusDays(2) + "\"}");
+        assertEquals(201, r.statusCode());
+        Map<String, Object> added = Json.parseObject(r.body());
+        String id = (String) added.get("id");
+        assertEquals(json(id, "Added", DAY, DAY.plusDays(2), false), r.body());
+        assertEquals("Added", store.getById(id).orElseThrow().getTitle());
+
+        r = send("PUT", "/todos/a", "{\"title\":\"Renamed\",\"date\":\"" + DAY.plusDays(1) + "\"}");
+        assertEquals(200, r.statusCode());
+        assertEquals(json("a", "Renamed", DAY.plusDays(1), DAY.plusDays(1), false), r.body());
+        r = send("POST", "/todos/a/complete", null);
+        assertEquals(json("a", "Renamed", DAY.plusDays(1), DAY.plusDays(1), true), r.body());
+        r = send("POST", "/todos/a/complete", "{\"completed\":false}");
+        assertEquals(json("a", "Renamed", DAY.plusDays(1), DAY.plusDays(1), false), r.body());
+
+        r = send("DELETE", "/todos/b", null);
+        assertEquals(204, r.statusCode());
+        assertEquals("", r.body());
+        assertEquals(404, send("GET", "/todos/b", null).statusCode());
+
+        TodoStore reopened = new TodoStore(file);
+        reopened.load();
+        assertEquals(store.getAllItems().stream().map(TodoStore::formatLine).toList(),
+                reopened.getAllItems().stream().map(TodoStore::formatLine).toList());
+        assertEquals(2, reopened.getAllItems().size());
+    }
+
+    @Test
+    void badRequestsGetAnErrorStatusAndMessage() throws Exception {
+        TodoStore store = serve(dir.resolve("todos.txt"));
+        store.add(new TodoItem("a", DAY, "Plain", false));
+        Object[][] cases = {
+                {"GET", "/nowhere", null, 404},
+                {"GET", "/todos/missing", null, 404},
+                {"DELETE", "/todos/missing", null, 404},
+                {"PUT", "/todos/missing", "{\"title\":\"x\"}", 404},
+                {"POST", "/summary", null, 405},
+                {"PATCH", "/todos/a", "{}", 405},
+                {"GET", "/todos?date=June", null, 400},
+                {"GET", "/todos?from=" + DAY + "&to=" + DAY.minusDays(1), null, 400},
+                {"GET", "/summary?month=2025-13", null, 400},
+                {"POST", "/todos", "{\"date\":\"" + DAY + "\"}", 400},
+                {"POST", "/todos", "{\"title\":\"x\"}", 400},
+                {"POST", "/todos", "{\"title\":\"x\",", 400},
+                {"POST", "/todos", "{\"title\":7,\"date\":\"" + DAY + "\"}", 400},
+                {"PUT", "/todos/a", "{\"endDate\":\"" + DAY.minusDays(1) + "\"}", 400},
+                {"PUT", "/todos/a", "{\"completed\":\"yes\"}", 400},
+                {"POST", "/todos", "{\"title\":\"" + "x".repeat(70_000) + "\"}", 413},
+        };
+        for (Object[] c : cases) {
+            HttpResponse<String> r = send((String) c[0], (String) c[1], (String) c[2]);
+            String name = c[0] + " " + c[1];
+            assertEquals(c[3], r.statusCode(), name);
+            assertTrue(Json.parseObject(r.body()).get("error") instanceof String, name);
+        }
+        assertEquals(1, store.getAllItems().size());
+        assertEquals("Plain|false", store.getById("a").map(i -> i.getTitle() + "|" + i.isCompleted()).orElseThrow());
+    }
+
+    @Test
+    void occurrenceKeepsItsDates() throws Exception {
+        TodoStore store = serve(dir.resolve("todos.txt"));
+        store.addRecurring(new Recurrence("s", "Stand-up", DAY, DAY.plusDays(30), Recurrence.Frequency.WEEKLY,
+                Set.of(DayOfWeek.MONDAY)));
+        String id = Recurrence.occurrenceId("s", DAY.plusDays(7));
+
+        HttpResponse<String> r = send("PUT", "/todos/" + id, "{\"title\":\"Moved\",\"date\":\"" + DAY.plusDays(8) + "\"}");
+        assertEquals(400, r.statusCode());
+        assertEquals("Stand-up", store.getById(id).orElseThrow().getTitle());
+
+        r = send("PUT", "/todos/" + id, "{\"title\":\"Retro\",\"completed\":true,\"date\":\"" + DAY.plusDays(7) + "\"}");
+        assertEquals(200, r.statusCode());
+        assertEquals(json(id, "Retro", DAY.plusDays(7), DAY.plusDays(7), true), r.body());
+        assertEquals(r.body(), send("GET", "/todos/" + id, null).body());
+    }
+
+    @Test
+    void failedSaveIsAnInternalError() throws Exception {
+        Path notADirectory = dir.resolve("file");
+        Files.writeString(notADirectory, "");
+        TodoStore store = serve(notADirectory.resolve("todos.txt"));
+        HttpResponse<String> r = send("POST", "/todos", "{\"title\":\"Lost\",\"date\":\"" + DAY + "\"}");
+        assertEquals(500, r.statusCode());
+        assertEquals("{\"error\":\"Internal server error\"}", r.body());
+        assertEquals(200, send("GET", "/todos?date=" + DAY, null).statusCode());
+        assertEquals(1, store.getAllItems().size());
+    }
+}
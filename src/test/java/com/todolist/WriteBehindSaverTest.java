@@ -0,0 +1,57 @@
+package com.todolist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Debouncing: each request pushes the write back, up to the maximum wait. */
+class WriteBehindSaverTest {
+
+    @Test
+    void eachRequestPushesTheWriteBack() throws Exception {
+        AtomicInteger saves = new AtomicInteger();
+        CountDownLatch saved = new CountDownLatch(1);
+        WriteBehindSaver saver = new WriteBehindSaver(() -> {
+            saves.incrementAndGet();
+            saved.countDown();
+        }, 300, 60_000, e -> { });
+        for (int i = 0; i < 12; i++) {
+            saver.request();
+            Thread.sleep(50);
+        }
+        assertEquals(0, saves.get(), "written while requests were still arriving");
+        assertTrue(saved.await(5, TimeUnit.SECONDS));
+        Thread.sleep(400);
+        assertEquals(1, saves.get());
+        saver.close();
+    }
+
+    @Test
+    void aBurstThatNeverPausesIsWrittenAfterTheMaximumWait() throws Exception {
+        AtomicInteger saves = new AtomicInteger();
+        WriteBehindSaver saver = new WriteBehindSaver(saves::incrementAndGet, 300, 400, e -> { });
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2000);
+        while (System.nanoTime() < end) {
+            saver.request();
+            Thread.sleep(20);
+        }
+        assertTrue(saves.get() >= 2, "saves during the burst: " + saves.get());
+        saver.close();
+    }
+
+    @Test
+    void flushWritesPendingChangesAtOnce() throws Exception {
+        AtomicInteger saves = new AtomicInteger();
+        WriteBehindSaver saver = new WriteBehindSaver(saves::incrementAndGet, 60_000, e -> { });
+        saver.request();
+        saver.flush();
+        assertEquals(1, saves.get());
+        saver.flush();
+        assertEquals(1, saves.get());
+        saver.close();
+    }
+}